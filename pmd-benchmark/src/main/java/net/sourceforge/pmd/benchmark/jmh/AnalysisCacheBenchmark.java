@@ -0,0 +1,101 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.cache.FileAnalysisCache;
+
+/**
+ * Loads and persists a file analysis cache, and checks whether the files are
+ * up to date, on copies of the corpus written to a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalysisCacheBenchmark {
+
+    @Param({ "100", "1000" })
+    public int fileCount;
+
+    private File directory;
+    private File cacheFile;
+    private List<File> files;
+    private FileAnalysisCache analyzedCache;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("pmd-benchmark").toFile();
+        cacheFile = new File(directory, "pmd.cache");
+        files = new ArrayList<>(fileCount);
+        List<String> sources = new ArrayList<>(Corpus.load().values());
+        for (int i = 0; i < fileCount; i++) {
+            File file = new File(directory, "Source" + i + ".java");
+            FileUtils.write(file, sources.get(i % sources.size()), StandardCharsets.UTF_8);
+            files.add(file);
+        }
+
+        // a cache of which all the files were analyzed, without violations
+        analyzedCache = new FileAnalysisCache(cacheFile);
+        for (File file : files) {
+            analyzedCache.isUpToDate(file);
+        }
+        analyzedCache.persist();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public FileAnalysisCache load() {
+        return new FileAnalysisCache(cacheFile);
+    }
+
+    /**
+     * Loads the cache and checks the files, as PMD does before it analyzes
+     * the files again.
+     */
+    @Benchmark
+    public int loadAndCheck() {
+        FileAnalysisCache cache = new FileAnalysisCache(cacheFile);
+        int upToDate = 0;
+        for (File file : files) {
+            if (cache.isUpToDate(file)) {
+                upToDate++;
+            }
+        }
+        return upToDate;
+    }
+
+    @Benchmark
+    public void persist() {
+        analyzedCache.persist();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.Parser;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+/**
+ * The Java sources the benchmarks run on. They are copies of PMD sources of
+ * different sizes, stored as <code>.txt</code> resources of this module so
+ * that the benchmarks run offline and always on the same code.
+ */
+final class Corpus {
+
+    private static final String[] FILES = { "ClassTypeResolver", "GodClassRule", "GUI", "Report", "RuleSetFactory",
+        "ScopeAndDeclarationFinder", "StringUtil", };
+
+    private Corpus() { }
+
+    /**
+     * @return the sources, by file name
+     */
+    static Map<String, String> load() throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (String file : FILES) {
+            try (InputStream in = Corpus.class.getResourceAsStream("corpus/" + file + ".txt")) {
+                sources.put(file + ".java", IOUtils.toString(in, StandardCharsets.UTF_8));
+            }
+        }
+        return sources;
+    }
+
+    static LanguageVersion javaVersion() {
+        return LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion();
+    }
+
+    static List<ASTCompilationUnit> parse(Map<String, String> sources) {
+        LanguageVersionHandler handler = javaVersion().getLanguageVersionHandler();
+        List<ASTCompilationUnit> units = new ArrayList<>(sources.size());
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Parser parser = handler.getParser(handler.getDefaultParserOptions());
+            units.add((ASTCompilationUnit) parser.parse(source.getKey(), new StringReader(source.getValue())));
+        }
+        return units;
+    }
+
+    /**
+     * Parses the sources and builds their symbol table, which the rules need
+     * to report violations.
+     */
+    static List<ASTCompilationUnit> parseWithSymbols(Map<String, String> sources) {
+        LanguageVersionHandler handler = javaVersion().getLanguageVersionHandler();
+        List<ASTCompilationUnit> units = parse(sources);
+        for (ASTCompilationUnit unit : units) {
+            handler.getSymbolFacade(Corpus.class.getClassLoader()).start(unit);
+        }
+        return units;
+    }
+}
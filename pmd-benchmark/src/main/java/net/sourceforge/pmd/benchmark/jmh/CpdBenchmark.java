@@ -0,0 +1,69 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.cpd.JavaTokenizer;
+import net.sourceforge.pmd.cpd.Match;
+import net.sourceforge.pmd.cpd.MatchAlgorithm;
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokens;
+
+/**
+ * Finds the duplicated code of the corpus with the CPD match algorithm, the
+ * corpus is tokenized once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CpdBenchmark {
+
+    @Param({ "25", "100" })
+    public int minimumTileSize;
+
+    private Map<String, SourceCode> sourceCode;
+    private Tokens tokens;
+
+    @Setup
+    public void setup() throws IOException {
+        TokenEntry.clearImages();
+        sourceCode = new HashMap<>();
+        tokens = new Tokens();
+        JavaTokenizer tokenizer = new JavaTokenizer();
+        for (Map.Entry<String, String> source : Corpus.load().entrySet()) {
+            SourceCode code = new SourceCode(new SourceCode.StringCodeLoader(source.getValue(), source.getKey()));
+            tokenizer.tokenize(code, tokens);
+            sourceCode.put(source.getKey(), code);
+        }
+    }
+
+    @Benchmark
+    public Iterator<Match> findMatches() {
+        MatchAlgorithm matchAlgorithm = new MatchAlgorithm(sourceCode, tokens, minimumTileSize);
+        matchAlgorithm.findMatches();
+        return matchAlgorithm.matches();
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.Parser;
+
+/**
+ * Parses the corpus with the Java parser, like PMD does for each file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+
+    private Map<String, String> sources;
+    private LanguageVersionHandler handler;
+
+    @Setup
+    public void setup() throws IOException {
+        sources = Corpus.load();
+        handler = Corpus.javaVersion().getLanguageVersionHandler();
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Parser parser = handler.getParser(handler.getDefaultParserOptions());
+            blackhole.consume(parser.parse(source.getKey(), new StringReader(source.getValue())));
+        }
+    }
+}
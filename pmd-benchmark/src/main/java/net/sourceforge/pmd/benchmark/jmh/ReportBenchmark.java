@@ -0,0 +1,91 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTName;
+import net.sourceforge.pmd.lang.java.rule.JavaRuleViolation;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+
+/**
+ * Adds violations to a report, the violations of each file in the order of
+ * their nodes, like the rules report them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportBenchmark {
+
+    private static final int RULES = 20;
+
+    @Param({ "1000", "10000" })
+    public int violationCount;
+
+    private List<RuleViolation> violations;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < RULES; i++) {
+            XPathRule rule = new XPathRule();
+            rule.setName("Rule" + i);
+            rules.add(rule);
+        }
+
+        violations = new ArrayList<>(violationCount);
+        RuleContext ctx = new RuleContext();
+        Map<String, String> sources = Corpus.load();
+        List<String> fileNames = new ArrayList<>(sources.keySet());
+        List<ASTCompilationUnit> units = Corpus.parseWithSymbols(sources);
+        for (int copy = 0; violations.size() < violationCount; copy++) {
+            for (int i = 0; i < units.size(); i++) {
+                // the corpus is reported as many times as needed, in other
+                // directories
+                ctx.setSourceCodeFilename("/src/copy" + copy + "/" + fileNames.get(i));
+                for (ASTName name : units.get(i).findDescendantsOfType(ASTName.class)) {
+                    if (violations.size() == violationCount) {
+                        return;
+                    }
+                    Rule rule = rules.get(violations.size() % RULES);
+                    violations.add(new JavaRuleViolation(rule, ctx, name, name.getImage()));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Report addRuleViolations() {
+        Report report = new Report();
+        for (RuleViolation violation : violations) {
+            report.addRuleViolation(violation);
+        }
+        return report;
+    }
+}
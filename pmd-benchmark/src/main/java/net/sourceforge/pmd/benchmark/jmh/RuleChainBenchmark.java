@@ -0,0 +1,97 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSetNotFoundException;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.rule.JavaRuleChainVisitor;
+
+/**
+ * Indexes the nodes of the corpus by type for the rules of the RuleChain of
+ * some of the Java rulesets, which is done once per file before the rules
+ * visit the nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RuleChainBenchmark {
+
+    private static final String RULESETS = "rulesets/java/basic.xml,rulesets/java/design.xml,"
+            + "rulesets/java/unusedcode.xml";
+
+    private List<ASTCompilationUnit> units;
+    private IndexingVisitor visitor;
+    private RuleContext ctx;
+
+    @Setup
+    public void setup() throws IOException, RuleSetNotFoundException {
+        Map<String, String> sources = Corpus.load();
+        units = Corpus.parse(sources);
+        visitor = new IndexingVisitor();
+        for (RuleSet ruleSet : new RuleSetFactory().createRuleSets(RULESETS).getAllRuleSets()) {
+            for (Rule rule : ruleSet.getRules()) {
+                if (rule.usesRuleChain()) {
+                    visitor.add(ruleSet, rule);
+                }
+            }
+        }
+        visitor.prepare();
+        ctx = new RuleContext();
+        ctx.setLanguageVersion(Corpus.javaVersion());
+    }
+
+    @Benchmark
+    public Map<String, List<Node>> indexNodes() {
+        for (ASTCompilationUnit unit : units) {
+            visitor.index(Collections.<Node>singletonList(unit), ctx);
+        }
+        return visitor.getIndex();
+    }
+
+    /**
+     * Gives access to the indexing step of the visitor, without the visits of
+     * the rules.
+     */
+    private static final class IndexingVisitor extends JavaRuleChainVisitor {
+
+        void prepare() {
+            initialize();
+        }
+
+        void index(List<Node> nodes, RuleContext ctx) {
+            clear();
+            indexNodes(nodes, ctx);
+        }
+
+        Map<String, List<Node>> getIndex() {
+            return nodeNameToNodes;
+        }
+    }
+}
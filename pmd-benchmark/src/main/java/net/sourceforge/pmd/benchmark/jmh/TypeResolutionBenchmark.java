@@ -0,0 +1,71 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+/**
+ * Resolves the types of the corpus with the <code>ClassTypeResolver</code>,
+ * after the symbol table is built, like PMD does. Each invocation runs on
+ * freshly parsed compilation units. The classes are loaded by the first
+ * invocations, so this measures the resolution with warm class loader caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TypeResolutionBenchmark {
+
+    private Map<String, String> sources;
+    private LanguageVersionHandler handler;
+    private ClassLoader classLoader;
+
+    private List<ASTCompilationUnit> units;
+
+    @Setup
+    public void setup() throws IOException {
+        sources = Corpus.load();
+        handler = Corpus.javaVersion().getLanguageVersionHandler();
+        // the corpus are PMD sources, so the types they use are on the
+        // classpath of the benchmarks
+        classLoader = TypeResolutionBenchmark.class.getClassLoader();
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        units = Corpus.parse(sources);
+        for (ASTCompilationUnit unit : units) {
+            handler.getSymbolFacade(classLoader).start(unit);
+        }
+    }
+
+    @Benchmark
+    public List<ASTCompilationUnit> typeResolution() {
+        for (ASTCompilationUnit unit : units) {
+            handler.getTypeResolutionFacade(classLoader).start(unit);
+        }
+        return units;
+    }
+}
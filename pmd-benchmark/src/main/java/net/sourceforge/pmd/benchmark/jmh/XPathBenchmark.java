@@ -0,0 +1,87 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+import net.sourceforge.pmd.lang.rule.xpath.XPathRuleQuery;
+
+/**
+ * Evaluates XPath rules on the corpus, with Jaxen (XPath 1.0) and with Saxon
+ * (XPath 2.0). The rules are evaluated on the compilation units, like the
+ * XPath rules which don't use the RuleChain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XPathBenchmark {
+
+    // the expressions have the same meaning in XPath 1.0 and 2.0, which
+    // compare e.g. the boolean attributes differently
+    private static final String[] XPATHS = {
+        "//IfStatement[count(*) = 2]/Statement/Block[count(*) = 0]",
+        "//FieldDeclaration[Type/ReferenceType/ClassOrInterfaceType[@Image = 'Map' or @Image = 'List']]",
+        "//MethodDeclaration[MethodDeclarator[@ParameterCount > 2]]//LocalVariableDeclaration"
+            + "[Type/ReferenceType/ClassOrInterfaceType[@Image = 'String']]",
+        "//PrimaryExpression[PrimaryPrefix/Name[contains(@Image, '.size')]]",
+    };
+
+    @Param({ XPathRuleQuery.XPATH_1_0, XPathRuleQuery.XPATH_2_0 })
+    public String version;
+
+    private List<ASTCompilationUnit> units;
+    private List<XPathRule> rules;
+    private RuleContext ctx;
+
+    @Setup
+    public void setup() throws IOException {
+        units = Corpus.parseWithSymbols(Corpus.load());
+        rules = new ArrayList<>();
+        for (String xpath : XPATHS) {
+            XPathRule rule = new XPathRule(xpath);
+            rule.setVersion(version);
+            rule.setName("XPath" + rules.size());
+            rule.setMessage("Matched");
+            rule.setLanguage(Corpus.javaVersion().getLanguage());
+            rules.add(rule);
+        }
+        ctx = new RuleContext();
+        ctx.setLanguageVersion(Corpus.javaVersion());
+    }
+
+    @Benchmark
+    public Report evaluate() {
+        Report report = new Report();
+        ctx.setReport(report);
+        for (ASTCompilationUnit unit : units) {
+            for (XPathRule rule : rules) {
+                rule.evaluate(unit, ctx);
+            }
+        }
+        return report;
+    }
+}
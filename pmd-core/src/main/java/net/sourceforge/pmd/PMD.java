@@ -28,6 +28,9 @@ import org.apache.commons.lang3.StringUtils;
 
 import net.sourceforge.pmd.benchmark.Benchmark;
 import net.sourceforge.pmd.benchmark.Benchmarker;
+import net.sourceforge.pmd.benchmark.FileProfiler;
+import net.sourceforge.pmd.benchmark.PMDMetrics;
+import net.sourceforge.pmd.benchmark.ProfileReport;
 import net.sourceforge.pmd.benchmark.TextReport;
 import net.sourceforge.pmd.cli.PMDCommandLineInterface;
 import net.sourceforge.pmd.cli.PMDParameters;
@@ -49,6 +52,7 @@ import net.sourceforge.pmd.util.database.DBMSMetadata;
 import net.sourceforge.pmd.util.database.DBURI;
 import net.sourceforge.pmd.util.database.SourceObject;
 import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.DataSourceFilter;
 import net.sourceforge.pmd.util.datasource.ReaderDataSource;
 import net.sourceforge.pmd.util.log.ConsoleLogHandler;
 import net.sourceforge.pmd.util.log.ScopedLogHandlersManager;
@@ -260,11 +264,11 @@ public class PMD {
 
         long reportStart = System.nanoTime();
         try {
-            Renderer renderer = configuration.createRenderer();
+            Renderer renderer = configuration.createRenderer(true);
             List<Renderer> renderers = Collections.singletonList(renderer);
 
-            renderer.setWriter(IOUtil.createWriter(configuration.getReportFile()));
             renderer.start();
+            files = filterFiles(configuration, renderer, files);
 
             Benchmarker.mark(Benchmark.Reporting, System.nanoTime() - reportStart, 0);
 
@@ -281,7 +285,12 @@ public class PMD {
                 }
             });
 
-            processFiles(configuration, ruleSetFactory, files, ctx, renderers);
+            startProfile(configuration);
+            try {
+                processFiles(configuration, ruleSetFactory, files, ctx, renderers);
+            } finally {
+                endProfile(configuration);
+            }
 
             reportStart = System.nanoTime();
             renderer.end();
@@ -387,6 +396,10 @@ public class PMD {
 
         sortFiles(configuration, files);
 
+        PMDMetrics metrics = PMDMetrics.getInstance();
+        metrics.registerMBean();
+        metrics.filesQueued(files.size());
+
         // Make sure the cache is listening for analysis results
         ctx.getReport().addListener(configuration.getAnalysisCache());
 
@@ -406,6 +419,14 @@ public class PMD {
         // Persist the analysis cache
         configuration.getAnalysisCache().persist();
 
+        if (configuration.getMetricsFile() != null) {
+            try {
+                metrics.writeTo(new File(configuration.getMetricsFile()));
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not write the metrics to " + configuration.getMetricsFile(), e);
+            }
+        }
+
         if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
             IOUtil.tryCloseClassLoader(configuration.getClassLoader());
         }
@@ -573,6 +594,45 @@ public class PMD {
         return status;
     }
 
+    /**
+     * Applies the file filter of the configuration, then the renderer's one,
+     * if the renderer is a {@link DataSourceFilter}.
+     */
+    private static List<DataSource> filterFiles(PMDConfiguration configuration, Renderer renderer,
+            List<DataSource> files) throws IOException {
+        List<DataSource> filtered = files;
+        if (configuration.getDataSourceFilter() != null) {
+            filtered = configuration.getDataSourceFilter().filter(filtered);
+        }
+        if (renderer instanceof DataSourceFilter) {
+            filtered = ((DataSourceFilter) renderer).filter(filtered);
+        }
+        if (filtered.size() != files.size()) {
+            LOG.fine("Analyzing " + filtered.size() + " files out of " + files.size());
+        }
+        return filtered;
+    }
+
+    private static void startProfile(PMDConfiguration configuration) {
+        if (configuration.getProfileFile() != null) {
+            FileProfiler.reset();
+            FileProfiler.setEnabled(true);
+        }
+    }
+
+    private static void endProfile(PMDConfiguration configuration) {
+        if (configuration.getProfileFile() != null) {
+            FileProfiler.setEnabled(false);
+            ProfileReport report = new ProfileReport(FileProfiler.values());
+            FileProfiler.reset();
+            try {
+                report.write(new File(configuration.getProfileFile()), configuration.getProfileCount());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not write the profile to " + configuration.getProfileFile(), e);
+            }
+        }
+    }
+
     /**
      * Determines the version from maven's generated pom.properties file.
      */
@@ -16,10 +16,12 @@ import net.sourceforge.pmd.cache.NoopAnalysisCache;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
 import net.sourceforge.pmd.util.ClasspathClassLoader;
 import net.sourceforge.pmd.util.IOUtil;
+import net.sourceforge.pmd.util.datasource.DataSourceFilter;
 
 /**
  * This class contains the details for the runtime configuration of PMD. There
@@ -81,6 +83,9 @@ import net.sourceforge.pmd.util.IOUtil;
  */
 public class PMDConfiguration extends AbstractConfiguration {
 
+    /** Appended to the analysis cache file name to get the auxclasspath index file. */
+    private static final String CLASSPATH_INDEX_SUFFIX = ".classpath-index";
+
     // General behavior options
     private String suppressMarker = PMD.SUPPRESS_MARKER;
     private int threads = Runtime.getRuntime().availableProcessors();
@@ -105,7 +110,11 @@ public class PMDConfiguration extends AbstractConfiguration {
 
     private boolean stressTest;
     private boolean benchmark;
+    private String profileFile;
+    private int profileCount = 10;
+    private String metricsFile;
     private AnalysisCache analysisCache = new NoopAnalysisCache();
+    private DataSourceFilter dataSourceFilter;
 
     /**
      * Get the suppress marker. This is the source level marker used to indicate
@@ -168,6 +177,7 @@ public class PMDConfiguration extends AbstractConfiguration {
         } else {
             this.classLoader = classLoader;
         }
+        configureClasspathIndex();
     }
 
     /**
@@ -193,6 +203,18 @@ public class PMDConfiguration extends AbstractConfiguration {
         }
         if (classpath != null) {
             classLoader = new ClasspathClassLoader(classpath, classLoader);
+            configureClasspathIndex();
+        }
+    }
+
+    /**
+     * Stores the index of the auxclasspath next to the analysis cache, if
+     * there are both.
+     */
+    private void configureClasspathIndex() {
+        if (classLoader instanceof ClasspathClassLoader && analysisCache instanceof FileAnalysisCache) {
+            File cacheFile = ((FileAnalysisCache) analysisCache).getCacheFile();
+            ((ClasspathClassLoader) classLoader).setIndexFile(new File(cacheFile.getPath() + CLASSPATH_INDEX_SUFFIX));
         }
     }
 
@@ -387,7 +409,11 @@ public class PMDConfiguration extends AbstractConfiguration {
         Renderer renderer = RendererFactory.createRenderer(reportFormat, reportProperties);
         renderer.setShowSuppressedViolations(showSuppressedViolations);
         if (withReportWriter) {
-            renderer.setWriter(IOUtil.createWriter(reportFile));
+            if (renderer instanceof BinaryRenderer) {
+                ((BinaryRenderer) renderer).setOutputStream(IOUtil.createOutputStream(reportFile));
+            } else {
+                renderer.setWriter(IOUtil.createWriter(reportFile));
+            }
         }
         return renderer;
     }
@@ -517,6 +543,78 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.benchmark = benchmark;
     }
 
+    /**
+     * Get the file to which the profile of the analyzed files is written. If
+     * it is set, PMD records the durations of the phases and rules on each
+     * file, see {@link net.sourceforge.pmd.benchmark.ProfileReport}.
+     *
+     * @return The profile file, or <code>null</code> if the files aren't
+     *         profiled.
+     */
+    public String getProfileFile() {
+        return profileFile;
+    }
+
+    /**
+     * Set the file to which the profile of the analyzed files is written. The
+     * profile is written as JSON if the name of the file ends with
+     * <code>.json</code>, as CSV if it ends with <code>.csv</code>, and as
+     * text otherwise.
+     *
+     * @param profileFile
+     *            The profile file, or <code>null</code> to not profile.
+     * @see #getProfileFile()
+     */
+    public void setProfileFile(String profileFile) {
+        this.profileFile = profileFile;
+    }
+
+    /**
+     * Get the number of slowest files, and of slowest rules on a file, of the
+     * text profile.
+     *
+     * @return The number of files and rules.
+     */
+    public int getProfileCount() {
+        return profileCount;
+    }
+
+    /**
+     * Set the number of slowest files, and of slowest rules on a file, of the
+     * text profile.
+     *
+     * @param profileCount
+     *            The number of files and rules.
+     * @see #getProfileCount()
+     */
+    public void setProfileCount(int profileCount) {
+        this.profileCount = profileCount;
+    }
+
+    /**
+     * Get the file to which the metrics of the PMD runs of the JVM are
+     * written, in the Prometheus text format, after each run.
+     *
+     * @return The metrics file, or <code>null</code> if the metrics are only
+     *         published with JMX.
+     * @see net.sourceforge.pmd.benchmark.PMDMetrics
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Set the file to which the metrics of the PMD runs of the JVM are
+     * written, in the Prometheus text format, after each run.
+     *
+     * @param metricsFile
+     *            The metrics file, or <code>null</code> to not write it.
+     * @see #getMetricsFile()
+     */
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
     /**
      * Whether PMD should exit with status 4 (the default behavior, true) if
      * violations are found or just with 0 (to not break the build, e.g.).
@@ -582,6 +680,27 @@ public class PMDConfiguration extends AbstractConfiguration {
         } else {
             analysisCache = cache;
         }
+        configureClasspathIndex();
+    }
+
+    /**
+     * Get the filter selecting the files to analyze, if any.
+     *
+     * @return the filter, or <code>null</code> if all the files are analyzed
+     */
+    public DataSourceFilter getDataSourceFilter() {
+        return dataSourceFilter;
+    }
+
+    /**
+     * Set the filter selecting the files to analyze, among the files of the
+     * input paths which match the languages of the rules and aren't excluded.
+     *
+     * @param dataSourceFilter
+     *            the filter, or <code>null</code> to analyze all the files
+     */
+    public void setDataSourceFilter(DataSourceFilter dataSourceFilter) {
+        this.dataSourceFilter = dataSourceFilter;
     }
 
     /**
@@ -32,13 +32,14 @@ public class Report implements Iterable<RuleViolation> {
     /*
      * The idea is to store the violations in a tree instead of a list, to do
      * better and faster sort and filter mechanism and to visualize the result
-     * as tree. (ide plugins).
+     * as tree. (ide plugins). It is only built when asked for.
      */
-    private final ReportTree violationTree = new ReportTree();
+    private ReportTree violationTree;
 
-    // Note that this and the above data structure are both being maintained for
-    // a bit
+    // appended unsorted, sorted in place once when iterated: a merged report is
+    // made of k sorted runs, which the sort (TimSort) merges in O(n log k)
     private final List<RuleViolation> violations = new ArrayList<>();
+    private boolean sorted = true;
     private final Set<Metric> metrics = new HashSet<>();
     private final List<SynchronizedReportListener> listeners = new ArrayList<>();
     private List<ProcessingError> errors;
@@ -243,7 +244,7 @@ public class Report implements Iterable<RuleViolation> {
      */
     public Map<String, Integer> getCountSummary() {
         Map<String, Integer> summary = new HashMap<>();
-        for (RuleViolation rv : violationTree) {
+        for (RuleViolation rv : getViolationTree()) {
             String key = keyFor(rv);
             Integer o = summary.get(key);
             summary.put(key, o == null ? NumericConstants.ONE : o + 1);
@@ -251,8 +252,22 @@ public class Report implements Iterable<RuleViolation> {
         return summary;
     }
 
+    /**
+     * Returns the violations as a tree of packages and classes. The tree is
+     * built the first time it is asked for, from the violations sorted as by
+     * {@link #iterator()}, and not in the order they were added. The
+     * violations added afterwards are added to the tree as they come.
+     *
+     * @return the tree of the violations
+     */
     public ReportTree getViolationTree() {
-        return this.violationTree;
+        if (violationTree == null) {
+            violationTree = new ReportTree();
+            for (RuleViolation violation : this) {
+                violationTree.addRuleViolation(violation);
+            }
+        }
+        return violationTree;
     }
 
     /**
@@ -308,14 +323,32 @@ public class Report implements Iterable<RuleViolation> {
             return;
         }
 
-        int index = Collections.binarySearch(violations, violation, RuleViolationComparator.INSTANCE);
-        violations.add(index < 0 ? -index - 1 : index, violation);
-        violationTree.addRuleViolation(violation);
+        append(violation);
         for (ReportListener listener : listeners) {
             listener.ruleViolationAdded(violation);
         }
     }
 
+    private void append(RuleViolation violation) {
+        if (sorted && !violations.isEmpty()
+                && RuleViolationComparator.INSTANCE.compare(violations.get(violations.size() - 1), violation) > 0) {
+            sorted = false;
+        }
+        violations.add(violation);
+        if (violationTree != null) {
+            violationTree.addRuleViolation(violation);
+        }
+    }
+
+    private List<RuleViolation> sortedViolations() {
+        if (!sorted) {
+            // stable, so that equal violations stay in the order they were added
+            Collections.sort(violations, RuleViolationComparator.INSTANCE);
+            sorted = true;
+        }
+        return violations;
+    }
+
     /**
      * Adds a new metric to the report and notify the listeners
      *
@@ -375,10 +408,7 @@ public class Report implements Iterable<RuleViolation> {
         }
         Iterator<RuleViolation> v = r.iterator();
         while (v.hasNext()) {
-            RuleViolation violation = v.next();
-            int index = Collections.binarySearch(violations, violation, RuleViolationComparator.INSTANCE);
-            violations.add(index < 0 ? -index - 1 : index, violation);
-            violationTree.addRuleViolation(violation);
+            append(v.next());
         }
         Iterator<SuppressedViolation> s = r.getSuppressedRuleViolations().iterator();
         while (s.hasNext()) {
@@ -406,7 +436,7 @@ public class Report implements Iterable<RuleViolation> {
     }
 
     public boolean isEmpty() {
-        return !violations.iterator().hasNext() && !hasErrors();
+        return violations.isEmpty() && !hasErrors();
     }
 
     /**
@@ -436,7 +466,7 @@ public class Report implements Iterable<RuleViolation> {
      *         <code>false</code> otherwise
      */
     public boolean treeIsEmpty() {
-        return !violationTree.iterator().hasNext();
+        return violations.isEmpty();
     }
 
     /**
@@ -445,12 +475,20 @@ public class Report implements Iterable<RuleViolation> {
      * @return an iterator
      */
     public Iterator<RuleViolation> treeIterator() {
-        return violationTree.iterator();
+        return getViolationTree().iterator();
     }
 
+    /**
+     * Returns the violations, sorted with {@link RuleViolationComparator}.
+     * The violations are appended as they are added, and sorted in place when
+     * they are iterated after additions: iterating the report modifies it, so
+     * it must not be iterated while another thread adds violations.
+     *
+     * @return an iterator of the sorted violations
+     */
     @Override
     public Iterator<RuleViolation> iterator() {
-        return violations.iterator();
+        return sortedViolations().iterator();
     }
 
     /**
@@ -477,7 +515,7 @@ public class Report implements Iterable<RuleViolation> {
      * @return number of violations.
      */
     public int treeSize() {
-        return violationTree.size();
+        return getViolationTree().size();
     }
 
     /**
@@ -12,9 +12,12 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 
 import net.sourceforge.pmd.benchmark.Benchmark;
 import net.sourceforge.pmd.benchmark.Benchmarker;
+import net.sourceforge.pmd.benchmark.FileProfiler;
+import net.sourceforge.pmd.benchmark.PMDMetrics;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
@@ -48,10 +51,14 @@ public class SourceCodeProcessor {
      * @see #processSourceCode(Reader, RuleSets, RuleContext)
      */
     public void processSourceCode(InputStream sourceCode, RuleSets ruleSets, RuleContext ctx) throws PMDException {
+        CountingInputStream countingSourceCode = new CountingInputStream(sourceCode);
         try {
-            processSourceCode(new InputStreamReader(sourceCode, configuration.getSourceEncoding()), ruleSets, ctx);
+            processSourceCode(new InputStreamReader(countingSourceCode, configuration.getSourceEncoding()), ruleSets,
+                    ctx);
         } catch (UnsupportedEncodingException uee) {
             throw new PMDException("Unsupported encoding exception: " + uee.getMessage());
+        } finally {
+            PMDMetrics.getInstance().bytesRead(countingSourceCode.getByteCount());
         }
     }
 
@@ -77,6 +84,17 @@ public class SourceCodeProcessor {
      *             not be parsed, or other error is encountered.
      */
     public void processSourceCode(Reader sourceCode, RuleSets ruleSets, RuleContext ctx) throws PMDException {
+        PMDMetrics metrics = PMDMetrics.getInstance();
+        metrics.fileStarted();
+        try {
+            processSourceCodeUnlessUpToDate(sourceCode, ruleSets, ctx);
+        } finally {
+            metrics.fileEnded();
+        }
+    }
+
+    private void processSourceCodeUnlessUpToDate(Reader sourceCode, RuleSets ruleSets, RuleContext ctx)
+            throws PMDException {
         determineLanguage(ctx);
 
         // make sure custom XPath functions are initialized
@@ -89,16 +107,20 @@ public class SourceCodeProcessor {
                 return;
             }
 
+            FileProfiler.startFile(ctx.getSourceCodeFilename());
             try {
                 processSource(sourceCode, ruleSets, ctx);
             } catch (ParseException pe) {
+                PMDMetrics.getInstance().parseError();
                 configuration.getAnalysisCache().analysisFailed(ctx.getSourceCodeFile());
                 throw new PMDException("Error while parsing " + ctx.getSourceCodeFilename(), pe);
             } catch (Exception e) {
+                PMDMetrics.getInstance().processingError();
                 configuration.getAnalysisCache().analysisFailed(ctx.getSourceCodeFile());
                 throw new PMDException("Error while processing " + ctx.getSourceCodeFilename(), e);
             } finally {
                 IOUtils.closeQuietly(sourceCode);
+                FileProfiler.endFile();
             }
         }
     }
@@ -26,6 +26,7 @@ import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.types.Parameter;
 
 import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
 import net.sourceforge.pmd.util.StringUtil;
@@ -38,6 +39,7 @@ public class Formatter {
     private boolean showSuppressed;
     private final List<Parameter> parameters = new ArrayList<>();
     private Writer writer;
+    private OutputStream outputStream;
     private Renderer renderer;
 
     public void setShowSuppressed(boolean value) {
@@ -97,14 +99,20 @@ public class Formatter {
         }
 
         try {
-            if (toConsole) {
-                writer = new BufferedWriter(new OutputStreamWriter(System.out, charset));
-            }
-            if (toFile != null) {
-                writer = getToFileWriter(baseDir, toFile, charset);
-            }
             renderer = createRenderer();
-            renderer.setWriter(writer);
+            if (renderer instanceof BinaryRenderer) {
+                // written as bytes, the encoding doesn't apply
+                outputStream = toFile != null ? new FileOutputStream(getFile(baseDir, toFile)) : System.out;
+                ((BinaryRenderer) renderer).setOutputStream(outputStream);
+            } else {
+                if (toConsole) {
+                    writer = new BufferedWriter(new OutputStreamWriter(System.out, charset));
+                }
+                if (toFile != null) {
+                    writer = getToFileWriter(baseDir, toFile, charset);
+                }
+                renderer.setWriter(writer);
+            }
             renderer.start();
         } catch (IOException ioe) {
             throw new BuildException(ioe.getMessage(), ioe);
@@ -115,7 +123,13 @@ public class Formatter {
         try {
             renderer.renderFileReport(errorReport);
             renderer.end();
-            if (toConsole) {
+            if (outputStream != null) {
+                if (toFile == null) {
+                    outputStream.flush();
+                } else {
+                    outputStream.close();
+                }
+            } else if (toConsole) {
                 writer.flush();
             } else {
                 writer.close();
@@ -170,13 +184,15 @@ public class Formatter {
         return properties;
     }
 
-    private static Writer getToFileWriter(String baseDir, File toFile, Charset charset) throws IOException {
-        final File file;
+    private static File getFile(String baseDir, File toFile) {
         if (toFile.isAbsolute()) {
-            file = toFile;
-        } else {
-            file = new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
+            return toFile;
         }
+        return new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
+    }
+
+    private static Writer getToFileWriter(String baseDir, File toFile, Charset charset) throws IOException {
+        final File file = getFile(baseDir, toFile);
 
         OutputStream output = null;
         Writer writer = null;
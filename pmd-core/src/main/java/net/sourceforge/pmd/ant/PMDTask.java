@@ -36,6 +36,7 @@ public class PMDTask extends Task {
     private String failuresPropertyName;
     private SourceLanguage sourceLanguage;
     private String cacheLocation;
+    private String metricsFile;
     private final Collection<RuleSetWrapper> nestedRules = new ArrayList<>();
 
     @Override
@@ -254,4 +255,12 @@ public class PMDTask extends Task {
     public void setCacheLocation(String cacheLocation) {
         this.cacheLocation = cacheLocation;
     }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
 }
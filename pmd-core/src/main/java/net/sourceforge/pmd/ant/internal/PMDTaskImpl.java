@@ -80,6 +80,7 @@ public class PMDTaskImpl {
         this.failuresPropertyName = task.getFailuresPropertyName();
         configuration.setMinimumPriority(RulePriority.valueOf(task.getMinimumPriority()));
         configuration.setAnalysisCacheLocation(task.getCacheLocation());
+        configuration.setMetricsFile(task.getMetricsFile());
 
         SourceLanguage version = task.getSourceLanguage();
         if (version != null) {
@@ -4,12 +4,18 @@
 
 package net.sourceforge.pmd.benchmark;
 
+/**
+ * The durations of a phase or of a rule. A result is updated by the thread
+ * which marks it, and read by the thread which merges the results, so its
+ * methods are synchronized; the lock is uncontended while marking.
+ */
 class BenchmarkResult implements Comparable<BenchmarkResult> {
 
     public final Benchmark type;
     public final String name;
     private long time;
     private long count;
+    private final LatencyHistogram histogram = new LatencyHistogram();
 
     BenchmarkResult(Benchmark type, String name) {
         this.type = type;
@@ -22,24 +28,47 @@ class BenchmarkResult implements Comparable<BenchmarkResult> {
         this.count = count;
     }
 
-    public long getTime() {
+    public synchronized long getTime() {
         return time;
     }
 
-    public long getCount() {
+    public synchronized long getCount() {
         return count;
     }
 
-    public void update(long time, long count) {
+    /**
+     * @return the distribution of the durations of the marks, which must not
+     *         be read while this result is being updated, e.g. of a merged
+     *         result
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public synchronized void update(long time, long count) {
         this.time += time;
         this.count += count;
+        histogram.record(time);
+    }
+
+    /**
+     * Adds the results of another thread to these ones. The other result is
+     * locked while it is read, and never locks this one, as only merged
+     * results are added to.
+     */
+    synchronized void add(BenchmarkResult other) {
+        synchronized (other) {
+            this.time += other.time;
+            this.count += other.count;
+            histogram.add(other.histogram);
+        }
     }
 
     @Override
     public int compareTo(BenchmarkResult benchmarkResult) {
         int cmp = type.index - benchmarkResult.type.index;
         if (cmp == 0) {
-            long delta = this.time - benchmarkResult.time;
+            long delta = getTime() - benchmarkResult.getTime();
             cmp = delta > 0 ? 1 : (delta < 0 ? -1 : 0);
         }
         return cmp;
@@ -11,8 +11,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.commons.io.IOUtils;
 
@@ -36,12 +39,38 @@ import net.sourceforge.pmd.util.StringUtil;
 import net.sourceforge.pmd.util.datasource.DataSource;
 
 /**
+ * Collects the durations of the phases of PMD and of the rules.
  *
- *
+ * <p>Each thread marks its durations in its own map, so the threads of a
+ * multithreaded analysis don't wait for each other. The maps are merged
+ * when the results are read with {@link #values()}. The results of the
+ * threads which are finished are merged as soon as a new thread marks
+ * something, so that the memory doesn't grow with each new thread pool. The
+ * results of the running threads are read under the lock of each result.</p>
  */
 public class Benchmarker {
 
-    private static final Map<String, BenchmarkResult> BENCHMARKS_BY_NAME = new HashMap<>();
+    /** The results of the threads which are (or were) marking. */
+    private static final Queue<ThreadBenchmarks> BENCHMARKS_BY_THREAD = new ConcurrentLinkedQueue<>();
+
+    /** The merged results of the finished threads, guarded by itself. */
+    private static final Map<String, BenchmarkResult> FINISHED_BENCHMARKS = new HashMap<>();
+
+    private static final ThreadLocal<ThreadBenchmarks> BENCHMARKS_BY_NAME = new ThreadLocal<ThreadBenchmarks>() {
+        @Override
+        protected ThreadBenchmarks initialValue() {
+            mergeFinishedThreads();
+            ThreadBenchmarks benchmarks = new ThreadBenchmarks();
+            BENCHMARKS_BY_THREAD.add(benchmarks);
+            return benchmarks;
+        }
+    };
+
+    private static final class ThreadBenchmarks {
+        private final Thread thread = Thread.currentThread();
+        // only updated by its thread, but may be read by another one
+        private final Map<String, BenchmarkResult> benchmarksByName = new ConcurrentHashMap<>();
+    }
 
     private Benchmarker() { }
 
@@ -231,7 +260,7 @@ public class Benchmarker {
      * @param count
      *            long
      */
-    public static synchronized void mark(Benchmark type, String name, long time, long count) {
+    public static void mark(Benchmark type, String name, long time, long count) {
         String typeName = type.name;
         if (typeName != null && name != null) {
             throw new IllegalArgumentException("Name cannot be given for type: " + type);
@@ -240,19 +269,65 @@ public class Benchmarker {
         } else if (typeName == null) {
             typeName = name;
         }
-        BenchmarkResult benchmarkResult = BENCHMARKS_BY_NAME.get(typeName);
+        Map<String, BenchmarkResult> benchmarksByName = BENCHMARKS_BY_NAME.get().benchmarksByName;
+        BenchmarkResult benchmarkResult = benchmarksByName.get(typeName);
         if (benchmarkResult == null) {
             benchmarkResult = new BenchmarkResult(type, typeName);
-            BENCHMARKS_BY_NAME.put(typeName, benchmarkResult);
+            benchmarksByName.put(typeName, benchmarkResult);
         }
         benchmarkResult.update(time, count);
+        PMDMetrics.getInstance().phase(type, time);
+        if (FileProfiler.isEnabled()) {
+            FileProfiler.mark(type, typeName, time);
+        }
     }
 
     public static void reset() {
-        BENCHMARKS_BY_NAME.clear();
+        synchronized (FINISHED_BENCHMARKS) {
+            FINISHED_BENCHMARKS.clear();
+        }
+        for (ThreadBenchmarks benchmarks : BENCHMARKS_BY_THREAD) {
+            benchmarks.benchmarksByName.clear();
+        }
     }
 
+    private static void mergeFinishedThreads() {
+        for (ThreadBenchmarks benchmarks : BENCHMARKS_BY_THREAD) {
+            // only the thread which removes the results merges them
+            if (!benchmarks.thread.isAlive() && BENCHMARKS_BY_THREAD.remove(benchmarks)) {
+                synchronized (FINISHED_BENCHMARKS) {
+                    merge(FINISHED_BENCHMARKS, benchmarks.benchmarksByName);
+                }
+            }
+        }
+    }
+
+    private static void merge(Map<String, BenchmarkResult> totals, Map<String, BenchmarkResult> benchmarksByName) {
+        for (BenchmarkResult benchmarkResult : benchmarksByName.values()) {
+            BenchmarkResult total = totals.get(benchmarkResult.name);
+            if (total == null) {
+                total = new BenchmarkResult(benchmarkResult.type, benchmarkResult.name);
+                totals.put(benchmarkResult.name, total);
+            }
+            total.add(benchmarkResult);
+        }
+    }
+
+    /**
+     * Merges the results of all the threads. The results are complete once
+     * the threads are done.
+     *
+     * @return the results, by name
+     */
     public static Map<String, BenchmarkResult> values() {
-        return BENCHMARKS_BY_NAME;
+        mergeFinishedThreads();
+        Map<String, BenchmarkResult> merged = new HashMap<>();
+        synchronized (FINISHED_BENCHMARKS) {
+            merge(merged, FINISHED_BENCHMARKS);
+        }
+        for (ThreadBenchmarks benchmarks : BENCHMARKS_BY_THREAD) {
+            merge(merged, benchmarks.benchmarksByName);
+        }
+        return merged;
     }
 }
@@ -0,0 +1,65 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The durations of the phases of PMD and of the rules on one file, recorded
+ * by the {@link FileProfiler}.
+ */
+public final class FileProfile {
+
+    private final String fileName;
+    private final long[] times = new long[Benchmark.values().length];
+    private final Map<String, Long> ruleTimes = new HashMap<>();
+
+    FileProfile(String fileName) {
+        this.fileName = fileName;
+    }
+
+    void add(Benchmark type, String name, long time) {
+        times[type.index] += time;
+        if (type == Benchmark.Rule || type == Benchmark.RuleChainRule) {
+            Long ruleTime = ruleTimes.get(name);
+            ruleTimes.put(name, ruleTime == null ? time : ruleTime + time);
+        }
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @param type
+     *            a phase, or {@link Benchmark#Rule} or
+     *            {@link Benchmark#RuleChainRule} for the total of the rules
+     * @return the duration in nanoseconds
+     */
+    public long getTime(Benchmark type) {
+        return times[type.index];
+    }
+
+    /**
+     * @return the duration of each rule in nanoseconds, by rule name
+     */
+    public Map<String, Long> getRuleTimes() {
+        return Collections.unmodifiableMap(ruleTimes);
+    }
+
+    /**
+     * @return the duration of all the phases and rules on the file in
+     *         nanoseconds
+     */
+    public long getTotalTime() {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Attributes the durations marked with the {@link Benchmarker} to the file
+ * which is being analyzed by the current thread, so that the slowest files,
+ * and the slowest rules on them, can be told apart. The profiler is off by
+ * default, it only costs a volatile read per mark then.
+ */
+public final class FileProfiler {
+
+    private static volatile boolean enabled;
+
+    private static final ThreadLocal<FileProfile> CURRENT_FILE = new ThreadLocal<>();
+
+    private static final Queue<FileProfile> PROFILES = new ConcurrentLinkedQueue<>();
+
+    private FileProfiler() { }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        FileProfiler.enabled = enabled;
+    }
+
+    /**
+     * Attributes the following marks of the current thread to the given file,
+     * until {@link #endFile()} is called.
+     *
+     * @param fileName
+     *            the name of the file
+     */
+    public static void startFile(String fileName) {
+        if (enabled) {
+            CURRENT_FILE.set(new FileProfile(fileName));
+        }
+    }
+
+    /**
+     * Ends the profile of the file started by the current thread.
+     */
+    public static void endFile() {
+        FileProfile profile = CURRENT_FILE.get();
+        if (profile != null) {
+            CURRENT_FILE.remove();
+            PROFILES.add(profile);
+        }
+    }
+
+    static void mark(Benchmark type, String name, long time) {
+        FileProfile profile = CURRENT_FILE.get();
+        if (profile != null) {
+            profile.add(type, name, time);
+        }
+    }
+
+    /**
+     * @return the profiles of the files which are done
+     */
+    public static List<FileProfile> values() {
+        return new ArrayList<>(PROFILES);
+    }
+
+    public static void reset() {
+        PROFILES.clear();
+    }
+}
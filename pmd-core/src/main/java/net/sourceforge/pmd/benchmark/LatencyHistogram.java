@@ -0,0 +1,135 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations, with buckets of logarithmic size like an HDR
+ * histogram: each power of two is split into {@value #SUB_BUCKETS} buckets, so
+ * the percentiles are precise to about 6% whatever the magnitude of the
+ * durations. Recording a value is a couple of arithmetic operations and an
+ * array increment.
+ *
+ * <p>A histogram isn't thread-safe, the {@link Benchmarker} keeps one per
+ * thread, guarded by the lock of its result, and merges them when the results
+ * are read.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // grown on demand, most durations only need a few hundred buckets
+    private long[] counts = new long[0];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records a duration.
+     *
+     * @param value
+     *            the duration, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int index = bucketIndex(v);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, index + SUB_BUCKETS);
+        }
+        counts[index]++;
+        totalCount++;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    /**
+     * Adds the recorded values of another histogram to this one.
+     *
+     * @param other
+     *            the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        long[] otherCounts = other.counts;
+        if (otherCounts.length > counts.length) {
+            counts = Arrays.copyOf(counts, otherCounts.length);
+        }
+        for (int i = 0; i < otherCounts.length; i++) {
+            counts[i] += otherCounts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        // the sub-bucket is given by the bits after the leading one
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return the highest value which falls into the bucket
+     */
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the smallest recorded value, or 0 if there is none
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * @return the largest recorded value
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values
+     * fall. The result is the highest value of its bucket, but never more
+     * than the largest recorded value.
+     *
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the value, or 0 if there are no values
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double p = Math.min(100.0, Math.max(0.0, percentile));
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueInBucket(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Counts the files, bytes, errors, cache lookups, phase durations and
+ * violations of all the PMD runs of the JVM, so that a long-running process,
+ * like a build daemon or an Ant build, can be watched. The metrics are
+ * published with JMX, see {@link #registerMBean()}, and can be written in the
+ * Prometheus text format, see {@link #writeTo(File)}.
+ *
+ * <p>The counters are atomic and are updated at most a few times per file, so
+ * the threads of a multithreaded run rarely contend on them.</p>
+ */
+public final class PMDMetrics implements PMDMetricsMXBean {
+
+    /** The name of the MBean. */
+    public static final String OBJECT_NAME = "net.sourceforge.pmd:type=Metrics";
+
+    private static final Logger LOG = Logger.getLogger(PMDMetrics.class.getName());
+
+    private static final PMDMetrics INSTANCE = new PMDMetrics();
+
+    private final AtomicLong filesQueued = new AtomicLong();
+    private final AtomicLong filesProcessed = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong parseErrors = new AtomicLong();
+    private final AtomicLong processingErrors = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicInteger activeThreads = new AtomicInteger();
+
+    // by Benchmark index
+    private final AtomicLong[] phaseNanos = new AtomicLong[Benchmark.values().length];
+    private final AtomicLong[] phaseCounts = new AtomicLong[Benchmark.values().length];
+
+    private final ConcurrentMap<String, AtomicLong> violationsByRule = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private PMDMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new AtomicLong();
+            phaseCounts[i] = new AtomicLong();
+        }
+    }
+
+    public static PMDMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, unless they are
+     * already registered.
+     */
+    public void registerMBean() {
+        if (!registered.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            // another class loader may have loaded PMD too
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException | SecurityException e) {
+            LOG.log(Level.WARNING, "Could not register the PMD metrics with JMX", e);
+        }
+    }
+
+    public void filesQueued(int count) {
+        filesQueued.addAndGet(count);
+    }
+
+    public void fileStarted() {
+        activeThreads.incrementAndGet();
+    }
+
+    public void fileEnded() {
+        activeThreads.decrementAndGet();
+        filesProcessed.incrementAndGet();
+    }
+
+    public void bytesRead(long count) {
+        bytesRead.addAndGet(count);
+    }
+
+    public void parseError() {
+        parseErrors.incrementAndGet();
+    }
+
+    public void processingError() {
+        processingErrors.incrementAndGet();
+    }
+
+    public void cacheLookup(boolean hit) {
+        if (hit) {
+            cacheHits.incrementAndGet();
+        } else {
+            cacheMisses.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds the duration of a phase. The durations of the single rules are
+     * ignored, there are the violations by rule instead.
+     */
+    void phase(Benchmark type, long nanos) {
+        if (type.name != null) {
+            phaseNanos[type.index].addAndGet(nanos);
+            phaseCounts[type.index].incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts the violations of a report by rule.
+     *
+     * @param report
+     *            the report of a file
+     */
+    public void violationsReported(Report report) {
+        for (Iterator<RuleViolation> i = report.iterator(); i.hasNext();) {
+            String ruleName = i.next().getRule().getName();
+            AtomicLong count = violationsByRule.get(ruleName);
+            if (count == null) {
+                AtomicLong newCount = new AtomicLong();
+                count = violationsByRule.putIfAbsent(ruleName, newCount);
+                if (count == null) {
+                    count = newCount;
+                }
+            }
+            count.incrementAndGet();
+        }
+    }
+
+    @Override
+    public long getFilesQueued() {
+        return filesQueued.get();
+    }
+
+    @Override
+    public long getFilesProcessed() {
+        return filesProcessed.get();
+    }
+
+    @Override
+    public long getFilesPending() {
+        return Math.max(0, filesQueued.get() - filesProcessed.get());
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return parseErrors.get();
+    }
+
+    @Override
+    public long getProcessingErrors() {
+        return processingErrors.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return activeThreads.get();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseMillis() {
+        Map<String, Long> millis = new TreeMap<>();
+        for (Benchmark type : Benchmark.values()) {
+            if (type.name != null) {
+                millis.put(type.name, phaseNanos[type.index].get() / 1000000L);
+            }
+        }
+        return millis;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Benchmark type : Benchmark.values()) {
+            if (type.name != null) {
+                counts.put(type.name, phaseCounts[type.index].get());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getViolationsByRule() {
+        Map<String, Long> violations = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : violationsByRule.entrySet()) {
+            violations.put(entry.getKey(), entry.getValue().get());
+        }
+        return violations;
+    }
+
+    @Override
+    public void reset() {
+        filesQueued.set(0);
+        filesProcessed.set(0);
+        bytesRead.set(0);
+        parseErrors.set(0);
+        processingErrors.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i].set(0);
+            phaseCounts[i].set(0);
+        }
+        violationsByRule.clear();
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format. The file is
+     * replaced at once, so that a collector never reads a partial file.
+     *
+     * @param file
+     *            the file
+     * @throws IOException
+     *             if the file can't be written
+     */
+    public void writeTo(File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+            write(writer);
+        }
+        if (!tempFile.renameTo(file)) {
+            // e.g. on Windows, where an existing file isn't replaced
+            if (!file.delete() || !tempFile.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        }
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format.
+     *
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if the writer fails
+     */
+    public void write(Writer writer) throws IOException {
+        StringBuilder buf = new StringBuilder(1024);
+        appendMetric(buf, "pmd_files_queued_total", "counter", "Files given to PMD.", getFilesQueued());
+        appendMetric(buf, "pmd_files_processed_total", "counter", "Files analyzed or up to date in the cache.",
+                getFilesProcessed());
+        appendMetric(buf, "pmd_files_pending", "gauge", "Queued files which aren't processed yet.",
+                getFilesPending());
+        appendMetric(buf, "pmd_read_bytes_total", "counter", "Bytes of source code read.", getBytesRead());
+        appendMetric(buf, "pmd_parse_errors_total", "counter", "Files which couldn't be parsed.", getParseErrors());
+        appendMetric(buf, "pmd_processing_errors_total", "counter", "Files which failed with another error.",
+                getProcessingErrors());
+        appendMetric(buf, "pmd_cache_hits_total", "counter", "Files up to date in the analysis cache.",
+                getCacheHits());
+        appendMetric(buf, "pmd_cache_misses_total", "counter", "Files not up to date in the analysis cache.",
+                getCacheMisses());
+        appendMetric(buf, "pmd_active_threads", "gauge", "Threads analyzing a file.", getActiveThreads());
+
+        appendHeader(buf, "pmd_phase_seconds_total", "counter", "Time spent in each phase.");
+        for (Benchmark type : Benchmark.values()) {
+            if (type.name != null) {
+                buf.append("pmd_phase_seconds_total{phase=\"").append(escape(type.name)).append("\"} ")
+                        .append(phaseNanos[type.index].get() / 1e9).append('\n');
+            }
+        }
+        appendHeader(buf, "pmd_phase_runs_total", "counter", "Runs of each phase.");
+        for (Benchmark type : Benchmark.values()) {
+            if (type.name != null) {
+                buf.append("pmd_phase_runs_total{phase=\"").append(escape(type.name)).append("\"} ")
+                        .append(phaseCounts[type.index].get()).append('\n');
+            }
+        }
+        appendHeader(buf, "pmd_rule_violations_total", "counter", "Violations of each rule.");
+        for (Map.Entry<String, Long> entry : getViolationsByRule().entrySet()) {
+            buf.append("pmd_rule_violations_total{rule=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+        writer.write(buf.toString());
+    }
+
+    private static void appendHeader(StringBuilder buf, String name, String type, String help) {
+        buf.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        buf.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void appendMetric(StringBuilder buf, String name, String type, String help, long value) {
+        appendHeader(buf, name, type, help);
+        buf.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.Map;
+
+/**
+ * The metrics of the PMD runs of the JVM, published with JMX as
+ * {@value PMDMetrics#OBJECT_NAME}.
+ */
+public interface PMDMetricsMXBean {
+
+    /**
+     * @return the number of files given to the processors
+     */
+    long getFilesQueued();
+
+    /**
+     * @return the number of files which were analyzed, or skipped because
+     *         they were up to date in the analysis cache
+     */
+    long getFilesProcessed();
+
+    /**
+     * @return the number of queued files which aren't processed yet
+     */
+    long getFilesPending();
+
+    /**
+     * @return the number of bytes of source code read
+     */
+    long getBytesRead();
+
+    long getParseErrors();
+
+    /**
+     * @return the number of files which failed with another error than a
+     *         parse error
+     */
+    long getProcessingErrors();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    /**
+     * @return the number of threads which are analyzing a file
+     */
+    int getActiveThreads();
+
+    /**
+     * @return the durations of the phases in milliseconds, by phase name
+     */
+    Map<String, Long> getPhaseMillis();
+
+    /**
+     * @return the number of times each phase ran, by phase name
+     */
+    Map<String, Long> getPhaseCounts();
+
+    /**
+     * @return the number of violations, by rule name
+     */
+    Map<String, Long> getViolationsByRule();
+
+    /**
+     * Sets all the counters back to 0.
+     */
+    void reset();
+}
@@ -0,0 +1,264 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.util.StringUtil;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reports the profiles of the files recorded by the {@link FileProfiler}: the
+ * slowest files and the slowest rules on a file as text, or the durations of
+ * each phase and rule on each file as JSON or CSV, which can be compared
+ * between two runs. The files are sorted by name in the JSON and CSV output,
+ * and the rules by name, so that the outputs of two runs can be diffed.
+ */
+public class ProfileReport {
+
+    private static final Benchmark[] PHASES = { Benchmark.Parser, Benchmark.SymbolTable, Benchmark.DFA,
+        Benchmark.TypeResolution, Benchmark.RuleChainVisit, Benchmark.Rule, Benchmark.RuleChainRule, };
+    private static final String[] PHASE_NAMES = { "parser", "symbolTable", "dfa", "typeResolution",
+        "ruleChainVisit", "rules", "ruleChainRules", };
+
+    private static final int TIME_COLUMN_WIDTH = 10;
+    private static final int RULE_NAME_COLUMN_WIDTH = 30;
+
+    private static final Comparator<Timing> SLOWEST_FIRST = new Comparator<Timing>() {
+        @Override
+        public int compare(Timing t1, Timing t2) {
+            int cmp = Long.compare(t2.time, t1.time);
+            if (cmp == 0) {
+                cmp = t1.fileName.compareTo(t2.fileName);
+            }
+            return cmp == 0 ? t1.ruleName.compareTo(t2.ruleName) : cmp;
+        }
+    };
+
+    private final List<FileProfile> profiles;
+
+    /**
+     * The duration of a rule on a file.
+     */
+    public static final class Timing {
+        public final String fileName;
+        public final String ruleName;
+        /** The duration in nanoseconds. */
+        public final long time;
+
+        Timing(String fileName, String ruleName, long time) {
+            this.fileName = fileName;
+            this.ruleName = ruleName;
+            this.time = time;
+        }
+    }
+
+    /**
+     * @param profiles
+     *            the profiles of the files, e.g. {@link FileProfiler#values()}
+     */
+    public ProfileReport(Collection<FileProfile> profiles) {
+        this.profiles = new ArrayList<>(profiles);
+        Collections.sort(this.profiles, new Comparator<FileProfile>() {
+            @Override
+            public int compare(FileProfile p1, FileProfile p2) {
+                return p1.getFileName().compareTo(p2.getFileName());
+            }
+        });
+    }
+
+    /**
+     * @param count
+     *            the maximum number of files
+     * @return the profiles of the slowest files, the slowest first
+     */
+    public List<FileProfile> getSlowestFiles(int count) {
+        List<FileProfile> files = new ArrayList<>(profiles);
+        Collections.sort(files, new Comparator<FileProfile>() {
+            @Override
+            public int compare(FileProfile p1, FileProfile p2) {
+                // the files are already sorted by name, and the sort is stable
+                return Long.compare(p2.getTotalTime(), p1.getTotalTime());
+            }
+        });
+        return files.subList(0, Math.max(0, Math.min(count, files.size())));
+    }
+
+    /**
+     * @param count
+     *            the maximum number of rule and file pairs
+     * @return the durations of the slowest rules on a file, the slowest first
+     */
+    public List<Timing> getSlowestRules(int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        // keeps the fastest of the slowest pairs on top, there may be a pair
+        // for each rule on each file
+        PriorityQueue<Timing> slowest = new PriorityQueue<>(count, Collections.reverseOrder(SLOWEST_FIRST));
+        for (FileProfile profile : profiles) {
+            for (Map.Entry<String, Long> ruleTime : profile.getRuleTimes().entrySet()) {
+                Timing timing = new Timing(profile.getFileName(), ruleTime.getKey(), ruleTime.getValue());
+                if (slowest.size() < count) {
+                    slowest.add(timing);
+                } else if (SLOWEST_FIRST.compare(timing, slowest.peek()) < 0) {
+                    slowest.poll();
+                    slowest.add(timing);
+                }
+            }
+        }
+        List<Timing> rules = new ArrayList<>(slowest);
+        Collections.sort(rules, SLOWEST_FIRST);
+        return rules;
+    }
+
+    /**
+     * Writes the report to a file, as JSON if its name ends with
+     * <code>.json</code>, as CSV if it ends with <code>.csv</code>, and as
+     * text otherwise.
+     *
+     * @param file
+     *            the file
+     * @param count
+     *            the number of files and rules of the text report
+     * @throws IOException
+     *             if the file can't be written
+     */
+    public void write(File file, int count) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            if (name.endsWith(".json")) {
+                writeJson(writer);
+            } else if (name.endsWith(".csv")) {
+                writeCsv(writer);
+            } else {
+                writeText(writer, count);
+            }
+        }
+    }
+
+    /**
+     * Writes the slowest files, with the durations of their phases, and the
+     * slowest rules on a file.
+     *
+     * @param writer
+     *            the writer
+     * @param count
+     *            the maximum number of files and of rules
+     * @throws IOException
+     *             if the writer fails
+     */
+    public void writeText(Writer writer, int count) throws IOException {
+        StringBuilderCR buf = new StringBuilderCR(PMD.EOL);
+        buf.appendLn("-----------------------------<<< Slowest Files >>>-----------------------------");
+        buf.appendLn("  Time (s)    Parser   Symbols       DFA     Types     Rules  File");
+        buf.appendLn();
+        for (FileProfile profile : getSlowestFiles(count)) {
+            long ruleTime = profile.getTime(Benchmark.RuleChainVisit) + profile.getTime(Benchmark.Rule)
+                    + profile.getTime(Benchmark.RuleChainRule);
+            buf.appendLn(seconds(profile.getTotalTime()), seconds(profile.getTime(Benchmark.Parser)),
+                    seconds(profile.getTime(Benchmark.SymbolTable)), seconds(profile.getTime(Benchmark.DFA)),
+                    seconds(profile.getTime(Benchmark.TypeResolution)), seconds(ruleTime), "  ",
+                    profile.getFileName());
+        }
+        buf.appendLn();
+        buf.appendLn("-----------------------------<<< Slowest Rules >>>-----------------------------");
+        buf.appendLn("  Time (s)  Rule name                       File");
+        buf.appendLn();
+        for (Timing rule : getSlowestRules(count)) {
+            StringBuilder name = new StringBuilder(rule.ruleName);
+            while (name.length() < RULE_NAME_COLUMN_WIDTH) {
+                name.append(' ');
+            }
+            buf.appendLn(seconds(rule.time), "  ", name.toString(), "  ", rule.fileName);
+        }
+        writer.write(buf.toString());
+    }
+
+    private static String seconds(long nanos) {
+        String result = MessageFormat.format("{0,number,0.000}", Double.valueOf(nanos / 1000000000.0));
+        return StringUtil.lpad(result, TIME_COLUMN_WIDTH);
+    }
+
+    /**
+     * Writes the durations in nanoseconds of each phase and rule on each file,
+     * as a JSON object with an array of files.
+     *
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if the writer fails
+     */
+    public void writeJson(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("files").beginArray();
+        for (FileProfile profile : profiles) {
+            json.beginObject();
+            json.name("file").value(profile.getFileName());
+            json.name("total").value(profile.getTotalTime());
+            json.name("phases").beginObject();
+            for (int i = 0; i < PHASES.length; i++) {
+                json.name(PHASE_NAMES[i]).value(profile.getTime(PHASES[i]));
+            }
+            json.endObject();
+            json.name("rules").beginObject();
+            for (Map.Entry<String, Long> ruleTime : new TreeMap<>(profile.getRuleTimes()).entrySet()) {
+                json.name(ruleTime.getKey()).value(ruleTime.getValue());
+            }
+            json.endObject();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Writes the durations in nanoseconds of each phase and rule on each file,
+     * one per line.
+     *
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if the writer fails
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        StringBuilderCR buf = new StringBuilderCR(PMD.EOL);
+        buf.appendLn("\"File\",\"Kind\",\"Name\",\"Time (ns)\"");
+        for (FileProfile profile : profiles) {
+            String file = csvQuote(profile.getFileName());
+            for (int i = 0; i < PHASES.length; i++) {
+                buf.appendLn(file, ",\"phase\",\"", PHASE_NAMES[i], "\",", Long.toString(profile.getTime(PHASES[i])));
+            }
+            for (Map.Entry<String, Long> ruleTime : new TreeMap<>(profile.getRuleTimes()).entrySet()) {
+                buf.appendLn(file, ",\"rule\",", csvQuote(ruleTime.getKey()), ",", ruleTime.getValue().toString());
+            }
+        }
+        writer.write(buf.toString());
+    }
+
+    private static String csvQuote(String s) {
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
@@ -24,6 +24,7 @@ public class TextReport implements BenchmarkReport {
     private static final int TIME_COLUMN = 48;
     private static final int NAME_COLUMN_WIDTH = 50;
     private static final int VALUE_COLUMN_WIDTH = 8;
+    private static final int PERCENTILE_NAME_COLUMN_WIDTH = 34;
 
     /**
      *
@@ -152,9 +153,56 @@ public class TextReport implements BenchmarkReport {
             buf.appendLn(buf2.toString());
         }
 
+        appendPercentiles(results, buf, true);
+        appendPercentiles(results, buf, false);
+
         out.print(buf.toString());
     }
 
+    /**
+     * Appends the percentiles of the durations of each mark of the rules or
+     * of the phases, e.g. of a rule or of the parser on a file, which tell a
+     * rule that is slow on a few files from a rule that is slow everywhere.
+     * The totals, which aren't marked, have no percentiles.
+     */
+    private static void appendPercentiles(List<BenchmarkResult> results, StringBuilderCR buf, boolean rules) {
+        boolean writeHeader = true;
+        for (BenchmarkResult benchmarkResult : results) {
+            LatencyHistogram histogram = benchmarkResult.getHistogram();
+            boolean rule = benchmarkResult.type.index <= Benchmark.RuleChainRule.index;
+            if (rule != rules || histogram.getTotalCount() == 0) {
+                continue;
+            }
+            if (writeHeader) {
+                writeHeader = false;
+                buf.appendLn();
+                if (rules) {
+                    buf.appendLn("---------------------------<<< Rule Percentiles >>>----------------------------");
+                    buf.appendLn("Rule name                           Marks  p50 (ms)  p90 (ms)  p99 (ms)  max (ms)");
+                } else {
+                    buf.appendLn("--------------------------<<< Phase Percentiles >>>----------------------------");
+                    buf.appendLn("Segment                             Marks  p50 (ms)  p90 (ms)  p99 (ms)  max (ms)");
+                }
+                buf.appendLn();
+            }
+            StringBuilder buf2 = new StringBuilder(benchmarkResult.name);
+            buf2.append(':');
+            while (buf2.length() <= PERCENTILE_NAME_COLUMN_WIDTH) {
+                buf2.append(' ');
+            }
+            buf2.append(StringUtil.lpad(MessageFormat.format("{0,number,0}", histogram.getTotalCount()), 6));
+            buf2.append(millis(histogram.getValueAtPercentile(50)));
+            buf2.append(millis(histogram.getValueAtPercentile(90)));
+            buf2.append(millis(histogram.getValueAtPercentile(99)));
+            buf2.append(millis(histogram.getMax()));
+            buf.appendLn(buf2.toString());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return StringUtil.lpad(MessageFormat.format("{0,number,0.000}", Double.valueOf(nanos / 1000000.0)), 10);
+    }
+
     /**
      *
      * @param timeTotals
@@ -15,6 +15,7 @@ import net.sourceforge.pmd.PMD;
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleSets;
 import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.benchmark.PMDMetrics;
 import net.sourceforge.pmd.stat.Metric;
 
 /**
@@ -49,10 +50,13 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         
         if (analysisResult == null) {
             // new file, need to analyze it
+            PMDMetrics.getInstance().cacheLookup(false);
             return false;
         }
         
-        return analysisResult.getFileChecksum() == updatedResult.getFileChecksum();
+        final boolean upToDate = analysisResult.getFileChecksum() == updatedResult.getFileChecksum();
+        PMDMetrics.getInstance().cacheLookup(upToDate);
+        return upToDate;
     }
 
     @Override
@@ -35,6 +35,13 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
         loadFromFile(cache);
     }
 
+    /**
+     * @return the file on which the analysis cache is stored
+     */
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
     /**
      * Loads cache data from the given file.
      * @param cacheFile The file which backs the file analysis cache.
@@ -56,6 +56,19 @@ public class PMDParameters {
             description = "Benchmark mode - output a benchmark report upon completion; default to System.err.")
     private boolean benchmark = false;
 
+    @Parameter(names = "-profile",
+            description = "Profile the analyzed files, and write the slowest files and rules to this file; as JSON or CSV if it ends with .json or .csv.")
+    private String profileFile;
+
+    @Parameter(names = "-profilecount", description = "Number of slowest files and rules in the text profile.",
+            validateWith = PositiveInteger.class)
+    private Integer profileCount = 10;
+
+    @Parameter(names = "-metrics",
+            description = "Write the metrics of the run (files, errors, cache hits, phase durations, violations)"
+                    + " to this file, in the Prometheus text format.")
+    private String metricsFile;
+
     @Parameter(names = { "-stress", "-S" }, description = "Performs a stress test.")
     private boolean stress = false;
 
@@ -151,6 +164,9 @@ public class PMDParameters {
         configuration.setInputUri(params.getUri());
         configuration.setReportFormat(params.getFormat());
         configuration.setBenchmark(params.isBenchmark());
+        configuration.setProfileFile(params.getProfileFile());
+        configuration.setProfileCount(params.getProfileCount());
+        configuration.setMetricsFile(params.getMetricsFile());
         configuration.setDebug(params.isDebug());
         configuration.setMinimumPriority(params.getMinimumPriority());
         configuration.setReportFile(params.getReportfile());
@@ -199,6 +215,18 @@ public class PMDParameters {
         return benchmark;
     }
 
+    public String getProfileFile() {
+        return profileFile;
+    }
+
+    public Integer getProfileCount() {
+        return profileCount;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
     public boolean isStress() {
         return stress;
     }
@@ -19,6 +19,8 @@ import java.util.logging.Logger;
 
 import org.apache.commons.io.FilenameUtils;
 
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.ParseException;
 import net.sourceforge.pmd.lang.ast.TokenMgrError;
 import net.sourceforge.pmd.util.FileFinder;
 import net.sourceforge.pmd.util.database.DBMSMetadata;
@@ -34,6 +36,8 @@ public class CPD {
     private CPDListener listener = new CPDNullListener();
     private Tokens tokens = new Tokens();
     private MatchAlgorithm matchAlgorithm;
+    private StructuralMatchAlgorithm structuralMatchAlgorithm;
+    private NearDuplicateMatchAlgorithm nearDuplicateMatchAlgorithm;
     private Set<String> current = new HashSet<>();
 
     public CPD(CPDConfiguration theConfiguration) {
@@ -48,14 +52,45 @@ public class CPD {
     }
 
     public void go() {
+        if (configuration.isStructural()) {
+            getStructuralMatchAlgorithm().findMatches();
+            return;
+        }
+        if (configuration.isNearDuplicates()) {
+            nearDuplicateMatchAlgorithm = new NearDuplicateMatchAlgorithm(source, tokens,
+                    configuration.getMinimumTileSize(), configuration.getSimilarity(), listener);
+            nearDuplicateMatchAlgorithm.findMatches();
+            return;
+        }
         matchAlgorithm = new MatchAlgorithm(source, tokens, configuration.getMinimumTileSize(), listener);
         matchAlgorithm.findMatches();
     }
 
     public Iterator<Match> getMatches() {
+        if (configuration.isStructural()) {
+            return getStructuralMatchAlgorithm().matches();
+        }
+        if (configuration.isNearDuplicates()) {
+            return nearDuplicateMatchAlgorithm.matches();
+        }
         return matchAlgorithm.matches();
     }
 
+    private StructuralMatchAlgorithm getStructuralMatchAlgorithm() {
+        if (structuralMatchAlgorithm == null) {
+            net.sourceforge.pmd.lang.Language language = LanguageRegistry
+                    .findLanguageByTerseName(configuration.getLanguage().getTerseName());
+            if (language == null) {
+                throw new IllegalStateException(
+                        "No parser available for language " + configuration.getLanguage().getName());
+            }
+            structuralMatchAlgorithm = new StructuralMatchAlgorithm(
+                    language.getDefaultVersion().getLanguageVersionHandler(), configuration.getMinimumTileSize(),
+                    configuration.isIgnoreIdentifiers(), configuration.isIgnoreLiterals(), listener);
+        }
+        return structuralMatchAlgorithm;
+    }
+
     public void addAllInDirectory(File dir) throws IOException {
         addDirectory(dir, false);
     }
@@ -139,7 +174,11 @@ public class CPD {
     }
 
     private void addAndThrowLexicalError(SourceCode sourceCode) throws IOException {
-        configuration.tokenizer().tokenize(sourceCode, tokens);
+        if (configuration.isStructural()) {
+            getStructuralMatchAlgorithm().add(sourceCode);
+        } else {
+            configuration.tokenizer().tokenize(sourceCode, tokens);
+        }
         listener.addedFile(1, new File(sourceCode.getFileName()));
         source.put(sourceCode.getFileName(), sourceCode);
     }
@@ -152,6 +191,9 @@ public class CPD {
             System.err.println("Skipping " + sourceCode.getFileName() + ". Reason: " + e.getMessage());
             tokens.getTokens().clear();
             tokens.getTokens().addAll(savedTokenEntry.restore());
+        } catch (ParseException e) {
+            // only thrown by the parser in structural mode
+            System.err.println("Skipping " + sourceCode.getFileName() + ". Reason: " + e.getMessage());
         }
     }
 
@@ -7,12 +7,16 @@ package net.sourceforge.pmd.cpd;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URISyntaxException;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Logger;
 
 import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
+import net.sourceforge.pmd.util.IOUtil;
 import net.sourceforge.pmd.util.database.DBURI;
 
 import com.beust.jcommander.JCommander;
@@ -89,7 +93,7 @@ public class CPDCommandLineInterface {
             }
 
             cpd.go();
-            System.out.println(arguments.getRenderer().render(cpd.getMatches()));
+            render(arguments.getRenderer(), cpd.getMatches());
             if (cpd.getMatches().hasNext()) {
                 if (arguments.isFailOnViolation()) {
                     setStatusCodeOrExit(DUPLICATE_CODE_FOUND);
@@ -105,6 +109,22 @@ public class CPDCommandLineInterface {
         }
     }
 
+    private static void render(Renderer renderer, Iterator<Match> matches) {
+        if (renderer instanceof CPDRenderer) {
+            // stream the report instead of building it as one big string
+            Writer writer = IOUtil.createWriter();
+            try {
+                ((CPDRenderer) renderer).render(matches, writer);
+                writer.write(PMD.EOL);
+                writer.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            System.out.println(renderer.render(matches));
+        }
+    }
+
     private static void addSourcesFilesToCPD(List<File> files, CPD cpd, boolean recursive) {
         try {
             for (File file : files) {
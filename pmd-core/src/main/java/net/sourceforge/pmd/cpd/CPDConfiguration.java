@@ -96,6 +96,25 @@ public class CPDConfiguration extends AbstractConfiguration {
             required = false)
     private String skipBlocksPattern = Tokenizer.DEFAULT_SKIP_BLOCKS_PATTERN;
 
+    @Parameter(names = "--structural",
+            description = "Find duplicated AST subtrees with the language's PMD parser instead of token sequences. "
+                    + "The minimum tokens are then the minimum number of AST nodes of a duplicate.",
+            required = false)
+    private boolean structural = false;
+
+    @Parameter(names = "--near-duplicates",
+            description = "Find token sequences which are similar but not necessarily identical, e.g. with "
+                    + "inserted or modified statements, instead of identical token sequences. Identical copies are "
+                    + "reported too, but their boundaries are approximate.",
+            required = false)
+    private boolean nearDuplicates = false;
+
+    @Parameter(names = "--similarity",
+            description = "The minimum similarity, between 0 and 1, of near duplicates. Default is "
+                    + NearDuplicateMatchAlgorithm.DEFAULT_SIMILARITY + ".",
+            required = false)
+    private float similarity = NearDuplicateMatchAlgorithm.DEFAULT_SIMILARITY;
+
     @Parameter(names = "--files", variableArity = true, description = "List of files and directories to process",
             required = false, converter = FileConverter.class)
     private List<File> files;
@@ -383,6 +402,30 @@ public class CPDConfiguration extends AbstractConfiguration {
         this.skipLexicalErrors = skipLexicalErrors;
     }
 
+    public boolean isStructural() {
+        return structural;
+    }
+
+    public void setStructural(boolean structural) {
+        this.structural = structural;
+    }
+
+    public boolean isNearDuplicates() {
+        return nearDuplicates;
+    }
+
+    public void setNearDuplicates(boolean nearDuplicates) {
+        this.nearDuplicates = nearDuplicates;
+    }
+
+    public float getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(float similarity) {
+        this.similarity = similarity;
+    }
+
     public List<File> getFiles() {
         return files;
     }
@@ -18,6 +18,8 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.EnumeratedAttribute;
 import org.apache.tools.ant.types.FileSet;
 
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
+
 /**
  * CPDTask
  * 
@@ -123,7 +125,7 @@ public class CPDTask extends Task {
         if (!cpd.getMatches().hasNext()) {
             log("No duplicates over " + minimumTokenCount + " tokens found", Project.MSG_INFO);
         }
-        Renderer renderer = createRenderer();
+        CPDRenderer renderer = createRenderer();
         FileReporter reporter;
         if (outputFile == null) {
             reporter = new FileReporter(encoding);
@@ -132,7 +134,7 @@ public class CPDTask extends Task {
         } else {
             reporter = new FileReporter(new File(getProject().getBaseDir(), outputFile.toString()), encoding);
         }
-        reporter.report(renderer.render(cpd.getMatches()));
+        reporter.report(renderer, cpd.getMatches());
     }
 
     private void tokenizeFiles(CPD cpd) throws IOException {
@@ -155,7 +157,7 @@ public class CPDTask extends Task {
         return stop - start;
     }
 
-    private Renderer createRenderer() {
+    private CPDRenderer createRenderer() {
         if (format.equals(TEXT_FORMAT)) {
             return new SimpleRenderer();
         } else if (format.equals(CSV_FORMAT)) {
@@ -11,9 +11,12 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Iterator;
 
 import org.apache.commons.io.IOUtils;
 
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
+
 /**
  * @author Philippe T'Seyen
  */
@@ -38,13 +41,7 @@ public class FileReporter {
         try {
             Writer writer = null;
             try {
-                OutputStream outputStream;
-                if (reportFile == null) {
-                    outputStream = System.out;
-                } else {
-                    outputStream = new FileOutputStream(reportFile);
-                }
-                writer = new BufferedWriter(new OutputStreamWriter(outputStream, encoding));
+                writer = createWriter();
                 writer.write(content);
             } finally {
                 IOUtils.closeQuietly(writer);
@@ -53,4 +50,39 @@ public class FileReporter {
             throw new ReportException(ioe);
         }
     }
+
+    /**
+     * Streams the matches through the given renderer into the report file,
+     * without building the whole report in memory first.
+     *
+     * @param renderer
+     *            the renderer to use
+     * @param matches
+     *            the matches to report
+     * @throws ReportException
+     *             if the report could not be written
+     */
+    public void report(CPDRenderer renderer, Iterator<Match> matches) throws ReportException {
+        try {
+            Writer writer = null;
+            try {
+                writer = createWriter();
+                renderer.render(matches, writer);
+            } finally {
+                IOUtils.closeQuietly(writer);
+            }
+        } catch (IOException ioe) {
+            throw new ReportException(ioe);
+        }
+    }
+
+    private Writer createWriter() throws IOException {
+        OutputStream outputStream;
+        if (reportFile == null) {
+            outputStream = System.out;
+        } else {
+            outputStream = new FileOutputStream(reportFile);
+        }
+        return new BufferedWriter(new OutputStreamWriter(outputStream, encoding));
+    }
 }
@@ -8,6 +8,7 @@ public class Mark implements Comparable<Mark> {
     private TokenEntry token;
     private int lineCount;
     private String code;
+    private SourceCode sourceCode;
 
     public Mark(TokenEntry token) {
         this.token = token;
@@ -37,7 +38,16 @@ public class Mark implements Comparable<Mark> {
         this.lineCount = lineCount;
     }
 
+    /**
+     * Gets the duplicated code. Unless it has been set explicitly, the slice
+     * is read from the source code on each call and is not retained.
+     *
+     * @return the code slice, or null if the code is not known
+     */
     public String getSourceCodeSlice() {
+        if (this.code == null && this.sourceCode != null) {
+            return this.sourceCode.getSlice(getBeginLine(), getEndLine());
+        }
         return this.code;
     }
 
@@ -45,6 +55,16 @@ public class Mark implements Comparable<Mark> {
         this.code = code;
     }
 
+    /**
+     * Sets the source code from which the slice is read lazily.
+     *
+     * @param sourceCode
+     *            the source code of the file the mark is in
+     */
+    public void setSourceCode(SourceCode sourceCode) {
+        this.sourceCode = sourceCode;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -16,6 +16,7 @@ public class Match implements Comparable<Match> {
     private int tokenCount;
     private Set<Mark> markSet = new TreeSet<>();
     private String label;
+    private float similarity = 1.0f;
 
     public static final Comparator<Match> MATCHES_COMPARATOR = new Comparator<Match>() {
         @Override
@@ -123,6 +124,21 @@ public class Match implements Comparable<Match> {
         return label;
     }
 
+    /**
+     * The similarity of the marks, between 0 and 1. Exact duplicates have a
+     * similarity of 1, near duplicates (see
+     * {@link NearDuplicateMatchAlgorithm}) have a smaller one.
+     *
+     * @return the similarity of the marks
+     */
+    public float getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(float similarity) {
+        this.similarity = similarity;
+    }
+
     public void addTokenEntry(TokenEntry entry) {
         markSet.add(new Mark(entry));
     }
@@ -80,10 +80,8 @@ public class MatchAlgorithm {
                 int lineCount = tokens.getLineCount(token, match);
 
                 mark.setLineCount(lineCount);
-                SourceCode sourceCode = source.get(token.getTokenSrcID());
-                String code = sourceCode.getSlice(mark.getBeginLine(), mark.getEndLine());
-
-                mark.setSoureCodeSlice(code);
+                // the code slice is only read when a renderer asks for it
+                mark.setSourceCode(source.get(token.getTokenSrcID()));
             }
         }
         cpdListener.phaseUpdate(CPDListener.DONE);
@@ -0,0 +1,351 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds near duplicates, i.e. token sequences which are similar but not
+ * necessarily identical, for instance because a statement has been inserted
+ * into a copy.
+ *
+ * <p>Each file is cut into overlapping windows of {@code min} tokens. A window
+ * is described by the set of its shingles (sequences of {@link #SHINGLE_SIZE}
+ * tokens), and its MinHash signature estimates the Jaccard similarity of these
+ * sets. Candidate pairs are windows sharing at least one band of their
+ * signatures (locality-sensitive hashing), so that windows are never compared
+ * pairwise. Similar enough candidates are merged into bigger regions and
+ * reported as {@link Match}es with their similarity.</p>
+ */
+public class NearDuplicateMatchAlgorithm {
+
+    public static final float DEFAULT_SIMILARITY = 0.8f;
+
+    static final int SHINGLE_SIZE = 5;
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS;
+
+    /**
+     * Buckets with more windows are boilerplate shared by many places. They
+     * are ignored, as they would make the candidate generation quadratic.
+     */
+    private static final int MAX_BUCKET_SIZE = 64;
+
+    private static final int[] SEEDS = new int[SIGNATURE_SIZE];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            SEEDS[i] = (int) (seed >>> 32) | 1;
+        }
+    }
+
+    private Map<String, SourceCode> source;
+    private List<TokenEntry> code;
+    private int min;
+    private float similarity;
+    private CPDListener cpdListener;
+
+    private List<Match> matches;
+
+    // the windows: index of their first token, and their signatures
+    private int[] windowStarts;
+    private int windowCount;
+    private int[][] signatures;
+
+    public NearDuplicateMatchAlgorithm(Map<String, SourceCode> sourceCode, Tokens tokens, int min,
+            float similarity) {
+        this(sourceCode, tokens, min, similarity, new CPDNullListener());
+    }
+
+    public NearDuplicateMatchAlgorithm(Map<String, SourceCode> sourceCode, Tokens tokens, int min, float similarity,
+            CPDListener listener) {
+        this.source = sourceCode;
+        this.code = tokens.getTokens();
+        this.min = Math.max(min, SHINGLE_SIZE);
+        this.similarity = similarity;
+        this.cpdListener = listener;
+    }
+
+    public void setListener(CPDListener listener) {
+        this.cpdListener = listener;
+    }
+
+    public Iterator<Match> matches() {
+        return matches.iterator();
+    }
+
+    public void findMatches() {
+        cpdListener.phaseUpdate(CPDListener.HASH);
+        computeSignatures();
+
+        cpdListener.phaseUpdate(CPDListener.MATCH);
+        Map<Long, Float> pairs = findSimilarPairs();
+        signatures = null;
+
+        cpdListener.phaseUpdate(CPDListener.GROUPING);
+        matches = mergePairs(pairs);
+        Collections.sort(matches);
+        cpdListener.phaseUpdate(CPDListener.DONE);
+    }
+
+    private int getStep() {
+        return Math.max(1, min / 4);
+    }
+
+    /**
+     * Cuts the files into windows and computes the signature of each window.
+     * For each hash function, the minimum over the shingles of a window is
+     * computed with a sliding window minimum, so the cost is linear in the
+     * number of tokens.
+     */
+    private void computeSignatures() {
+        int step = getStep();
+        int[] shingles = new int[code.size()];
+        windowStarts = new int[code.size() / step + 1];
+        windowCount = 0;
+
+        // shingle hashes, and the window starts, file by file
+        List<int[]> files = new ArrayList<>();
+        int fileStart = 0;
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i) == TokenEntry.EOF) {
+                if (i - fileStart >= min) {
+                    files.add(new int[] { fileStart, i });
+                    for (int s = fileStart; s + SHINGLE_SIZE <= i; s++) {
+                        shingles[s] = shingleHash(s);
+                    }
+                    for (int start = fileStart; start + min <= i; start += step) {
+                        windowStarts[windowCount++] = start;
+                    }
+                }
+                fileStart = i + 1;
+            }
+        }
+
+        signatures = new int[windowCount][SIGNATURE_SIZE];
+        int shinglesPerWindow = min - SHINGLE_SIZE + 1;
+        int[] values = new int[code.size()];
+        int[] deque = new int[shinglesPerWindow + 2];
+        for (int h = 0; h < SIGNATURE_SIZE; h++) {
+            int window = 0;
+            for (int[] file : files) {
+                int lastShingle = file[1] - SHINGLE_SIZE;
+                for (int s = file[0]; s <= lastShingle; s++) {
+                    values[s] = mix(shingles[s] * SEEDS[h]);
+                }
+                // monotonic deque of the shingle positions of the current
+                // window, with increasing values
+                int head = 0;
+                int tail = 0;
+                int capacity = deque.length;
+                for (int s = file[0]; s <= lastShingle && window < windowCount; s++) {
+                    while (tail != head && values[deque[(tail - 1 + capacity) % capacity]] >= values[s]) {
+                        tail = (tail - 1 + capacity) % capacity;
+                    }
+                    deque[tail] = s;
+                    tail = (tail + 1) % capacity;
+                    int windowStart = s - shinglesPerWindow + 1;
+                    if (deque[head] < windowStart) {
+                        head = (head + 1) % capacity;
+                    }
+                    if (windowStart == windowStarts[window]) {
+                        signatures[window++][h] = values[deque[head]];
+                    }
+                }
+            }
+        }
+    }
+
+    private int shingleHash(int start) {
+        int hash = 0;
+        for (int i = start; i < start + SHINGLE_SIZE; i++) {
+            hash = 31 * hash + code.get(i).getIdentifier();
+        }
+        return hash;
+    }
+
+    private static int mix(int value) {
+        int h = value;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Uses the bands of the signatures to find candidate pairs of windows, and
+     * keeps those which are similar enough.
+     *
+     * @return the similarity of each pair, by pair key
+     */
+    private Map<Long, Float> findSimilarPairs() {
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int w = 0; w < windowCount; w++) {
+                long key = band;
+                for (int r = band * ROWS; r < (band + 1) * ROWS; r++) {
+                    key = key * 0x100000001B3L + signatures[w][r];
+                }
+                List<Integer> bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(2);
+                    buckets.put(key, bucket);
+                }
+                bucket.add(w);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                if (bucket.size() < 2 || bucket.size() > MAX_BUCKET_SIZE) {
+                    continue;
+                }
+                for (int i = 0; i < bucket.size() - 1; i++) {
+                    for (int j = i + 1; j < bucket.size(); j++) {
+                        if (!overlap(bucket.get(i), bucket.get(j))) {
+                            candidates.add(pairKey(bucket.get(i), bucket.get(j)));
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Long, Float> pairs = new HashMap<>();
+        for (Long candidate : candidates) {
+            float estimate = estimateSimilarity(first(candidate), second(candidate));
+            if (estimate >= similarity) {
+                pairs.put(candidate, estimate);
+            }
+        }
+        return pairs;
+    }
+
+    private float estimateSimilarity(int w1, int w2) {
+        int same = 0;
+        for (int h = 0; h < SIGNATURE_SIZE; h++) {
+            if (signatures[w1][h] == signatures[w2][h]) {
+                same++;
+            }
+        }
+        return (float) same / SIGNATURE_SIZE;
+    }
+
+    private boolean overlap(int w1, int w2) {
+        TokenEntry t1 = code.get(windowStarts[w1]);
+        TokenEntry t2 = code.get(windowStarts[w2]);
+        return t1.getTokenSrcID().equals(t2.getTokenSrcID())
+                && Math.abs(windowStarts[w1] - windowStarts[w2]) < min;
+    }
+
+    /**
+     * Pairs of windows which follow each other on both sides are merged into
+     * one match. Windows which overlap an inserted or modified part are not
+     * similar, so pairs are also merged if they are at most one window length
+     * apart on each side, which bridges the gap.
+     */
+    private List<Match> mergePairs(Map<Long, Float> pairs) {
+        List<Long> keys = new ArrayList<>(pairs.keySet());
+        Collections.sort(keys);
+        Map<Long, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            indexes.put(keys.get(i), i);
+        }
+        int[] groups = new int[keys.size()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = i;
+        }
+        int maxGap = (min + getStep() - 1) / getStep();
+        for (int i = 0; i < keys.size(); i++) {
+            int w1 = first(keys.get(i));
+            int w2 = second(keys.get(i));
+            for (int d1 = 0; d1 <= maxGap; d1++) {
+                for (int d2 = d1 == 0 ? 1 : 0; d2 <= maxGap; d2++) {
+                    link(groups, indexes, i, pairKey(w1 + d1, w2 + d2));
+                }
+            }
+        }
+
+        Map<Integer, int[]> regions = new HashMap<>();
+        Map<Integer, Float> regionSimilarities = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            int group = find(groups, i);
+            int w1 = first(keys.get(i));
+            int w2 = second(keys.get(i));
+            int[] region = regions.get(group);
+            if (region == null) {
+                regions.put(group, new int[] { w1, w1, w2, w2 });
+                regionSimilarities.put(group, pairs.get(keys.get(i)));
+            } else {
+                region[0] = Math.min(region[0], w1);
+                region[1] = Math.max(region[1], w1);
+                region[2] = Math.min(region[2], w2);
+                region[3] = Math.max(region[3], w2);
+                regionSimilarities.put(group, Math.min(regionSimilarities.get(group), pairs.get(keys.get(i))));
+            }
+        }
+
+        List<Match> result = new ArrayList<>(regions.size());
+        for (Map.Entry<Integer, int[]> entry : regions.entrySet()) {
+            int[] region = entry.getValue();
+            int start1 = windowStarts[region[0]];
+            int end1 = windowStarts[region[1]] + min - 1;
+            int start2 = windowStarts[region[2]];
+            int end2 = windowStarts[region[3]] + min - 1;
+            Match match = new Match(end1 - start1 + 1, code.get(start1), code.get(start2));
+            match.setSimilarity(regionSimilarities.get(entry.getKey()));
+            for (Mark mark : match.getMarkSet()) {
+                int start = mark.getToken().getIndex() == start1 ? start1 : start2;
+                int end = start == start1 ? end1 : end2;
+                mark.setLineCount(code.get(end).getBeginLine() - code.get(start).getBeginLine() + 1);
+                mark.setSourceCode(source.get(mark.getFilename()));
+            }
+            result.add(match);
+        }
+        return result;
+    }
+
+    private static void link(int[] groups, Map<Long, Integer> indexes, int pair, long next) {
+        Integer other = indexes.get(next);
+        if (other != null) {
+            groups[find(groups, other)] = find(groups, pair);
+        }
+    }
+
+    private static int find(int[] groups, int pair) {
+        int root = pair;
+        while (groups[root] != root) {
+            groups[root] = groups[groups[root]];
+            root = groups[root];
+        }
+        return root;
+    }
+
+    private static long pairKey(int w1, int w2) {
+        return (long) w1 << 32 | w2;
+    }
+
+    private static int first(long pairKey) {
+        return (int) (pairKey >>> 32);
+    }
+
+    private static int second(long pairKey) {
+        return (int) pairKey;
+    }
+
+    int[] getWindowStarts() {
+        return Arrays.copyOf(windowStarts, windowCount);
+    }
+}
@@ -6,12 +6,19 @@ package net.sourceforge.pmd.cpd;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.io.ByteOrderMark;
@@ -26,21 +33,44 @@ public class SourceCode {
         private SoftReference<List<String>> code;
 
         public List<String> getCode() {
-            List<String> c = null;
-            if (code != null) {
-                c = code.get();
-            }
+            List<String> c = getLoadedCode();
             if (c != null) {
                 return c;
             }
-            this.code = new SoftReference<>(load());
-            return code.get();
+            c = load();
+            this.code = new SoftReference<>(c);
+            return c;
+        }
+
+        /**
+         * Returns the lines of the source if they are still cached.
+         *
+         * @return the lines, or null if they haven't been loaded or have been
+         *         reclaimed by the garbage collector
+         */
+        protected List<String> getLoadedCode() {
+            return code == null ? null : code.get();
         }
 
         public abstract String getFileName();
 
         protected abstract Reader getReader() throws Exception;
 
+        /**
+         * Gets the lines between startLine and endLine (both included, 1-based)
+         * joined with {@link PMD#EOL}. The default implementation reads the
+         * whole source again if its lines are no longer cached.
+         *
+         * @param startLine
+         *            the first line
+         * @param endLine
+         *            the last line
+         * @return the code slice
+         */
+        protected String getSlice(int startLine, int endLine) {
+            return join(getCode(), startLine, endLine);
+        }
+
         protected List<String> load() {
             LineNumberReader lnr = null;
             try {
@@ -60,10 +90,25 @@ public class SourceCode {
         }
     }
 
+    /**
+     * Loads the code of a file. The lines are cached as long as memory
+     * allows. While the file is read, the byte offset of each line is
+     * recorded, so that once the lines have been reclaimed, code slices are
+     * read from their range of the file instead of reading the whole file
+     * again.
+     */
     public static class FileCodeLoader extends CodeLoader {
         private File file;
         private String encoding;
 
+        /**
+         * Byte offset of the start of each line, plus the length of the file
+         * as last element. Null until the file has been loaded, or if the
+         * encoding doesn't allow to detect line breaks on the bytes.
+         */
+        private int[] lineOffsets;
+        private int lineCount;
+
         public FileCodeLoader(File file, String encoding) {
             this.file = file;
             this.encoding = encoding;
@@ -88,6 +133,112 @@ public class SourceCode {
         public String getFileName() {
             return file.getAbsolutePath();
         }
+
+        @Override
+        protected List<String> load() {
+            try {
+                // read, not mapped: a mapping would lock the file on Windows until it is garbage collected
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+                skipBOM(buffer);
+                Charset charset = Charset.forName(encoding);
+                if (isAsciiCompatible(charset)) {
+                    indexLines(buffer);
+                } else {
+                    lineOffsets = null;
+                }
+                return split(charset.decode(buffer));
+            } catch (IOException e) {
+                throw new RuntimeException("Problem while reading " + getFileName() + ":" + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        protected String getSlice(int startLine, int endLine) {
+            if (lineOffsets == null || getLoadedCode() != null) {
+                return super.getSlice(startLine, endLine);
+            }
+            int from = startLine == 0 ? startLine : startLine - 1;
+            int to = Math.min(endLine, lineCount);
+            if (from >= to) {
+                return "";
+            }
+            int start = lineOffsets[from];
+            int length = lineOffsets[to] - start;
+            try (FileInputStream stream = new FileInputStream(file); FileChannel channel = stream.getChannel()) {
+                ByteBuffer bytes = ByteBuffer.allocate(length);
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, start + bytes.position()) < 0) {
+                        break;
+                    }
+                }
+                bytes.flip();
+                return join(split(Charset.forName(encoding).decode(bytes)), 0, to - from);
+            } catch (IOException e) {
+                throw new RuntimeException("Problem while reading " + getFileName() + ":" + e.getMessage(), e);
+            }
+        }
+
+        private void skipBOM(ByteBuffer buffer) {
+            for (ByteOrderMark bom : new ByteOrderMark[] { ByteOrderMark.UTF_8, ByteOrderMark.UTF_16BE,
+                ByteOrderMark.UTF_16LE, }) {
+                if (buffer.remaining() >= bom.length()) {
+                    boolean matches = true;
+                    for (int i = 0; i < bom.length() && matches; i++) {
+                        matches = (buffer.get(i) & 0xFF) == bom.get(i);
+                    }
+                    if (matches) {
+                        buffer.position(bom.length());
+                        encoding = bom.getCharsetName();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Records the start offset of each line, using the same line
+         * terminators as {@link LineNumberReader#readLine()}.
+         */
+        private void indexLines(ByteBuffer buffer) {
+            int[] offsets = new int[Math.max(16, buffer.remaining() / 32)];
+            int count = 0;
+            int lineStart = buffer.position();
+            int limit = buffer.limit();
+            for (int i = lineStart; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    if (b == '\r' && i + 1 < limit && buffer.get(i + 1) == '\n') {
+                        i++;
+                    }
+                    if (count + 1 >= offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[count++] = lineStart;
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < limit) {
+                if (count + 1 >= offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length + 2);
+                }
+                offsets[count++] = lineStart;
+            }
+            offsets[count] = limit;
+            lineOffsets = Arrays.copyOf(offsets, count + 1);
+            lineCount = count;
+        }
+
+        /**
+         * Only for charsets in which line terminators are the plain ASCII
+         * bytes, line breaks can be found without decoding the file.
+         */
+        private static boolean isAsciiCompatible(Charset charset) {
+            if (!charset.canEncode()) {
+                return false;
+            }
+            ByteBuffer lineBreak = charset.encode("\r\n");
+            return lineBreak.remaining() == 2 && lineBreak.get(0) == '\r' && lineBreak.get(1) == '\n';
+        }
     }
 
     public static class StringCodeLoader extends CodeLoader {
@@ -124,6 +275,11 @@ public class SourceCode {
 
         private String name;
 
+        /**
+         * A reader can be consumed only once, so the lines are kept.
+         */
+        private List<String> lines;
+
         public ReaderCodeLoader(Reader code) {
             this(code, DEFAULT_NAME);
         }
@@ -133,6 +289,14 @@ public class SourceCode {
             this.name = name;
         }
 
+        @Override
+        public List<String> getCode() {
+            if (lines == null) {
+                lines = load();
+            }
+            return lines;
+        }
+
         @Override
         public Reader getReader() {
             return code;
@@ -164,8 +328,11 @@ public class SourceCode {
     }
 
     public String getSlice(int startLine, int endLine) {
+        return cl.getSlice(startLine, endLine);
+    }
+
+    private static String join(List<String> lines, int startLine, int endLine) {
         StringBuilder sb = new StringBuilder();
-        List<String> lines = cl.getCode();
         for (int i = startLine == 0 ? startLine : startLine - 1; i < endLine && i < lines.size(); i++) {
             if (sb.length() != 0) {
                 sb.append(PMD.EOL);
@@ -175,6 +342,26 @@ public class SourceCode {
         return sb.toString();
     }
 
+    private static List<String> split(CharBuffer chars) {
+        List<String> lines = new ArrayList<>();
+        int lineStart = chars.position();
+        int limit = chars.limit();
+        for (int i = lineStart; i < limit; i++) {
+            char c = chars.get(i);
+            if (c == '\n' || c == '\r') {
+                lines.add(chars.subSequence(lineStart - chars.position(), i - chars.position()).toString());
+                if (c == '\r' && i + 1 < limit && chars.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < limit) {
+            lines.add(chars.subSequence(lineStart - chars.position(), limit - chars.position()).toString());
+        }
+        return lines;
+    }
+
     public String getFileName() {
         return cl.getFileName();
     }
@@ -0,0 +1,277 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.Parser;
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * Finds duplicated AST subtrees, using the PMD parser of a language instead of
+ * a token sequence. Each file is parsed and hashed bottom-up in a single pass:
+ * the hash of a node combines its kind, its (optionally abstracted) image and
+ * the hashes of its children. Subtrees with the same hash are clones; only the
+ * largest ones are reported, i.e. a clone is skipped if all of its occurrences
+ * are part of a bigger clone.
+ *
+ * <p>The AST is discarded once it has been hashed, only the position and hash
+ * of the subtrees which are big enough are kept.</p>
+ *
+ * <p>The minimum size and the reported token count of a match are expressed in
+ * number of AST nodes.</p>
+ */
+public class StructuralMatchAlgorithm {
+
+    private static final long PRIME = 0x100000001B3L;
+
+    private final LanguageVersionHandler languageVersionHandler;
+    private final int minimumNodeCount;
+    private final boolean ignoreIdentifiers;
+    private final boolean ignoreLiterals;
+    private CPDListener cpdListener;
+
+    /**
+     * Subtrees by hash. As in {@link MatchAlgorithm}, the value is either a
+     * single {@link Subtree} or, for the few hashes which occur more than
+     * once, a list of them.
+     */
+    private Map<Long, Object> subtrees = new HashMap<>();
+    private List<Match> matches;
+
+    // state of the file currently hashed
+    private SourceCode currentSource;
+    private int nodeCount;
+    private Subtree lastSubtree;
+
+    private static final class Subtree {
+        private final long hash;
+        private final String kind;
+        private final int size;
+        private final SourceCode source;
+        private final int beginLine;
+        private final int endLine;
+        private Subtree parent;
+
+        Subtree(long hash, String kind, int size, SourceCode source, int beginLine, int endLine) {
+            this.hash = hash;
+            this.kind = kind;
+            this.size = size;
+            this.source = source;
+            this.beginLine = beginLine;
+            this.endLine = endLine;
+        }
+    }
+
+    private static final Comparator<Subtree> POSITION_COMPARATOR = new Comparator<Subtree>() {
+        @Override
+        public int compare(Subtree a, Subtree b) {
+            int diff = a.source.getFileName().compareTo(b.source.getFileName());
+            if (diff != 0) {
+                return diff;
+            }
+            return a.beginLine - b.beginLine;
+        }
+    };
+
+    public StructuralMatchAlgorithm(LanguageVersionHandler languageVersionHandler, int minimumNodeCount,
+            boolean ignoreIdentifiers, boolean ignoreLiterals) {
+        this(languageVersionHandler, minimumNodeCount, ignoreIdentifiers, ignoreLiterals, new CPDNullListener());
+    }
+
+    public StructuralMatchAlgorithm(LanguageVersionHandler languageVersionHandler, int minimumNodeCount,
+            boolean ignoreIdentifiers, boolean ignoreLiterals, CPDListener listener) {
+        this.languageVersionHandler = languageVersionHandler;
+        this.minimumNodeCount = minimumNodeCount;
+        this.ignoreIdentifiers = ignoreIdentifiers;
+        this.ignoreLiterals = ignoreLiterals;
+        this.cpdListener = listener;
+    }
+
+    public void setListener(CPDListener listener) {
+        this.cpdListener = listener;
+    }
+
+    public int getMinimumNodeCount() {
+        return minimumNodeCount;
+    }
+
+    /**
+     * Parses the given source and indexes its subtrees.
+     *
+     * @param sourceCode
+     *            the source to add
+     * @throws net.sourceforge.pmd.lang.ast.ParseException
+     *             if the source can't be parsed
+     */
+    public void add(SourceCode sourceCode) {
+        Parser parser = languageVersionHandler.getParser(languageVersionHandler.getDefaultParserOptions());
+        Node root = parser.parse(sourceCode.getFileName(),
+                new StringReader(sourceCode.getCodeBuffer().toString()));
+        currentSource = sourceCode;
+        nodeCount = 0;
+        hash(root);
+        currentSource = null;
+        lastSubtree = null;
+    }
+
+    public Iterator<Match> matches() {
+        return matches.iterator();
+    }
+
+    public void findMatches() {
+        cpdListener.phaseUpdate(CPDListener.MATCH);
+        matches = new ArrayList<>();
+        for (Object o : subtrees.values()) {
+            if (o instanceof List) {
+                List<Subtree> clones = (List<Subtree>) o;
+                if (!isPartOfBiggerClone(clones)) {
+                    matches.add(createMatch(clones));
+                }
+            }
+        }
+        subtrees.clear();
+
+        cpdListener.phaseUpdate(CPDListener.GROUPING);
+        Collections.sort(matches);
+        cpdListener.phaseUpdate(CPDListener.DONE);
+    }
+
+    /**
+     * Hashes the subtree rooted at the given node, and indexes it if it's big
+     * enough. The indexed subtree, if any, is left in {@link #lastSubtree}.
+     */
+    private long hash(Node node) {
+        int start = nodeCount++;
+        String kind = kind(node);
+        long hash = kind.hashCode();
+        String image = normalizedImage(node);
+        if (image != null) {
+            hash = hash * PRIME + image.hashCode();
+        }
+
+        List<Subtree> children = null;
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            hash = hash * PRIME + hash(node.jjtGetChild(i));
+            if (lastSubtree != null) {
+                if (children == null) {
+                    children = new ArrayList<>(node.jjtGetNumChildren());
+                }
+                children.add(lastSubtree);
+            }
+        }
+        hash = mix(hash * PRIME + node.jjtGetNumChildren());
+
+        lastSubtree = null;
+        int size = nodeCount - start;
+        if (size >= minimumNodeCount) {
+            Subtree subtree = new Subtree(hash, kind, size, currentSource, node.getBeginLine(), node.getEndLine());
+            if (children != null) {
+                for (Subtree child : children) {
+                    child.parent = subtree;
+                }
+            }
+            index(subtree);
+            lastSubtree = subtree;
+        }
+        return hash;
+    }
+
+    /**
+     * Identifiers and literals are abstracted if configured so. Nodes whose
+     * name contains "Literal" are considered literals, other images which
+     * start like a Java identifier are considered identifiers. Other images
+     * (e.g. operators) are always kept.
+     */
+    private String normalizedImage(Node node) {
+        String image = node.getImage();
+        if (image == null || image.isEmpty()) {
+            return null;
+        }
+        if (kind(node).contains("Literal")) {
+            return ignoreLiterals ? null : image;
+        }
+        if (ignoreIdentifiers && Character.isJavaIdentifierStart(image.charAt(0))) {
+            return null;
+        }
+        return image;
+    }
+
+    /**
+     * As for XPath, the kind of a node is its name.
+     */
+    private static String kind(Node node) {
+        return node.toString();
+    }
+
+    /**
+     * Final mixing step of MurmurHash3, spreads the bits of the hash.
+     */
+    private static long mix(long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private void index(Subtree subtree) {
+        Long key = subtree.hash;
+        Object o = subtrees.get(key);
+        // most subtrees are unique, so only create a list when needed
+        if (o == null) {
+            subtrees.put(key, subtree);
+        } else if (o instanceof Subtree) {
+            List<Subtree> l = new ArrayList<>(2);
+            l.add((Subtree) o);
+            l.add(subtree);
+            subtrees.put(key, l);
+        } else {
+            List<Subtree> l = (List<Subtree>) o;
+            l.add(subtree);
+        }
+    }
+
+    private boolean isPartOfBiggerClone(List<Subtree> clones) {
+        for (Subtree clone : clones) {
+            if (clone.parent == null || !(subtrees.get(clone.parent.hash) instanceof List)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Match createMatch(List<Subtree> clones) {
+        Collections.sort(clones, POSITION_COMPARATOR);
+        // the marks are ordered by the index of their token, that is, in
+        // the order the entries are created
+        Match match = new Match(clones.get(0).size, createTokenEntry(clones.get(0)),
+                createTokenEntry(clones.get(1)));
+        for (int i = 2; i < clones.size(); i++) {
+            match.addTokenEntry(createTokenEntry(clones.get(i)));
+        }
+        Iterator<Subtree> clone = clones.iterator();
+        for (Mark mark : match.getMarkSet()) {
+            Subtree subtree = clone.next();
+            mark.setLineCount(subtree.endLine - subtree.beginLine + 1);
+            mark.setSourceCode(subtree.source);
+        }
+        return match;
+    }
+
+    private static TokenEntry createTokenEntry(Subtree subtree) {
+        return new TokenEntry(subtree.kind, subtree.source.getFileName(), subtree.beginLine);
+    }
+}
@@ -4,28 +4,39 @@
 
 package net.sourceforge.pmd.cpd;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Iterator;
 
 import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
 
-public class VSRenderer implements Renderer {
+public class VSRenderer implements Renderer, CPDRenderer {
 
     @Override
     public String render(Iterator<Match> matches) {
+        StringWriter writer = new StringWriter(300);
+        try {
+            render(matches, writer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return writer.toString();
+    }
 
-        StringBuilder buffer = new StringBuilder(300);
-
+    @Override
+    public void render(Iterator<Match> matches, Writer writer) throws IOException {
         for (Match match; matches.hasNext();) {
             match = matches.next();
             Mark mark;
             for (Iterator<Mark> iterator = match.iterator(); iterator.hasNext();) {
                 mark = iterator.next();
-                buffer.append(mark.getFilename());
-                buffer.append('(').append(mark.getBeginLine()).append("):");
-                buffer.append(" Between lines " + mark.getBeginLine() + " and "
+                writer.append(mark.getFilename());
+                writer.append('(').append(String.valueOf(mark.getBeginLine())).append("):");
+                writer.append(" Between lines " + mark.getBeginLine() + " and "
                         + (mark.getBeginLine() + match.getLineCount()) + PMD.EOL);
             }
         }
-        return buffer.toString();
     }
 }
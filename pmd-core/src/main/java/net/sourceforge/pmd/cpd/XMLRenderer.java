@@ -4,28 +4,28 @@
 
 package net.sourceforge.pmd.cpd;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
 import java.util.Iterator;
+import java.util.Locale;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
 
 /**
  * @author Philippe T'Seyen - original implementation
  * @author Romain Pelisse - javax.xml implementation
  *
  */
-public final class XMLRenderer implements Renderer {
+public final class XMLRenderer implements Renderer, CPDRenderer {
+
+    private static final String CDATA_END = "]]>";
 
     private String encoding;
 
@@ -59,73 +59,117 @@ public final class XMLRenderer implements Renderer {
         return this.encoding;
     }
 
-    private Document createDocument() {
+    @Override
+    public String render(Iterator<Match> matches) {
+        StringWriter writer = new StringWriter();
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder parser = factory.newDocumentBuilder();
-            return parser.newDocument();
-        } catch (ParserConfigurationException e) {
+            render(matches, writer);
+        } catch (IOException e) {
             throw new IllegalStateException(e);
         }
+        return writer.toString();
     }
 
-    private String xmlDocToString(Document doc) {
+    @Override
+    public void render(Iterator<Match> matches, Writer writer) throws IOException {
+        // the declaration is written by hand, so that the stream writer does
+        // not check the encoding against the one of the underlying writer
+        writer.write("<?xml version=\"1.0\" encoding=\"" + encoding + "\"?>\n");
         try {
-            TransformerFactory tf = TransformerFactory.newInstance();
-            Transformer transformer = tf.newTransformer();
-            transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-            transformer.setOutputProperty(OutputKeys.ENCODING, encoding);
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(OutputKeys.CDATA_SECTION_ELEMENTS, "codefragment");
-            StringWriter writer = new StringWriter();
-            transformer.transform(new DOMSource(doc), new StreamResult(writer));
-            return writer.toString();
-        } catch (TransformerException e) {
-            throw new IllegalStateException(e);
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            if (!matches.hasNext()) {
+                xml.writeEmptyElement("pmd-cpd");
+            } else {
+                xml.writeStartElement("pmd-cpd");
+                while (matches.hasNext()) {
+                    writeDuplication(xml, matches.next());
+                }
+                xml.writeCharacters("\n");
+                xml.writeEndElement();
+            }
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
         }
     }
 
-    @Override
-    public String render(Iterator<Match> matches) {
-        Document doc = createDocument();
-        Element root = doc.createElement("pmd-cpd");
-        doc.appendChild(root);
-
-        Match match;
-        while (matches.hasNext()) {
-            match = matches.next();
-            root.appendChild(addCodeSnippet(doc,
-                    addFilesToDuplicationElement(doc, createDuplicationElement(doc, match), match), match));
+    private void writeDuplication(XMLStreamWriter xml, Match match) throws XMLStreamException {
+        xml.writeCharacters("\n    ");
+        xml.writeStartElement("duplication");
+        xml.writeAttribute("lines", String.valueOf(match.getLineCount()));
+        xml.writeAttribute("tokens", String.valueOf(match.getTokenCount()));
+        if (match.getSimilarity() < 1.0f) {
+            xml.writeAttribute("similarity", String.format(Locale.ROOT, "%.2f", match.getSimilarity()));
+        }
+        for (Iterator<Mark> iterator = match.iterator(); iterator.hasNext();) {
+            Mark mark = iterator.next();
+            xml.writeCharacters("\n        ");
+            xml.writeEmptyElement("file");
+            xml.writeAttribute("line", String.valueOf(mark.getBeginLine()));
+            xml.writeAttribute("path", mark.getFilename());
         }
-        return xmlDocToString(doc);
+        String codeSnippet = match.getSourceCodeSlice();
+        if (codeSnippet != null) {
+            xml.writeCharacters("\n        ");
+            xml.writeStartElement("codefragment");
+            writeCData(xml, codeSnippet);
+            xml.writeEndElement();
+        }
+        xml.writeCharacters("\n    ");
+        xml.writeEndElement();
     }
 
-    private Element addFilesToDuplicationElement(Document doc, Element duplication, Match match) {
-        Mark mark;
-        for (Iterator<Mark> iterator = match.iterator(); iterator.hasNext();) {
-            mark = iterator.next();
-            Element file = doc.createElement("file");
-            file.setAttribute("line", String.valueOf(mark.getBeginLine()));
-            file.setAttribute("path", mark.getFilename());
-            duplication.appendChild(file);
+    /**
+     * Writes the given text as CDATA. The characters which the output
+     * encoding can't represent are written as character references between
+     * CDATA sections, as CDATA can't escape them.
+     */
+    private void writeCData(XMLStreamWriter xml, String text) throws XMLStreamException {
+        CharsetEncoder encoder = newEncoder();
+        int start = 0;
+        boolean written = false;
+        for (int i = 0; i < text.length();) {
+            int codePoint = text.codePointAt(i);
+            int next = i + Character.charCount(codePoint);
+            if (encoder != null && !encoder.canEncode(text.substring(i, next))) {
+                if (i > start) {
+                    writeCDataSections(xml, text.substring(start, i));
+                }
+                xml.writeEntityRef("#" + codePoint);
+                start = next;
+                written = true;
+            }
+            i = next;
+        }
+        if (start < text.length() || !written) {
+            writeCDataSections(xml, text.substring(start));
         }
-        return duplication;
     }
 
-    private Element addCodeSnippet(Document doc, Element duplication, Match match) {
-        String codeSnipet = match.getSourceCodeSlice();
-        if (codeSnipet != null) {
-            Element codefragment = doc.createElement("codefragment");
-            codefragment.appendChild(doc.createCDATASection(codeSnipet));
-            duplication.appendChild(codefragment);
+    /**
+     * Writes the given text as CDATA, splitting the section wherever the text
+     * itself contains the CDATA end marker.
+     */
+    private static void writeCDataSections(XMLStreamWriter xml, String text) throws XMLStreamException {
+        int start = 0;
+        int end = text.indexOf(CDATA_END);
+        while (end >= 0) {
+            // keep "]]" in the current section and start a new one with ">"
+            xml.writeCData(text.substring(start, end + 2));
+            start = end + 2;
+            end = text.indexOf(CDATA_END, start);
         }
-        return duplication;
+        xml.writeCData(text.substring(start));
     }
 
-    private Element createDuplicationElement(Document doc, Match match) {
-        Element duplication = doc.createElement("duplication");
-        duplication.setAttribute("lines", String.valueOf(match.getLineCount()));
-        duplication.setAttribute("tokens", String.valueOf(match.getTokenCount()));
-        return duplication;
+    private CharsetEncoder newEncoder() {
+        try {
+            return Charset.forName(encoding).newEncoder();
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            // unknown encoding: the characters are written as they are
+            return null;
+        }
     }
 }
@@ -0,0 +1,33 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd.renderer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import net.sourceforge.pmd.cpd.Match;
+
+/**
+ * Renders the CPD matches directly to a {@link Writer}. Contrary to
+ * {@link net.sourceforge.pmd.cpd.Renderer}, the whole report is never held in
+ * memory: each match (and its code fragment) is written out as soon as it is
+ * taken from the iterator.
+ */
+public interface CPDRenderer {
+
+    /**
+     * Writes the given matches to the writer. The writer is neither flushed
+     * nor closed by this method.
+     *
+     * @param matches
+     *            the matches to render
+     * @param writer
+     *            the destination
+     * @throws IOException
+     *             if the writer fails
+     */
+    void render(Iterator<Match> matches, Writer writer) throws IOException;
+}
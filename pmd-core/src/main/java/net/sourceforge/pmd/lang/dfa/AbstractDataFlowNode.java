@@ -26,6 +26,8 @@ public abstract class AbstractDataFlowNode implements DataFlowNode {
     protected List<VariableAccess> variableAccess = new ArrayList<>();
     protected List<DataFlowNode> dataFlow;
     protected int line;
+    // the flow only grows, so the position of a node never changes
+    private final int index;
 
     public AbstractDataFlowNode(List<DataFlowNode> dataFlow) {
         this.dataFlow = dataFlow;
@@ -33,6 +35,7 @@ public abstract class AbstractDataFlowNode implements DataFlowNode {
             DataFlowNode parent = this.dataFlow.get(this.dataFlow.size() - 1);
             parent.addPathToChild(this);
         }
+        this.index = this.dataFlow.size();
         this.dataFlow.add(this);
     }
 
@@ -112,7 +115,7 @@ public abstract class AbstractDataFlowNode implements DataFlowNode {
 
     @Override
     public int getIndex() {
-        return this.dataFlow.indexOf(this);
+        return this.index;
     }
 
     @Override
@@ -0,0 +1,196 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A monotone data flow analysis over the {@link DataFlowGraph} of a method,
+ * whose facts are bit vectors. Each node has a transfer function
+ * <code>out = gen &#x222A; (in - kill)</code>, and the facts of the
+ * predecessors are merged with a union, like for reaching definitions
+ * (forward) or live variables (backward).
+ *
+ * <p>The fixed point is computed with a worklist, so each node is visited
+ * only as often as its facts change, instead of enumerating the paths of the
+ * data flow.</p>
+ *
+ * @see DataFlowAnomalyAnalysis
+ */
+public abstract class BitVectorDataFlowAnalysis {
+
+    private final DataFlowGraph graph;
+    private final boolean forward;
+
+    private BitSet[] in;
+    private BitSet[] out;
+    private BitSet reachable;
+
+    /**
+     * @param flow
+     *            the nodes of the data flow, the first one is the entry node
+     * @param forward
+     *            <code>true</code> if the facts flow from the parents to the
+     *            children, <code>false</code> for the opposite direction
+     */
+    protected BitVectorDataFlowAnalysis(List<DataFlowNode> flow, boolean forward) {
+        this(DataFlowGraph.of(flow), forward);
+    }
+
+    /**
+     * @param graph
+     *            the data flow, its first node is the entry node
+     * @param forward
+     *            <code>true</code> if the facts flow from the parents to the
+     *            children, <code>false</code> for the opposite direction
+     */
+    protected BitVectorDataFlowAnalysis(DataFlowGraph graph, boolean forward) {
+        this.graph = graph;
+        this.forward = forward;
+    }
+
+    /**
+     * Computes the gen and kill sets of a node. Called once per node.
+     *
+     * @param node
+     *            the index of the node in the graph
+     * @param gen
+     *            the facts created by the node, initially empty
+     * @param kill
+     *            the facts removed by the node, initially empty
+     */
+    protected abstract void computeGenKill(int node, BitSet gen, BitSet kill);
+
+    /**
+     * Computes the fixed point.
+     */
+    public void solve() {
+        int size = graph.size();
+        BitSet[] gen = new BitSet[size];
+        BitSet[] kill = new BitSet[size];
+        in = new BitSet[size];
+        out = new BitSet[size];
+        reachable = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            gen[i] = new BitSet();
+            kill[i] = new BitSet();
+            computeGenKill(i, gen[i], kill[i]);
+            in[i] = new BitSet();
+            out[i] = new BitSet();
+        }
+        if (size == 0) {
+            return;
+        }
+
+        // the nodes whose facts must be recomputed, as a ring buffer without
+        // duplicates, so it never holds more than all the nodes
+        int[] worklist = new int[size];
+        int head = 0;
+        int count = 0;
+        BitSet queued = new BitSet(size);
+        for (int start = 0; start < size; start++) {
+            if (forward ? start == 0 : graph.getChildCount(start) == 0) {
+                worklist[count++] = start;
+                queued.set(start);
+            }
+        }
+        while (count > 0) {
+            int i = worklist[head];
+            head = (head + 1) % size;
+            count--;
+            queued.clear(i);
+            boolean firstVisit = !reachable.get(i);
+            reachable.set(i);
+
+            BitSet entry = forward ? in[i] : out[i];
+            int predecessors = forward ? graph.getParentCount(i) : graph.getChildCount(i);
+            for (int e = 0; e < predecessors; e++) {
+                int p = forward ? graph.getParent(i, e) : graph.getChild(i, e);
+                entry.or(forward ? out[p] : in[p]);
+            }
+            BitSet exit = (BitSet) entry.clone();
+            exit.andNot(kill[i]);
+            exit.or(gen[i]);
+
+            BitSet previous = forward ? out[i] : in[i];
+            if (firstVisit || !exit.equals(previous)) {
+                if (forward) {
+                    out[i] = exit;
+                } else {
+                    in[i] = exit;
+                }
+                int successors = forward ? graph.getChildCount(i) : graph.getParentCount(i);
+                for (int e = 0; e < successors; e++) {
+                    int s = forward ? graph.getChild(i, e) : graph.getParent(i, e);
+                    if (!queued.get(s)) {
+                        worklist[(head + count) % size] = s;
+                        count++;
+                        queued.set(s);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the analyzed data flow
+     */
+    public DataFlowGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the nodes of the analyzed data flow
+     */
+    public List<DataFlowNode> getFlow() {
+        return graph.getFlow();
+    }
+
+    /**
+     * @return the position of the node in the data flow, or -1 if the node
+     *         isn't part of it
+     */
+    public int indexOf(DataFlowNode node) {
+        return node.getFlow() == graph.getFlow() ? node.getIndex() : -1;
+    }
+
+    /**
+     * @return whether the node has been reached from the start node(s) of
+     *         the analysis
+     */
+    public boolean isReachable(int node) {
+        return reachable.get(node);
+    }
+
+    public boolean isReachable(DataFlowNode node) {
+        int index = indexOf(node);
+        return index >= 0 && reachable.get(index);
+    }
+
+    /**
+     * @return the facts before the node (in the direction of the data flow,
+     *         not of the analysis). Must not be modified.
+     */
+    public BitSet getIn(int node) {
+        return in[node];
+    }
+
+    public BitSet getIn(DataFlowNode node) {
+        return in[indexOf(node)];
+    }
+
+    /**
+     * @return the facts after the node (in the direction of the data flow,
+     *         not of the analysis). Must not be modified.
+     */
+    public BitSet getOut(int node) {
+        return out[node];
+    }
+
+    public BitSet getOut(DataFlowNode node) {
+        return out[indexOf(node)];
+    }
+}
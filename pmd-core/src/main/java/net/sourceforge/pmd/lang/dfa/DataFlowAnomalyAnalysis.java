@@ -0,0 +1,142 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds the data flow anomalies of a method:
+ * <ul>
+ * <li>DD: a variable is defined, then defined again</li>
+ * <li>DU: a variable is defined, then undefined (i.e. it goes out of
+ * scope)</li>
+ * <li>UR: a variable is undefined, then referenced</li>
+ * </ul>
+ *
+ * <p>An anomaly is a pair of successive accesses to the same variable on some
+ * path of the data flow. Instead of enumerating the paths, the accesses which
+ * can be the last one to their variable before a node are computed, like
+ * reaching definitions, in a single fixed point.</p>
+ */
+public class DataFlowAnomalyAnalysis extends BitVectorDataFlowAnalysis {
+
+    public static final String DD = "DD";
+    public static final String DU = "DU";
+    public static final String UR = "UR";
+
+    /**
+     * Called for each anomaly found.
+     */
+    public interface AnomalyHandler {
+        /**
+         * @param type
+         *            {@link #DD}, {@link #DU} or {@link #UR}
+         * @param variableName
+         *            the name of the variable
+         * @param firstNode
+         *            the node of the first access
+         * @param lastNode
+         *            the node of the second access
+         */
+        void anomalyFound(String type, String variableName, DataFlowNode firstNode, DataFlowNode lastNode);
+    }
+
+    // the accesses to each variable, by variable id
+    private final BitSet[] accessesByVariable;
+
+    public DataFlowAnomalyAnalysis(List<DataFlowNode> flow) {
+        this(DataFlowGraph.of(flow));
+    }
+
+    public DataFlowAnomalyAnalysis(DataFlowGraph graph) {
+        super(graph, true);
+        accessesByVariable = new BitSet[graph.getVariableCount()];
+        for (int v = 0; v < accessesByVariable.length; v++) {
+            accessesByVariable[v] = new BitSet();
+        }
+        for (int a = 0; a < graph.getAccessCount(); a++) {
+            accessesByVariable[graph.getAccessVariable(a)].set(a);
+        }
+    }
+
+    /**
+     * Kills all the accesses to the variables accessed by the node, and
+     * generates the last access to each of them.
+     */
+    @Override
+    protected void computeGenKill(int node, BitSet gen, BitSet kill) {
+        DataFlowGraph graph = getGraph();
+        BitSet variables = graph.getAccessedVariables(node);
+        if (variables == null) {
+            return;
+        }
+        for (int v = variables.nextSetBit(0); v >= 0; v = variables.nextSetBit(v + 1)) {
+            kill.or(accessesByVariable[v]);
+        }
+        for (int a = graph.getAccessEnd(node) - 1; a >= graph.getFirstAccess(node); a--) {
+            int v = graph.getAccessVariable(a);
+            if (!gen.intersects(accessesByVariable[v])) {
+                gen.set(a);
+            }
+        }
+    }
+
+    /**
+     * Computes the fixed point, then reports each anomaly to the handler.
+     *
+     * @param handler
+     *            the handler
+     */
+    public void findAnomalies(AnomalyHandler handler) {
+        solve();
+        DataFlowGraph graph = getGraph();
+        BitSet previous = new BitSet();
+        // the last access to each variable in the current node, or -1
+        int[] lastAccesses = new int[graph.getVariableCount()];
+        Arrays.fill(lastAccesses, -1);
+        for (int i = 0; i < graph.size(); i++) {
+            if (!isReachable(i)) {
+                continue;
+            }
+            for (int a = graph.getFirstAccess(i); a < graph.getAccessEnd(i); a++) {
+                int v = graph.getAccessVariable(a);
+                if (lastAccesses[v] >= 0) {
+                    check(handler, lastAccesses[v], a);
+                } else {
+                    previous.clear();
+                    previous.or(getIn(i));
+                    previous.and(accessesByVariable[v]);
+                    for (int p = previous.nextSetBit(0); p >= 0; p = previous.nextSetBit(p + 1)) {
+                        check(handler, p, a);
+                    }
+                }
+                lastAccesses[v] = a;
+            }
+            for (int a = graph.getFirstAccess(i); a < graph.getAccessEnd(i); a++) {
+                lastAccesses[graph.getAccessVariable(a)] = -1;
+            }
+        }
+    }
+
+    private void check(AnomalyHandler handler, int first, int second) {
+        DataFlowGraph graph = getGraph();
+        int lastType = graph.getAccessType(first);
+        int type = graph.getAccessType(second);
+        String anomaly = null;
+        if (type == lastType && type == VariableAccess.DEFINITION) {
+            anomaly = DD;
+        } else if (lastType == VariableAccess.UNDEFINITION && type == VariableAccess.REFERENCING) {
+            anomaly = UR;
+        } else if (lastType == VariableAccess.DEFINITION && type == VariableAccess.UNDEFINITION) {
+            anomaly = DU;
+        }
+        if (anomaly != null) {
+            handler.anomalyFound(anomaly, graph.getVariableName(graph.getAccessVariable(second)),
+                    graph.getNode(graph.getAccessNode(first)), graph.getNode(graph.getAccessNode(second)));
+        }
+    }
+}
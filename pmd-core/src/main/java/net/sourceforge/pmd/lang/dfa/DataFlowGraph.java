@@ -0,0 +1,253 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, read-only view of the data flow of a method. The nodes are
+ * identified by their index in the flow, the edges are stored in compressed
+ * sparse row arrays, the variables are identified by an int id and the
+ * variable accesses of all the nodes are stored in flat arrays. This is what
+ * the solvers, e.g. {@link BitVectorDataFlowAnalysis}, work on.
+ *
+ * <p>The graph is built once the data flow is complete (i.e. after the
+ * variable accesses have been computed), the first time it is needed, and
+ * cached with the start node of the flow. The {@link DataFlowNode} objects stay
+ * available with {@link #getNode(int)}.</p>
+ */
+public final class DataFlowGraph {
+
+    private static final int[] NO_EDGES = new int[0];
+
+    private final List<DataFlowNode> flow;
+
+    // the children of node i are childTargets[childOffsets[i]] to
+    // childTargets[childOffsets[i + 1] - 1], same for the parents
+    private final int[] childOffsets;
+    private final int[] childTargets;
+    private final int[] parentOffsets;
+    private final int[] parentTargets;
+
+    private final String[] variableNames;
+    // the accesses of node i are at accessOffsets[i] to
+    // accessOffsets[i + 1] - 1
+    private final int[] accessOffsets;
+    private final int[] accessVariables;
+    private final int[] accessTypes;
+    private final int[] accessNodes;
+    // the variables accessed by each node, null if there are none
+    private final BitSet[] accessedVariables;
+
+    private DataFlowGraph(List<DataFlowNode> flow) {
+        this.flow = flow;
+        int size = flow.size();
+
+        childOffsets = new int[size + 1];
+        parentOffsets = new int[size + 1];
+        accessOffsets = new int[size + 1];
+        int childCount = 0;
+        int parentCount = 0;
+        int accessCount = 0;
+        for (int i = 0; i < size; i++) {
+            DataFlowNode node = flow.get(i);
+            childCount += node.getChildren().size();
+            parentCount += node.getParents().size();
+            if (node.getVariableAccess() != null) {
+                accessCount += node.getVariableAccess().size();
+            }
+        }
+        childTargets = childCount == 0 ? NO_EDGES : new int[childCount];
+        parentTargets = parentCount == 0 ? NO_EDGES : new int[parentCount];
+        accessVariables = new int[accessCount];
+        accessTypes = new int[accessCount];
+        accessNodes = new int[accessCount];
+        accessedVariables = new BitSet[size];
+
+        Map<String, Integer> variableIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        childCount = 0;
+        parentCount = 0;
+        accessCount = 0;
+        for (int i = 0; i < size; i++) {
+            DataFlowNode node = flow.get(i);
+            childOffsets[i] = childCount;
+            childCount = addEdges(node.getChildren(), childTargets, childCount);
+            parentOffsets[i] = parentCount;
+            parentCount = addEdges(node.getParents(), parentTargets, parentCount);
+
+            accessOffsets[i] = accessCount;
+            if (node.getVariableAccess() == null || node.getVariableAccess().isEmpty()) {
+                continue;
+            }
+            accessedVariables[i] = new BitSet();
+            for (VariableAccess va : node.getVariableAccess()) {
+                Integer id = variableIds.get(va.getVariableName());
+                if (id == null) {
+                    id = names.size();
+                    variableIds.put(va.getVariableName(), id);
+                    names.add(va.getVariableName());
+                }
+                accessVariables[accessCount] = id;
+                accessTypes[accessCount] = va.getAccessType();
+                accessNodes[accessCount] = i;
+                accessedVariables[i].set(id);
+                accessCount++;
+            }
+        }
+        childOffsets[size] = childCount;
+        parentOffsets[size] = parentCount;
+        accessOffsets[size] = accessCount;
+        variableNames = names.toArray(new String[names.size()]);
+    }
+
+    private int addEdges(List<DataFlowNode> targets, int[] edges, int count) {
+        int c = count;
+        for (DataFlowNode target : targets) {
+            // nodes outside of the flow are ignored
+            if (target.getFlow() == flow) {
+                edges[c++] = target.getIndex();
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Returns the graph of the data flow the given node belongs to, building
+     * it if needed.
+     *
+     * @param node
+     *            any node of the data flow
+     * @return the graph
+     */
+    public static DataFlowGraph of(DataFlowNode node) {
+        return of(node.getFlow());
+    }
+
+    /**
+     * Returns the graph of the given data flow, building it if needed.
+     *
+     * @param flow
+     *            the nodes of the data flow, the first one is the start node
+     * @return the graph
+     */
+    public static DataFlowGraph of(List<DataFlowNode> flow) {
+        if (!flow.isEmpty() && flow.get(0) instanceof StartOrEndDataFlowNode) {
+            StartOrEndDataFlowNode start = (StartOrEndDataFlowNode) flow.get(0);
+            DataFlowGraph graph = start.getGraph();
+            if (graph == null || graph.size() != flow.size()) {
+                graph = new DataFlowGraph(flow);
+                start.setGraph(graph);
+            }
+            return graph;
+        }
+        return new DataFlowGraph(flow);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return flow.size();
+    }
+
+    /**
+     * @return the object view of the node
+     */
+    public DataFlowNode getNode(int node) {
+        return flow.get(node);
+    }
+
+    public List<DataFlowNode> getFlow() {
+        return flow;
+    }
+
+    public int getLine(int node) {
+        return flow.get(node).getLine();
+    }
+
+    public int getChildCount(int node) {
+        return childOffsets[node + 1] - childOffsets[node];
+    }
+
+    public int getChild(int node, int i) {
+        return childTargets[childOffsets[node] + i];
+    }
+
+    public int getParentCount(int node) {
+        return parentOffsets[node + 1] - parentOffsets[node];
+    }
+
+    public int getParent(int node, int i) {
+        return parentTargets[parentOffsets[node] + i];
+    }
+
+    /**
+     * @return the number of variables accessed in the whole flow
+     */
+    public int getVariableCount() {
+        return variableNames.length;
+    }
+
+    public String getVariableName(int variable) {
+        return variableNames[variable];
+    }
+
+    /**
+     * @return the number of variable accesses in the whole flow. The accesses
+     *         are numbered in flow order.
+     */
+    public int getAccessCount() {
+        return accessVariables.length;
+    }
+
+    /**
+     * @return the number of the first access of the node
+     */
+    public int getFirstAccess(int node) {
+        return accessOffsets[node];
+    }
+
+    /**
+     * @return the number after the last access of the node
+     */
+    public int getAccessEnd(int node) {
+        return accessOffsets[node + 1];
+    }
+
+    /**
+     * @return the id of the variable of the access
+     */
+    public int getAccessVariable(int access) {
+        return accessVariables[access];
+    }
+
+    /**
+     * @return the type of the access, see {@link VariableAccess}
+     */
+    public int getAccessType(int access) {
+        return accessTypes[access];
+    }
+
+    /**
+     * @return the node the access belongs to
+     */
+    public int getAccessNode(int access) {
+        return accessNodes[access];
+    }
+
+    /**
+     * @return the ids of the variables accessed by the node, or
+     *         <code>null</code> if it doesn't access any variable. Must not be
+     *         modified.
+     */
+    public BitSet getAccessedVariables(int node) {
+        return accessedVariables[node];
+    }
+}
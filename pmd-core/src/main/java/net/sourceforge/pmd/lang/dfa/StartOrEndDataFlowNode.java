@@ -9,6 +9,7 @@ import java.util.List;
 public class StartOrEndDataFlowNode extends AbstractDataFlowNode {
 
     private boolean isStartNode;
+    private DataFlowGraph graph;
 
     public StartOrEndDataFlowNode(List<DataFlowNode> dataFlow, int line, boolean isStartNode) {
         super(dataFlow);
@@ -16,6 +17,17 @@ public class StartOrEndDataFlowNode extends AbstractDataFlowNode {
         this.isStartNode = isStartNode;
     }
 
+    /**
+     * The compact graph of the flow, cached with its start node.
+     */
+    DataFlowGraph getGraph() {
+        return graph;
+    }
+
+    void setGraph(DataFlowGraph graph) {
+        this.graph = graph;
+    }
+
     @Override
     public String toString() {
         return isStartNode ? "Start node" : "End node";
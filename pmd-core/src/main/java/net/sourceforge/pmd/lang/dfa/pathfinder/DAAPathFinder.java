@@ -15,7 +15,12 @@ import net.sourceforge.pmd.lang.dfa.NodeType;
  *
  * @author raik
  * @since Created on 09.08.2004
+ * @deprecated The number of paths grows exponentially, use
+ *             {@link net.sourceforge.pmd.lang.dfa.DataFlowAnomalyAnalysis} or
+ *             another {@link net.sourceforge.pmd.lang.dfa.BitVectorDataFlowAnalysis}
+ *             instead.
  */
+@Deprecated
 public class DAAPathFinder {
     private static final int MAX_PATHS = 5000;
 
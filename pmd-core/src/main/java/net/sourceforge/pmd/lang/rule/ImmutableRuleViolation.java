@@ -0,0 +1,139 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule;
+
+import java.util.Objects;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * An immutable copy of a {@link RuleViolation}, which only holds its rule,
+ * strings and ints. The description is expanded once.
+ *
+ * <p>The violations which are spilled by the accumulating renderers, and
+ * those of binary reports, are read back as such copies, see
+ * {@link net.sourceforge.pmd.renderers.SpilledViolations}. The
+ * {@link net.sourceforge.pmd.Report} keeps the violations created by the
+ * rules.</p>
+ */
+public final class ImmutableRuleViolation implements RuleViolation {
+
+    private final Rule rule;
+    private final String description;
+    private final boolean suppressed;
+    private final String filename;
+    private final int beginLine;
+    private final int beginColumn;
+    private final int endLine;
+    private final int endColumn;
+    private final String packageName;
+    private final String className;
+    private final String methodName;
+    private final String variableName;
+
+    public ImmutableRuleViolation(Rule rule, String description, boolean suppressed, String filename, int beginLine,
+            int beginColumn, int endLine, int endColumn, String packageName, String className, String methodName,
+            String variableName) {
+        this.rule = rule;
+        this.description = description;
+        this.suppressed = suppressed;
+        this.filename = filename;
+        this.beginLine = beginLine;
+        this.beginColumn = beginColumn;
+        this.endLine = endLine;
+        this.endColumn = endColumn;
+        this.packageName = packageName;
+        this.className = className;
+        this.methodName = methodName;
+        this.variableName = variableName;
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public boolean isSuppressed() {
+        return suppressed;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public int getBeginLine() {
+        return beginLine;
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return beginColumn;
+    }
+
+    @Override
+    public int getEndLine() {
+        return endLine;
+    }
+
+    @Override
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    @Override
+    public String getPackageName() {
+        return packageName;
+    }
+
+    @Override
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Override
+    public String getVariableName() {
+        return variableName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ImmutableRuleViolation)) {
+            return false;
+        }
+        ImmutableRuleViolation other = (ImmutableRuleViolation) obj;
+        return rule == other.rule && suppressed == other.suppressed && beginLine == other.beginLine
+                && beginColumn == other.beginColumn && endLine == other.endLine && endColumn == other.endColumn
+                && Objects.equals(filename, other.filename) && Objects.equals(description, other.description)
+                && Objects.equals(packageName, other.packageName) && Objects.equals(className, other.className)
+                && Objects.equals(methodName, other.methodName) && Objects.equals(variableName, other.variableName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filename, beginLine, beginColumn, endLine, endColumn, description);
+    }
+
+    @Override
+    public String toString() {
+        return getFilename() + ':' + getRule() + ':' + getDescription() + ':' + beginLine;
+    }
+}
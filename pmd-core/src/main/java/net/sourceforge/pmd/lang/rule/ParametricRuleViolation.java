@@ -75,7 +75,7 @@ public class ParametricRuleViolation<T extends Node> implements RuleViolation {
 
     protected String expandVariables(String message) {
 
-        if (message.indexOf("${") < 0) {
+        if (message == null || message.indexOf("${") < 0) {
             return message;
         }
 
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.lang.symboltable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -20,6 +21,10 @@ public abstract class AbstractScope implements Scope {
     private Scope parent;
     /** Stores the name declaration already sorted by class. */
     private Map<Class<? extends NameDeclaration>, Map<NameDeclaration, List<NameOccurrence>>> nameDeclarations = new LinkedHashMap<>();
+    /** The same name declarations, by image, in the order they were added. */
+    private Map<String, List<NameDeclaration>> declarationsByImage = new HashMap<>();
+    /** All the name declarations, merged on demand. */
+    private Map<NameDeclaration, List<NameOccurrence>> allDeclarations;
 
     @Override
     public Scope getParent() {
@@ -33,11 +38,14 @@ public abstract class AbstractScope implements Scope {
 
     @Override
     public Map<NameDeclaration, List<NameOccurrence>> getDeclarations() {
-        Map<NameDeclaration, List<NameOccurrence>> result = new LinkedHashMap<>();
-        for (Map<NameDeclaration, List<NameOccurrence>> e : nameDeclarations.values()) {
-            result.putAll(e);
+        if (allDeclarations == null) {
+            Map<NameDeclaration, List<NameOccurrence>> result = new LinkedHashMap<>();
+            for (Map<NameDeclaration, List<NameOccurrence>> e : nameDeclarations.values()) {
+                result.putAll(e);
+            }
+            allDeclarations = Collections.unmodifiableMap(result);
         }
-        return result;
+        return allDeclarations;
     }
 
     @Override
@@ -50,14 +58,53 @@ public abstract class AbstractScope implements Scope {
         return result;
     }
 
-    @Override
-    public boolean contains(NameOccurrence occ) {
-        for (NameDeclaration d : getDeclarations().keySet()) {
-            if (d.getImage().equals(occ.getImage())) {
-                return true;
+    /**
+     * Finds the name declarations of this scope with the given image.
+     *
+     * @param image
+     *            the image
+     * @return the declarations, in the order they were added
+     */
+    public List<NameDeclaration> getDeclarationsByImage(String image) {
+        List<NameDeclaration> result = declarationsByImage.get(image);
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Finds the name declarations of the given type of this scope with the
+     * given image.
+     *
+     * @param clazz
+     *            the type of the declarations, as for
+     *            {@link #getDeclarations(Class)}
+     * @param image
+     *            the image
+     * @return the declarations, in the order they were added
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends NameDeclaration> List<T> getDeclarationsByImage(Class<T> clazz, String image) {
+        List<NameDeclaration> declarations = declarationsByImage.get(image);
+        if (declarations == null) {
+            return Collections.emptyList();
+        }
+        List<T> result = null;
+        for (NameDeclaration declaration : declarations) {
+            if (declaration.getClass() == clazz) {
+                if (result == null) {
+                    result = new ArrayList<>(declarations.size());
+                }
+                result.add((T) declaration);
             }
         }
-        return false;
+        return result == null ? Collections.<T>emptyList() : result;
+    }
+
+    @Override
+    public boolean contains(NameOccurrence occ) {
+        return declarationsByImage.containsKey(occ.getImage());
     }
 
     @Override
@@ -67,7 +114,15 @@ public abstract class AbstractScope implements Scope {
             declarationsPerClass = new LinkedHashMap<>();
             nameDeclarations.put(declaration.getClass(), declarationsPerClass);
         }
-        declarationsPerClass.put(declaration, new ArrayList<NameOccurrence>());
+        if (declarationsPerClass.put(declaration, new ArrayList<NameOccurrence>()) == null) {
+            List<NameDeclaration> declarations = declarationsByImage.get(declaration.getImage());
+            if (declarations == null) {
+                declarations = new ArrayList<>(1);
+                declarationsByImage.put(declaration.getImage(), declarations);
+            }
+            declarations.add(declaration);
+        }
+        allDeclarations = null;
     }
 
     @SuppressWarnings("unchecked")
@@ -86,11 +141,9 @@ public abstract class AbstractScope implements Scope {
     @Override
     public Set<NameDeclaration> addNameOccurrence(NameOccurrence occurrence) {
         Set<NameDeclaration> result = new HashSet<>();
-        for (Map.Entry<NameDeclaration, List<NameOccurrence>> e : getDeclarations().entrySet()) {
-            if (e.getKey().getImage().equals(occurrence.getImage())) {
-                result.add(e.getKey());
-                e.getValue().add(occurrence);
-            }
+        for (NameDeclaration declaration : getDeclarationsByImage(occurrence.getImage())) {
+            result.add(declaration);
+            nameDeclarations.get(declaration.getClass()).get(declaration).add(occurrence);
         }
         return result;
     }
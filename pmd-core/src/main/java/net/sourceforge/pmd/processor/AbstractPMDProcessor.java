@@ -14,6 +14,7 @@ import net.sourceforge.pmd.RuleSets;
 import net.sourceforge.pmd.RulesetsFactoryUtils;
 import net.sourceforge.pmd.benchmark.Benchmark;
 import net.sourceforge.pmd.benchmark.Benchmarker;
+import net.sourceforge.pmd.benchmark.PMDMetrics;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.util.datasource.DataSource;
 
@@ -33,6 +34,7 @@ public abstract class AbstractPMDProcessor {
 
         long start = System.nanoTime();
 
+        PMDMetrics.getInstance().violationsReported(report);
         try {
             for (Renderer r : renderers) {
                 r.renderFileReport(report);
@@ -5,39 +5,66 @@
 package net.sourceforge.pmd.renderers;
 
 import java.io.IOException;
+import java.util.Iterator;
 
 import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.stat.Metric;
 import net.sourceforge.pmd.util.datasource.DataSource;
 
 /**
  * Abstract base class for {@link Renderer} implementations which only produce
  * output once all source files are processed. Such {@link Renderer}s use
  * working memory proportional to the number of violations found, which can be
- * quite large in some scenarios. Consider using
+ * quite large in some scenarios, unless they spill the violations to a
+ * temporary file, see {@link #spillViolations()}. Consider using
  * {@link AbstractIncrementingRenderer} which can use significantly less memory.
  *
  * Subclasses should implement the {@link #end()} method to output the
- * {@link #report}.
+ * {@link #report}, or the {@link #violations} and the {@link #report} if they
+ * spill the violations.
  *
  * @see AbstractIncrementingRenderer
  */
 public abstract class AbstractAccumulatingRenderer extends AbstractRenderer {
 
     /**
-     * The accumulated Report.
+     * The accumulated Report. If the renderer spills the violations, it only
+     * holds the processing errors, metrics and suppressed violations.
      */
     protected Report report;
 
+    /**
+     * The accumulated violations if the renderer spills them, otherwise
+     * <code>null</code>.
+     *
+     * @see #spillViolations()
+     */
+    protected SpilledViolations violations;
+
     public AbstractAccumulatingRenderer(String name, String description) {
         super(name, description);
     }
 
+    /**
+     * Returns whether the violations are written to a temporary file, the
+     * {@link #violations}, as they are reported, instead of being kept in the
+     * {@link #report}. The violations are read back without their nodes.
+     * Renderers which spill should close the {@link #violations} at the end
+     * of {@link #end()}. By default, the violations are kept in the report.
+     *
+     * @return whether the violations are spilled
+     */
+    protected boolean spillViolations() {
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void start() throws IOException {
         report = new Report();
+        violations = spillViolations() ? new SpilledViolations() : null;
     }
 
     /**
@@ -52,14 +79,39 @@ public abstract class AbstractAccumulatingRenderer extends AbstractRenderer {
      */
     @Override
     public void renderFileReport(Report report) throws IOException {
-        this.report.merge(report);
+        if (violations == null) {
+            this.report.merge(report);
+            return;
+        }
+        violations.add(report);
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            this.report.addError(i.next());
+        }
+        for (Iterator<Metric> i = report.metrics(); i.hasNext();) {
+            this.report.addMetric(i.next());
+        }
+        if (showSuppressedViolations) {
+            this.report.getSuppressedRuleViolations().addAll(report.getSuppressedRuleViolations());
+        }
     }
 
     /**
-     * Subclasses should output the {@link #report}.
+     * Subclasses should output the {@link #report}, and the
+     * {@link #violations} if they spill them.
      *
      * {@inheritDoc}
      */
     @Override
     public abstract void end() throws IOException;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() {
+        if (violations != null) {
+            violations.close();
+        }
+        super.flush();
+    }
 }
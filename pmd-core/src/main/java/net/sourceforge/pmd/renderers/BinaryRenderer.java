@@ -0,0 +1,102 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.apache.commons.io.IOUtils;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Renderer to a compact binary format, see {@link BinaryReportWriter}. The
+ * violations are sorted, so that the reports of several runs can be merged and
+ * converted to the other formats with {@link BinaryReportMerger}.
+ *
+ * <p>The report is written to the stream given by
+ * {@link #setOutputStream(OutputStream)}, not to the writer, whose encoding
+ * would corrupt the bytes. The renderer can't be started without a stream.</p>
+ */
+public class BinaryRenderer extends AbstractAccumulatingRenderer {
+
+    public static final String NAME = "binary";
+
+    private OutputStream outputStream;
+
+    public BinaryRenderer() {
+        super(NAME, "Binary format, which can be merged and converted with BinaryReportMerger.");
+    }
+
+    @Override
+    protected boolean spillViolations() {
+        return true;
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "bin";
+    }
+
+    /**
+     * Sets the stream to which the report is written, instead of the writer.
+     *
+     * @param outputStream
+     *            the stream
+     */
+    public void setOutputStream(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IOException
+     *             if no output stream has been set
+     */
+    @Override
+    public void start() throws IOException {
+        if (outputStream == null) {
+            throw new IOException("The binary report must be written to a stream, see setOutputStream");
+        }
+        super.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void end() throws IOException {
+        BinaryReportWriter reportWriter = new BinaryReportWriter(outputStream);
+        try {
+            for (RuleViolation violation : violations) {
+                reportWriter.write(violation);
+            }
+        } finally {
+            violations.close();
+        }
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            reportWriter.write(i.next());
+        }
+        reportWriter.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() {
+        violations.close();
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            IOUtils.closeQuietly(outputStream);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.commons.io.IOUtils;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.RuleViolationComparator;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+/**
+ * Merges binary reports, written by {@link BinaryRenderer}, and renders them
+ * with any renderer. The violations of each report are sorted, so the reports
+ * are merged as they are read, and only the violations of one file are kept in
+ * memory at a time.
+ *
+ * <p>This allows to split an analysis into several runs, e.g. on several
+ * machines, and to produce a single report of them:</p>
+ *
+ * <pre>
+ * run.sh mergereports -format html -reportfile report.html shard1.bin shard2.bin
+ * </pre>
+ */
+public final class BinaryReportMerger {
+
+    private BinaryReportMerger() {
+    }
+
+    private static class Parameters {
+        @Parameter(names = { "-format", "-f" }, description = "Report format type.")
+        private String format = "xml";
+
+        @Parameter(names = { "-reportfile", "-r" }, description = "Sends report output to a file; default to System.out.")
+        private String reportFile;
+
+        @Parameter(names = { "-help", "-h", "-H" }, description = "Display help on usage.", help = true)
+        private boolean help;
+
+        @Parameter(description = "The binary reports to merge.", required = true)
+        private List<String> reports = new ArrayList<>();
+    }
+
+    // the next violation of a report
+    private static class Head {
+        private final int index;
+        private final BinaryReportReader reader;
+        private RuleViolation violation;
+
+        Head(int index, BinaryReportReader reader) {
+            this.index = index;
+            this.reader = reader;
+        }
+
+        boolean advance() throws IOException {
+            violation = reader.read();
+            return violation != null;
+        }
+    }
+
+    private static final Comparator<Head> HEAD_COMPARATOR = new Comparator<Head>() {
+        @Override
+        public int compare(Head h1, Head h2) {
+            int cmp = RuleViolationComparator.INSTANCE.compare(h1.violation, h2.violation);
+            return cmp != 0 ? cmp : Integer.compare(h1.index, h2.index);
+        }
+    };
+
+    /**
+     * Merges binary reports, and renders the result. The renderer is started
+     * and ended, but not flushed.
+     *
+     * @param reports
+     *            the binary reports
+     * @param renderer
+     *            the renderer, with its writer set
+     * @throws IOException
+     *             if a report cannot be read, is truncated or malformed, or
+     *             the renderer cannot write
+     */
+    public static void merge(List<File> reports, Renderer renderer) throws IOException {
+        List<BinaryReportReader> readers = new ArrayList<>(reports.size());
+        try {
+            for (File report : reports) {
+                readers.add(new BinaryReportReader(new FileInputStream(report)));
+            }
+            mergeReaders(readers, renderer);
+        } finally {
+            for (BinaryReportReader reader : readers) {
+                IOUtils.closeQuietly(reader);
+            }
+        }
+    }
+
+    private static void mergeReaders(List<BinaryReportReader> readers, Renderer renderer) throws IOException {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, readers.size()), HEAD_COMPARATOR);
+        for (int i = 0; i < readers.size(); i++) {
+            Head head = new Head(i, readers.get(i));
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        renderer.start();
+        Report fileReport = null;
+        String filename = null;
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            if (!head.violation.getFilename().equals(filename)) {
+                if (fileReport != null) {
+                    renderer.renderFileReport(fileReport);
+                }
+                fileReport = new Report();
+                filename = head.violation.getFilename();
+            }
+            fileReport.addRuleViolation(head.violation);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        if (fileReport != null) {
+            renderer.renderFileReport(fileReport);
+        }
+
+        // the errors follow the violations in each report
+        Report errors = new Report();
+        for (BinaryReportReader reader : readers) {
+            for (Report.ProcessingError error : reader.getErrors()) {
+                errors.addError(error);
+            }
+        }
+        renderer.renderFileReport(errors);
+        renderer.end();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Parameters parameters = new Parameters();
+        JCommander jcommander = new JCommander(parameters);
+        jcommander.setProgramName("mergereports");
+        try {
+            jcommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            jcommander.usage();
+            System.exit(1);
+        }
+        if (parameters.help) {
+            jcommander.usage();
+            return;
+        }
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setReportFormat(parameters.format);
+        configuration.setReportFile(parameters.reportFile);
+        Renderer renderer = configuration.createRenderer(true);
+
+        List<File> reports = new ArrayList<>(parameters.reports.size());
+        for (String report : parameters.reports) {
+            reports.add(new File(report));
+        }
+        merge(reports, renderer);
+        renderer.flush();
+    }
+}
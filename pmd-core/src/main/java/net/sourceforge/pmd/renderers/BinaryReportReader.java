@@ -0,0 +1,161 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.ImmutableRuleViolation;
+
+/**
+ * Reads the violations of a binary report, written by
+ * {@link BinaryReportWriter}, one at a time. The rules are read back with the
+ * name, rule set name, priority, external info url, description and version
+ * of the original rules, but they can't be applied.
+ *
+ * <p>Each record is read by its length, so the records of unknown tags and
+ * the fields appended to known records by later versions are skipped.</p>
+ */
+public class BinaryReportReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+    private final List<Report.ProcessingError> errors = new ArrayList<>();
+
+    /**
+     * Reads the header of a binary report.
+     *
+     * @param inputStream
+     *            the stream to read from
+     * @throws IOException
+     *             if the stream cannot be read, or isn't a binary report of a
+     *             known version
+     */
+    public BinaryReportReader(InputStream inputStream) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != BinaryReportWriter.MAGIC) {
+            throw new IOException("Not a PMD binary report");
+        }
+        int version = in.readInt();
+        if (version != BinaryReportWriter.VERSION) {
+            throw new IOException("Unsupported PMD binary report version " + version);
+        }
+    }
+
+    /**
+     * Reads the next violation, and the rules, strings and errors before it.
+     *
+     * @return the violation, or <code>null</code> at the end of the report
+     * @throws IOException
+     *             if the report cannot be read, or is truncated or malformed
+     */
+    public RuleViolation read() throws IOException {
+        int tag;
+        while ((tag = in.read()) >= 0) {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Malformed PMD binary report: negative record length " + length);
+            }
+            if (tag > BinaryReportWriter.ERROR) {
+                // a record of a later version
+                IOUtils.skipFully(in, length);
+                continue;
+            }
+            byte[] content = new byte[length];
+            in.readFully(content);
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(content));
+            try {
+                switch (tag) {
+                case BinaryReportWriter.RULE:
+                    rules.add(readRule(record));
+                    break;
+                case BinaryReportWriter.STRING:
+                    strings.add(StringCodec.read(record));
+                    break;
+                case BinaryReportWriter.VIOLATION:
+                    return readViolation(record);
+                case BinaryReportWriter.ERROR:
+                    errors.add(new Report.ProcessingError(StringCodec.read(record), StringCodec.read(record)));
+                    break;
+                default:
+                    throw new IOException("Malformed PMD binary report: unknown record tag " + tag);
+                }
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Malformed PMD binary report: unknown rule or string index", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the processing errors read so far. All of them have been read
+     * once {@link #read()} has returned <code>null</code>.
+     *
+     * @return the processing errors
+     */
+    public List<Report.ProcessingError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static Rule readRule(DataInputStream record) throws IOException {
+        ReportedRule rule = new ReportedRule();
+        rule.setName(StringCodec.read(record));
+        rule.setRuleSetName(StringCodec.read(record));
+        rule.setPriority(RulePriority.valueOf(record.readInt()));
+        rule.setExternalInfoUrl(StringCodec.read(record));
+        rule.setDescription(StringCodec.read(record));
+        rule.setSince(StringCodec.read(record));
+        return rule;
+    }
+
+    private RuleViolation readViolation(DataInputStream record) throws IOException {
+        Rule rule = rules.get(record.readInt());
+        String filename = string(record.readInt());
+        if (filename == null) {
+            throw new IOException("Malformed PMD binary report: violation without file name");
+        }
+        int beginLine = record.readInt();
+        int beginColumn = record.readInt();
+        int endLine = record.readInt();
+        int endColumn = record.readInt();
+        String description = StringCodec.read(record);
+        return new ImmutableRuleViolation(rule, description, false, filename, beginLine, beginColumn, endLine,
+                endColumn, string(record.readInt()), string(record.readInt()), string(record.readInt()),
+                string(record.readInt()));
+    }
+
+    private String string(int index) {
+        return index < 0 ? null : strings.get(index);
+    }
+
+    // a rule read back from a report
+    private static class ReportedRule extends AbstractRule {
+        @Override
+        public void apply(List<? extends Node> nodes, RuleContext ctx) {
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Writes violations in the binary report format, read by
+ * {@link BinaryReportReader}.
+ *
+ * <p>The format is a header (a magic number and the version of the format),
+ * followed by records. Each record is a tag byte, the length of its content,
+ * and its content, so that readers can skip the records they don't know, and
+ * the fields appended to the records they know. Such additions keep the
+ * version, which only changes if the existing fields change. The
+ * rules and the strings (file, package, class, method and variable names) are
+ * written once in a record of their own, and the violations refer to them by
+ * their index.</p>
+ */
+public class BinaryReportWriter {
+
+    static final int MAGIC = 0x504D4442; // PMDB
+    static final int VERSION = 1;
+
+    static final int RULE = 1;
+    static final int STRING = 2;
+    static final int VIOLATION = 3;
+    static final int ERROR = 4;
+
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(buffer);
+    private final Map<Rule, Integer> rules = new IdentityHashMap<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * Writes the header of a binary report.
+     *
+     * @param outputStream
+     *            the stream to write to
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    public BinaryReportWriter(OutputStream outputStream) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Writes a violation, and its rule and strings if they aren't written yet.
+     *
+     * @param violation
+     *            the violation
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    public void write(RuleViolation violation) throws IOException {
+        int rule = indexOf(violation.getRule());
+        int filename = indexOf(violation.getFilename());
+        int packageName = indexOf(violation.getPackageName());
+        int className = indexOf(violation.getClassName());
+        int methodName = indexOf(violation.getMethodName());
+        int variableName = indexOf(violation.getVariableName());
+
+        record.writeInt(rule);
+        record.writeInt(filename);
+        record.writeInt(violation.getBeginLine());
+        record.writeInt(violation.getBeginColumn());
+        record.writeInt(violation.getEndLine());
+        record.writeInt(violation.getEndColumn());
+        StringCodec.write(record, violation.getDescription());
+        record.writeInt(packageName);
+        record.writeInt(className);
+        record.writeInt(methodName);
+        record.writeInt(variableName);
+        endRecord(VIOLATION);
+    }
+
+    /**
+     * Writes a processing error.
+     *
+     * @param error
+     *            the error
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    public void write(Report.ProcessingError error) throws IOException {
+        StringCodec.write(record, error.getMsg());
+        StringCodec.write(record, error.getFile());
+        endRecord(ERROR);
+    }
+
+    /**
+     * Flushes the written records to the underlying stream.
+     *
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private int indexOf(Rule rule) throws IOException {
+        Integer index = rules.get(rule);
+        if (index == null) {
+            index = rules.size();
+            rules.put(rule, index);
+            StringCodec.write(record, rule.getName());
+            StringCodec.write(record, rule.getRuleSetName());
+            record.writeInt(rule.getPriority().getPriority());
+            StringCodec.write(record, rule.getExternalInfoUrl());
+            StringCodec.write(record, rule.getDescription());
+            StringCodec.write(record, rule.getSince());
+            endRecord(RULE);
+        }
+        return index;
+    }
+
+    private int indexOf(String s) throws IOException {
+        if (s == null) {
+            return -1;
+        }
+        Integer index = strings.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.put(s, index);
+            StringCodec.write(record, s);
+            endRecord(STRING);
+        }
+        return index;
+    }
+
+    private void endRecord(int tag) throws IOException {
+        out.writeByte(tag);
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+        buffer.reset();
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.blame.BlameGenerator;
+import org.eclipse.jgit.blame.BlameResult;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffAlgorithm.SupportedAlgorithm;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import net.sourceforge.pmd.PMD;
+
+/**
+ * Cache of the blame of the files of a Git working tree, kept between runs.
+ * The blame of a file is keyed by its path, by the id of its content and by
+ * the HEAD commit:
+ * <ul>
+ * <li>if the content and the HEAD are the same, the cached blame is used;</li>
+ * <li>if only the HEAD changed, the committed lines are kept, and the lines
+ * which were not committed yet are blamed again;</li>
+ * <li>if the content changed, the blame of the unchanged lines is moved along
+ * the edits from the previous content, when it is in the repository, and only
+ * the other lines are blamed again.</li>
+ * </ul>
+ * Only the lines which are asked for are blamed.
+ *
+ */
+public class BlameCache {
+
+    /** The time of a line which isn't committed yet. */
+    public static final long NOT_COMMITTED = -1L;
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final Logger LOG = Logger.getLogger(BlameCache.class.getName());
+
+    private final Git git;
+
+    private final File cacheFile;
+
+    private final Map<String, FileBlame> blames = new HashMap<>();
+
+    private ObjectId head;
+
+    private boolean headResolved;
+
+    private int blameRuns;
+
+    /**
+     * Creates a cache of the blame of the files of a repository.
+     *
+     * @param git
+     *            object to apply git queries
+     * @param cacheFile
+     *            the file from which the cache is loaded and to which it is
+     *            persisted, or null to not keep it between runs
+     */
+    public BlameCache(Git git, File cacheFile) {
+        this.git = git;
+        this.cacheFile = cacheFile;
+        if (cacheFile != null) {
+            loadFromFile(cacheFile);
+        }
+    }
+
+    /**
+     * The blame of the lines of a file: the author time of the commit which
+     * last changed each line.
+     *
+     */
+    public static class FileBlame {
+
+        private final ObjectId blobId;
+
+        private final ObjectId headId;
+
+        private final long[] times;
+
+        FileBlame(ObjectId blobId, ObjectId headId, long[] times) {
+            this.blobId = blobId;
+            this.headId = headId;
+            this.times = times;
+        }
+
+        /**
+         * Returns the author time of the commit which last changed a line.
+         *
+         * @param line
+         *            the line, starting at 0, which must have been asked for
+         * @return the time in milliseconds, or {@link BlameCache#NOT_COMMITTED}
+         *         if the line isn't committed yet or isn't in the file
+         */
+        public long getTime(int line) {
+            if (line < 0 || line >= times.length || times[line] == UNKNOWN) {
+                return NOT_COMMITTED;
+            }
+            return times[line];
+        }
+
+        private static FileBlame unknown(ObjectId blobId, ObjectId headId, int lines) {
+            long[] times = new long[lines];
+            Arrays.fill(times, UNKNOWN);
+            return new FileBlame(blobId, headId, times);
+        }
+
+        private boolean isKnown(int line) {
+            return line < 0 || line >= times.length || times[line] != UNKNOWN;
+        }
+
+        // the same content on another HEAD: the lines which weren't committed may be now
+        private FileBlame onHead(ObjectId newHeadId) {
+            if (newHeadId == null ? headId == null : newHeadId.equals(headId)) {
+                return this;
+            }
+            long[] newTimes = times.clone();
+            for (int i = 0; i < newTimes.length; i++) {
+                if (newTimes[i] == NOT_COMMITTED) {
+                    newTimes[i] = UNKNOWN;
+                }
+            }
+            return new FileBlame(blobId, newHeadId, newTimes);
+        }
+
+        // another content: the committed lines which are unchanged keep their commit
+        private FileBlame moved(ObjectId newBlobId, ObjectId newHeadId, int lines, GitUtils.LineMap lineMap) {
+            FileBlame blame = unknown(newBlobId, newHeadId, lines);
+            if (lineMap != null) {
+                for (int i = 0; i < times.length; i++) {
+                    int line = lineMap.map(i);
+                    if (line >= 0 && line < lines && times[i] != NOT_COMMITTED) {
+                        blame.times[line] = times[i];
+                    }
+                }
+            }
+            return blame;
+        }
+    }
+
+    /**
+     * Returns the blame of some lines of a file of the working tree.
+     *
+     * @param location
+     *            the path of the file relative to the working tree
+     * @param lines
+     *            the lines to blame, starting at 0
+     * @return the blame of the file, which is known for at least these lines
+     * @throws IOException
+     *             if git data cannot be read.
+     */
+    public FileBlame getBlame(String location, Collection<Integer> lines) throws IOException {
+        Repository repo = git.getRepository();
+        byte[] content = FileUtils.readFileToByteArray(new File(repo.getWorkTree(), location));
+        RawText text = new RawText(content);
+        ObjectId blobId = new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, content);
+        ObjectId headId = getHead();
+
+        FileBlame blame = blames.get(location);
+        if (blame == null) {
+            blame = FileBlame.unknown(blobId, headId, text.size());
+        } else if (blame.blobId.equals(blobId)) {
+            blame = blame.onHead(headId);
+        } else {
+            blame = blame.moved(blobId, headId, text.size(), getLineMap(blame.blobId, text));
+        }
+        blames.put(location, blame);
+
+        int start = Integer.MAX_VALUE;
+        int end = -1;
+        for (Integer line : lines) {
+            if (!blame.isKnown(line)) {
+                start = Math.min(start, line);
+                end = Math.max(end, line + 1);
+            }
+        }
+        if (end > start) {
+            blame(location, text, blame, start, end);
+        }
+        return blame;
+    }
+
+    private ObjectId getHead() throws IOException {
+        if (!headResolved) {
+            head = git.getRepository().resolve(Constants.HEAD);
+            headResolved = true;
+        }
+        return head;
+    }
+
+    // the map of the lines of the previous content, if it is in the repository
+    private GitUtils.LineMap getLineMap(ObjectId previousBlobId, RawText text) throws IOException {
+        ObjectReader reader = git.getRepository().newObjectReader();
+        try {
+            if (!reader.has(previousBlobId)) {
+                return null;
+            }
+            RawText previous = new RawText(reader.open(previousBlobId, Constants.OBJ_BLOB).getCachedBytes());
+            return new GitUtils.LineMap(DiffAlgorithm.getAlgorithm(SupportedAlgorithm.HISTOGRAM)
+                    .diff(RawTextComparator.DEFAULT, previous, text));
+        } finally {
+            reader.release();
+        }
+    }
+
+    // same candidates as BlameCommand, but only computes the given range
+    private void blame(String location, RawText text, FileBlame blame, int start, int end) throws IOException {
+        Repository repo = git.getRepository();
+        BlameGenerator generator = new BlameGenerator(repo, location);
+        try {
+            if (getHead() != null) {
+                generator.push(null, getHead());
+            }
+            DirCache dirCache = repo.readDirCache();
+            int entry = dirCache.findEntry(location);
+            if (entry >= 0) {
+                generator.push(null, dirCache.getEntry(entry).getObjectId());
+            }
+            generator.push(null, text);
+
+            BlameResult result = BlameResult.create(generator);
+            if (result != null) {
+                result.computeRange(start, end);
+                for (int i = 0; i < blame.times.length; i++) {
+                    if (blame.times[i] == UNKNOWN && result.hasSourceData(i)) {
+                        RevCommit commit = result.getSourceCommit(i);
+                        blame.times[i] = commit == null ? NOT_COMMITTED
+                                : commit.getAuthorIdent().getWhen().getTime();
+                    }
+                }
+            }
+            blameRuns++;
+        } finally {
+            generator.release();
+        }
+    }
+
+    /**
+     * Returns the number of times a file has been blamed, for tests.
+     */
+    int getBlameRuns() {
+        return blameRuns;
+    }
+
+    private void loadFromFile(File file) {
+        if (file.exists()) {
+            try (DataInputStream inputStream = new DataInputStream(
+                    new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+                String cacheVersion = inputStream.readUTF();
+                if (PMD.VERSION.equals(cacheVersion)) {
+                    int count = inputStream.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String location = inputStream.readUTF();
+                        ObjectId blobId = ObjectId.fromString(inputStream.readUTF());
+                        String head = inputStream.readUTF();
+                        long[] times = new long[inputStream.readInt()];
+                        for (int line = 0; line < times.length; line++) {
+                            times[line] = inputStream.readLong();
+                        }
+                        blames.put(location,
+                                new FileBlame(blobId, head.isEmpty() ? null : ObjectId.fromString(head), times));
+                    }
+                } else {
+                    LOG.info("Blame cache invalidated, PMD version changed.");
+                }
+            } catch (EOFException e) {
+                LOG.warning("Blame cache " + file.getPath() + " is malformed, will not be used");
+                blames.clear();
+            } catch (IOException e) {
+                LOG.warning("Could not load the blame cache. " + e.getMessage());
+                blames.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the cache to its file, if it has one.
+     */
+    public void persist() {
+        if (cacheFile == null) {
+            return;
+        }
+        File parentFile = cacheFile.getAbsoluteFile().getParentFile();
+        if (parentFile != null && !parentFile.exists()) {
+            parentFile.mkdirs();
+        }
+        try (DataOutputStream outputStream = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(cacheFile))))) {
+            outputStream.writeUTF(PMD.VERSION);
+            outputStream.writeInt(blames.size());
+            for (Map.Entry<String, FileBlame> entry : blames.entrySet()) {
+                FileBlame blame = entry.getValue();
+                outputStream.writeUTF(entry.getKey());
+                outputStream.writeUTF(blame.blobId.name());
+                outputStream.writeUTF(blame.headId == null ? "" : blame.headId.name());
+                outputStream.writeInt(blame.times.length);
+                for (long time : blame.times) {
+                    outputStream.writeLong(time);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warning("Could not persist the blame cache. " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * Provides the files of a Git working tree which have been changed since a
+ * commit, either by a later commit or in the working tree, so that only these
+ * files are analyzed.
+ *
+ */
+public class ChangedFilesProvider {
+
+    private final String workingDir;
+
+    private final Set<String> changedPaths;
+
+    /**
+     * Creates a provider of the changed files.
+     *
+     * @param workingDir
+     *            the canonical path of the working directory (.git parent
+     *            directory)
+     * @param changedPaths
+     *            the paths of the changed files, relative to the working
+     *            directory
+     */
+    public ChangedFilesProvider(String workingDir, Set<String> changedPaths) {
+        this.workingDir = workingDir;
+        this.changedPaths = changedPaths;
+    }
+
+    /**
+     * Returns the paths of the changed files.
+     *
+     * @return the paths relative to the working directory
+     */
+    public Set<String> getChangedPaths() {
+        return Collections.unmodifiableSet(changedPaths);
+    }
+
+    /**
+     * Returns if a file has been changed.
+     *
+     * @param location
+     *            the path of the file relative to the working directory
+     * @return true if the file has been changed
+     */
+    public boolean isChanged(String location) {
+        return changedPaths.contains(location.replace(File.separatorChar, '/'));
+    }
+
+    /**
+     * Returns the changed files among some files. The other files are never
+     * read.
+     *
+     * @param files
+     *            the files to analyze
+     * @return the files which have been changed, in the same order
+     */
+    public List<DataSource> getDataSources(List<DataSource> files) {
+        List<DataSource> result = new ArrayList<>();
+        for (DataSource file : files) {
+            String path = file.getNiceFileName(false, null);
+            if (path.startsWith(workingDir + File.separator)
+                    && isChanged(path.substring(workingDir.length() + 1))) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+}
@@ -6,7 +6,10 @@ package net.sourceforge.pmd.renderers;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -14,6 +17,8 @@ import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
 import org.eclipse.jgit.diff.DiffFormatter;
@@ -217,6 +222,82 @@ public class GitUtils {
         return result;
     }
 
+    /**
+     * Computes the differences between two commits once, and indexes them by
+     * the path of the file, so that the differences of a file are found in
+     * constant time instead of by scanning both trees for each file.
+     * 
+     * @param git
+     *            object to apply git queries
+     * @param lastAnalysis
+     *            last commit to compare
+     * @param fecthHead
+     *            current commit
+     * @return the index of the differences, which is empty if one of the two
+     *         commits is null
+     * @throws IOException
+     *             if git data cannot be read.
+     */
+    public DiffIndex indexLastDiffs(Git git, RevCommit lastAnalysis, RevCommit fecthHead) throws IOException {
+        if (lastAnalysis == null || fecthHead == null) {
+            return new DiffIndex(git, Collections.<DiffEntry>emptyList());
+        }
+        return new DiffIndex(git, getLastDiffs(git, lastAnalysis, fecthHead));
+    }
+
+    /**
+     * Returns the files which have been modified by the commits after a
+     * commit, up to the current HEAD.
+     * 
+     * @param git
+     *            object to apply git queries
+     * @param since
+     *            the commit to compare the HEAD with
+     * @return the relative paths of the added or modified files, which is
+     *         empty if the commit is null or if there is no HEAD yet
+     * @throws IOException
+     *             if git data cannot be read.
+     */
+    public Set<String> getCommittedPaths(Git git, RevCommit since) throws IOException {
+        Set<String> paths = new HashSet<>();
+        ObjectId headId = since == null ? null : git.getRepository().resolve(Constants.HEAD);
+        if (headId != null) {
+            RevWalk walk = new RevWalk(git.getRepository());
+            try {
+                RevCommit head = walk.parseCommit(headId);
+                for (DiffEntry entry : getLastDiffs(git, since, head)) {
+                    if (!DiffEntry.DEV_NULL.equals(entry.getNewPath())) {
+                        paths.add(entry.getNewPath());
+                    }
+                }
+            } finally {
+                walk.release();
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the files of the working tree which are not committed yet.
+     * 
+     * @param git
+     *            object to apply git queries
+     * @return the relative paths of the files which are not committed, or
+     *         untracked
+     * @throws IOException
+     *             if git data cannot be read.
+     */
+    public Set<String> getUncommittedPaths(Git git) throws IOException {
+        try {
+            Status status = git.status().call();
+            Set<String> paths = new HashSet<>(status.getUncommittedChanges());
+            paths.addAll(status.getUntracked());
+            return paths;
+        } catch (GitAPIException e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Returns if two lines of code belonging to different commits corresponds are the same.
      * 
@@ -239,37 +320,242 @@ public class GitUtils {
     public static boolean areEquivalentLines(Git git, List<DiffEntry> diffs, FileRegion from, FileRegion to)
             throws CorruptObjectException, MissingObjectException, IOException {
 
+        DiffFormatter df = newDiffFormatter(git.getRepository());
+        EditList editList = new EditList();
+        for (DiffEntry entry : diffs) {
+            if (entry.getChangeType().equals(ChangeType.MODIFY)) {
+                FileHeader fh = df.toFileHeader(entry);
+                editList.addAll(fh.toEditList());
+            }
+        }
+        return areEquivalentLines(editList, from, to);
+    }
+
+    /**
+     * Returns if two lines of code belonging to different commits corresponds are the same.
+     * 
+     * @param editList
+     *            the edits of an specific file, e.g. from {@link DiffIndex#getEdits(String)}
+     * @param from
+     *            the original state of a code region
+     * @param to
+     *            the final state of a code region
+     * @return of two lines of code are equivalent
+     */
+    public static boolean areEquivalentLines(EditList editList, FileRegion from, FileRegion to) {
+        Iterator<Edit> it = editList.iterator();
+
+        while (it.hasNext()) {
+
+            Edit edit = it.next();
+
+            if (from.isAfter(edit.getBeginA())) {
+                int linesDeleted = edit.getEndA() - edit.getBeginA();
+                int linesAdded = edit.getEndB() - edit.getBeginB();
+
+                from.move(linesAdded - linesDeleted);
+
+            } else if (from.includesLine(edit.getBeginA()) && to.includesLine(edit.getBeginB())) {
+                // it is a different commit, so.. these are replaced
+
+                return true;
+            }
+
+        }
+        return from.startsAtSameLine(to);
+    }
+
+    private static DiffFormatter newDiffFormatter(Repository repository) {
         DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE);
-        df.setRepository(git.getRepository());
+        df.setRepository(repository);
         df.setDiffComparator(RawTextComparator.DEFAULT);
         df.setDetectRenames(false);
+        return df;
+    }
 
-        for (DiffEntry entry : diffs) {
-            if (entry.getChangeType().equals(ChangeType.MODIFY)) {
-                FileHeader fh = df.toFileHeader(entry);
-                EditList editList = fh.toEditList();
-                Iterator<Edit> it = editList.iterator();
+    /**
+     * The differences between two commits, indexed by the path of the file.
+     * The edits of a file are computed the first time they are asked for, and
+     * then kept, since most of the changed files usually have no violations.
+     *
+     */
+    public static class DiffIndex {
 
-                while (it.hasNext()) {
+        private final Git git;
 
-                    Edit edit = it.next();
+        private final Map<String, DiffEntry> entries = new HashMap<>();
 
-                    if (from.isAfter(edit.getBeginA())) {
-                        int linesDeleted = edit.getEndA() - edit.getBeginA();
-                        int linesAdded = edit.getEndB() - edit.getBeginB();
+        private final Map<String, EditList> edits = new HashMap<>();
 
-                        from.move(linesAdded - linesDeleted);
+        private DiffFormatter formatter;
 
-                    } else if (from.includesLine(edit.getBeginA()) && to.includesLine(edit.getBeginB())) {
-                        // it is a different commit, so.. these are replaced
+        /**
+         * Indexes a list of differences.
+         * 
+         * @param git
+         *            object to apply git queries
+         * @param diffs
+         *            the differences, e.g. from {@link GitUtils#getLastDiffs(Git, RevCommit, RevCommit)}
+         */
+        public DiffIndex(Git git, List<DiffEntry> diffs) {
+            this.git = git;
+            for (DiffEntry entry : diffs) {
+                if (!DiffEntry.DEV_NULL.equals(entry.getNewPath())) {
+                    entries.put(entry.getNewPath(), entry);
+                }
+            }
+        }
 
-                        return true;
-                    }
+        /**
+         * Returns the paths of the added or modified files.
+         * 
+         * @return the relative paths of the files
+         */
+        public Set<String> getPaths() {
+            return Collections.unmodifiableSet(entries.keySet());
+        }
 
+        /**
+         * Returns the difference of a file.
+         * 
+         * @param location
+         *            relative path of the file
+         * @return the difference, or null if the file hasn't been added or modified
+         */
+        public DiffEntry getDiff(String location) {
+            return entries.get(location);
+        }
+
+        /**
+         * Returns the edits of a modified file.
+         * 
+         * @param location
+         *            relative path of the file
+         * @return the edits, which are empty if the file hasn't been modified
+         * @throws IOException
+         *             if git data cannot be read.
+         */
+        public EditList getEdits(String location) throws IOException {
+            EditList result = edits.get(location);
+            if (result == null) {
+                DiffEntry entry = entries.get(location);
+                if (entry == null || !entry.getChangeType().equals(ChangeType.MODIFY)) {
+                    return new EditList();
+                }
+                if (formatter == null) {
+                    formatter = newDiffFormatter(git.getRepository());
                 }
+                result = formatter.toFileHeader(entry).toEditList();
+                edits.put(location, result);
             }
+            return result;
+        }
+
+        /**
+         * Releases the resources used to compute the edits.
+         */
+        public void release() {
+            if (formatter != null) {
+                formatter.release();
+                formatter = null;
+            }
+        }
+    }
+
+    /**
+     * Maps the lines of a file before a list of edits to its lines after the
+     * edits. The edits are sorted, so a line is mapped with a binary search
+     * instead of walking all the edits.
+     *
+     */
+    public static class LineMap {
+
+        private final int[] beginA;
+
+        private final int[] endA;
+
+        private final int[] beginB;
+
+        // the number of lines added minus deleted by the edits up to each one
+        private final int[] shift;
+
+        /**
+         * Builds the map of the lines of a file.
+         * 
+         * @param editList
+         *            the edits of the file, e.g. from {@link DiffIndex#getEdits(String)}
+         */
+        public LineMap(EditList editList) {
+            int size = editList.size();
+            beginA = new int[size];
+            endA = new int[size];
+            beginB = new int[size];
+            shift = new int[size];
+            int delta = 0;
+            for (int i = 0; i < size; i++) {
+                Edit edit = editList.get(i);
+                beginA[i] = edit.getBeginA();
+                endA[i] = edit.getEndA();
+                beginB[i] = edit.getBeginB();
+                delta += edit.getLengthB() - edit.getLengthA();
+                shift[i] = delta;
+            }
+        }
+
+        /**
+         * Returns the line after the edits of a line before the edits.
+         * 
+         * @param line
+         *            the line before the edits, starting at 0
+         * @return the line after the edits, or -1 if the line has been deleted
+         *         or replaced
+         */
+        public int map(int line) {
+            int i = lastEditFrom(line);
+            if (i < 0) {
+                return line;
+            }
+            if (line < endA[i]) {
+                return -1;
+            }
+            return line + shift[i];
+        }
+
+        /**
+         * Returns the lines after the edits where the edits starting in a
+         * region before the edits begin. The code of the region has been
+         * replaced there.
+         * 
+         * @param beginLine
+         *            the begin line of the region before the edits
+         * @param endLine
+         *            the end line of the region before the edits
+         * @return the begin lines after the edits, sorted
+         */
+        public List<Integer> getReplacingLines(int beginLine, int endLine) {
+            List<Integer> lines = new LinkedList<Integer>();
+            int i = lastEditFrom(beginLine - 1) + 1;
+            while (i < beginA.length && beginA[i] <= endLine) {
+                lines.add(beginB[i]);
+                i++;
+            }
+            return lines;
+        }
+
+        // the index of the last edit starting at the line or before, or -1
+        private int lastEditFrom(int line) {
+            int low = 0;
+            int high = beginA.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (beginA[mid] <= line) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
         }
-        return from.startsAtSameLine(to);
     }
 
     /**
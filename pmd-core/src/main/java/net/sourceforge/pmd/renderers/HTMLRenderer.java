@@ -55,6 +55,21 @@ public class HTMLRenderer extends AbstractIncrementingRenderer {
      * @throws IOException
      */
     public void renderBody(Writer writer, Report report) throws IOException {
+        renderBody(writer, report, report.iterator());
+    }
+
+    /**
+     * Write the body of the main body of the HTML content, with violations
+     * which aren't in the report.
+     *
+     * @param writer
+     * @param report
+     *            the report of the errors and suppressed violations
+     * @param violations
+     *            the violations, the violations of the report are ignored
+     * @throws IOException
+     */
+    public void renderBody(Writer writer, Report report, Iterator<RuleViolation> violations) throws IOException {
         linkPrefix = getProperty(LINK_PREFIX);
         linePrefix = getProperty(LINE_PREFIX);
 
@@ -63,7 +78,13 @@ public class HTMLRenderer extends AbstractIncrementingRenderer {
         writer.write("<table align=\"center\" cellspacing=\"0\" cellpadding=\"3\"><tr>" + PMD.EOL
                 + "<th>#</th><th>File</th><th>Line</th><th>Problem</th></tr>" + PMD.EOL);
         setWriter(writer);
-        renderFileReport(report);
+        renderFileViolations(violations);
+        for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+            errors.add(i.next());
+        }
+        if (showSuppressedViolations) {
+            suppressed.addAll(report.getSuppressedRuleViolations());
+        }
         writer.write("</table>");
         glomProcessingErrors(writer, errors);
         if (showSuppressedViolations) {
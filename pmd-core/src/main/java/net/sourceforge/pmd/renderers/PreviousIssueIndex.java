@@ -0,0 +1,112 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.RuleViolation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * The issues previously reported on a file, indexed by their lines in the
+ * current version of the file and by rule, so that finding if a violation has
+ * already been reported is a lookup instead of a walk over all the issues and
+ * all the edits.
+ *
+ * <p>An issue matches a violation of the same rule beginning on the line to
+ * which the begin line of the issue has been moved, or including the line
+ * where an edit starting in the issue begins. An issue without rule matches
+ * the violations of any rule.</p>
+ *
+ */
+public class PreviousIssueIndex {
+
+    private static final String ANY_RULE = "";
+
+    // begin line in the current version -> rules
+    private final Map<Integer, List<String>> rulesByLine = new HashMap<>();
+
+    // begin line of an edit replacing the code of an issue -> rules
+    private final NavigableMap<Integer, List<String>> rulesByReplacingLine = new TreeMap<>();
+
+    /**
+     * Indexes the issues previously reported on a file.
+     *
+     * @param previousIssues
+     *            the issues, as returned by WalkModHub, may be null
+     * @param lineMap
+     *            the map of the lines of the file from the previous analysis
+     *            to the current version
+     */
+    public PreviousIssueIndex(JsonArray previousIssues, GitUtils.LineMap lineMap) {
+        if (previousIssues != null) {
+            for (JsonElement element : previousIssues) {
+                JsonObject issue = (JsonObject) element;
+                int beginLine = issue.get("beginLine").getAsInt() - 1;
+                int endLine = issue.get("endLine").getAsInt() - 1;
+                JsonElement rule = issue.get("rule");
+                String ruleName = rule == null || rule.isJsonNull() ? ANY_RULE : rule.getAsString();
+
+                int line = lineMap.map(beginLine);
+                if (line >= 0) {
+                    add(rulesByLine, line, ruleName);
+                }
+                for (Integer replacingLine : lineMap.getReplacingLines(beginLine, endLine)) {
+                    add(rulesByReplacingLine, replacingLine, ruleName);
+                }
+            }
+        }
+    }
+
+    private static void add(Map<Integer, List<String>> index, Integer line, String ruleName) {
+        List<String> rules = index.get(line);
+        if (rules == null) {
+            rules = new LinkedList<>();
+            index.put(line, rules);
+        }
+        rules.add(ruleName);
+    }
+
+    /**
+     * Returns if a violation has already been reported.
+     *
+     * @param violation
+     *            the violation
+     * @return true if an issue matches the violation
+     */
+    public boolean isPreviouslyReported(RuleViolation violation) {
+        String ruleName = violation.getRule().getName();
+        int beginLine = violation.getBeginLine() - 1;
+        if (matches(rulesByLine.get(beginLine), ruleName)) {
+            return true;
+        }
+        int endLine = Math.max(beginLine, violation.getEndLine() - 1);
+        for (List<String> rules : rulesByReplacingLine.subMap(beginLine, true, endLine, true).values()) {
+            if (matches(rules, ruleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(List<String> rules, String ruleName) {
+        if (rules != null) {
+            for (String rule : rules) {
+                if (ANY_RULE.equals(rule) || rule.equals(ruleName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
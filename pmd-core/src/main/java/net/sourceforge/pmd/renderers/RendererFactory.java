@@ -30,6 +30,7 @@ public class RendererFactory {
     static {
         Map<String, Class<? extends Renderer>> map = new TreeMap<>();
         map.put(WalkModHubRenderer.NAME, WalkModHubRenderer.class);
+        map.put(BinaryRenderer.NAME, BinaryRenderer.class);
         map.put(CodeClimateRenderer.NAME, CodeClimateRenderer.class);
         map.put(XMLRenderer.NAME, XMLRenderer.class);
         map.put(IDEAJRenderer.NAME, IDEAJRenderer.class);
@@ -0,0 +1,321 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.RuleViolationComparator;
+import net.sourceforge.pmd.lang.rule.ImmutableRuleViolation;
+import net.sourceforge.pmd.util.NumericConstants;
+import net.sourceforge.pmd.util.StringUtil;
+
+/**
+ * The violations of all the file reports of a run, written to a temporary
+ * file as they are reported instead of being kept in memory. The violations
+ * of each file report are written as a sorted run; iterating sorts the runs by
+ * file name, and reads the violations back as immutable copies. The counts
+ * per rule and per class are kept as the violations are added.
+ *
+ * <p>Only the rules, the file names and the position of each run are kept in
+ * memory, so the memory used doesn't depend on the number of violations.</p>
+ *
+ * @see AbstractAccumulatingRenderer
+ */
+public class SpilledViolations implements Iterable<RuleViolation>, Closeable {
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<Rule, Integer> ruleIndexes = new IdentityHashMap<>();
+    private final List<Run> runs = new ArrayList<>();
+    private final Map<String, Integer> summary = new HashMap<>();
+    private final Map<String, Integer> countSummary = new HashMap<>();
+    private int size;
+
+    private File file;
+    private CountingOutputStream counter;
+    private DataOutputStream out;
+    // the files opened by the iterators
+    private final List<Closeable> readers = new ArrayList<>();
+
+    // the violations of a file report, in the temporary file
+    private static class Run {
+        private final String filename;
+        private final long offset;
+        private final int count;
+
+        Run(String filename, long offset, int count) {
+            this.filename = filename;
+            this.offset = offset;
+            this.count = count;
+        }
+    }
+
+    private static final Comparator<Run> RUN_COMPARATOR = new Comparator<Run>() {
+        @Override
+        public int compare(Run r1, Run r2) {
+            return r1.filename.compareTo(r2.filename);
+        }
+    };
+
+    /**
+     * Writes the violations of a file report.
+     *
+     * @param report
+     *            the report of a file
+     * @throws IOException
+     *             if the temporary file cannot be written
+     */
+    public void add(Report report) throws IOException {
+        String runFilename = null;
+        long offset = 0;
+        int count = 0;
+        for (RuleViolation violation : report) {
+            if (out == null) {
+                open();
+            }
+            if (!violation.getFilename().equals(runFilename)) {
+                // a report normally holds the violations of a single file
+                addRun(runFilename, offset, count);
+                runFilename = violation.getFilename();
+                offset = counter.getByteCount();
+                count = 0;
+            }
+            write(violation);
+            count++;
+        }
+        addRun(runFilename, offset, count);
+    }
+
+    private void open() throws IOException {
+        file = File.createTempFile("pmd-violations", ".tmp");
+        counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out = new DataOutputStream(counter);
+    }
+
+    private void addRun(String filename, long offset, int count) {
+        if (count > 0) {
+            runs.add(new Run(filename, offset, count));
+        }
+    }
+
+    private void write(RuleViolation violation) throws IOException {
+        Rule rule = violation.getRule();
+        Integer ruleIndex = ruleIndexes.get(rule);
+        if (ruleIndex == null) {
+            ruleIndex = rules.size();
+            rules.add(rule);
+            ruleIndexes.put(rule, ruleIndex);
+        }
+        out.writeInt(ruleIndex);
+        StringCodec.write(out, violation.getDescription());
+        out.writeInt(violation.getBeginLine());
+        out.writeInt(violation.getBeginColumn());
+        out.writeInt(violation.getEndLine());
+        out.writeInt(violation.getEndColumn());
+        StringCodec.write(out, violation.getPackageName());
+        StringCodec.write(out, violation.getClassName());
+        StringCodec.write(out, violation.getMethodName());
+        StringCodec.write(out, violation.getVariableName());
+
+        increment(summary, rule.getName());
+        increment(countSummary, StringUtil.isNotEmpty(violation.getPackageName())
+                ? violation.getPackageName() + '.' + violation.getClassName() : "");
+        size++;
+    }
+
+    private static void increment(Map<String, Integer> counts, String key) {
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? NumericConstants.ONE : count + 1);
+    }
+
+    /**
+     * The number of violations.
+     *
+     * @return number of violations.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of violations per rule, as {@link Report#getSummary()}.
+     *
+     * @return violations per rule name
+     */
+    public Map<String, Integer> getSummary() {
+        return Collections.unmodifiableMap(summary);
+    }
+
+    /**
+     * Returns the number of violations per fully qualified class name, as
+     * {@link Report#getCountSummary()}.
+     *
+     * @return violations per class name
+     */
+    public Map<String, Integer> getCountSummary() {
+        return Collections.unmodifiableMap(countSummary);
+    }
+
+    /**
+     * Returns the violations, sorted as the violations of a {@link Report}.
+     * The violations are read back from the temporary file while iterating.
+     *
+     * @return an iterator over the violations
+     */
+    @Override
+    public Iterator<RuleViolation> iterator() {
+        if (out == null) {
+            return Collections.<RuleViolation>emptyList().iterator();
+        }
+        try {
+            out.flush();
+            List<Run> sortedRuns = new ArrayList<>(runs);
+            // stable, so that the runs of a file stay in the order they were added
+            Collections.sort(sortedRuns, RUN_COMPARATOR);
+            return new SpilledIterator(sortedRuns);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Deletes the temporary file. The violations can't be iterated any more,
+     * but the counts are kept.
+     */
+    @Override
+    public void close() {
+        for (Closeable reader : readers) {
+            IOUtils.closeQuietly(reader);
+        }
+        readers.clear();
+        IOUtils.closeQuietly(out);
+        out = null;
+        if (file != null && !file.delete()) {
+            file.deleteOnExit();
+        }
+        file = null;
+    }
+
+    private class SpilledIterator implements Iterator<RuleViolation> {
+
+        private final List<Run> sortedRuns;
+        private int nextRun;
+        private FileChannel channel;
+        private DataInputStream in;
+        private String filename;
+        private int remaining;
+        private Iterator<RuleViolation> merged;
+
+        SpilledIterator(List<Run> sortedRuns) {
+            this.sortedRuns = sortedRuns;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (remaining > 0 || merged != null && merged.hasNext()) {
+                return true;
+            }
+            merged = null;
+            if (nextRun < sortedRuns.size()) {
+                try {
+                    nextRuns();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return true;
+            }
+            if (channel != null) {
+                IOUtils.closeQuietly(channel);
+                readers.remove(channel);
+                channel = null;
+            }
+            return false;
+        }
+
+        private void nextRuns() throws IOException {
+            Run run = sortedRuns.get(nextRun++);
+            seek(run);
+            if (nextRun < sortedRuns.size() && RUN_COMPARATOR.compare(run, sortedRuns.get(nextRun)) == 0) {
+                // several reports of the same file: sorted together, in memory
+                List<RuleViolation> violations = new ArrayList<>();
+                readRun(violations);
+                while (nextRun < sortedRuns.size() && RUN_COMPARATOR.compare(run, sortedRuns.get(nextRun)) == 0) {
+                    seek(sortedRuns.get(nextRun++));
+                    readRun(violations);
+                }
+                Collections.sort(violations, RuleViolationComparator.INSTANCE);
+                merged = violations.iterator();
+            }
+        }
+
+        private void seek(Run run) throws IOException {
+            if (channel == null) {
+                channel = new FileInputStream(file).getChannel();
+                readers.add(channel);
+            }
+            channel.position(run.offset);
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            filename = run.filename;
+            remaining = run.count;
+        }
+
+        private void readRun(List<RuleViolation> violations) throws IOException {
+            while (remaining > 0) {
+                violations.add(read());
+            }
+        }
+
+        private RuleViolation read() throws IOException {
+            remaining--;
+            return new ImmutableRuleViolation(rules.get(in.readInt()), StringCodec.read(in), false, filename, in.readInt(),
+                    in.readInt(), in.readInt(), in.readInt(), StringCodec.read(in), StringCodec.read(in), StringCodec.read(in),
+                    StringCodec.read(in));
+        }
+
+        @Override
+        public RuleViolation next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (merged != null) {
+                return merged.next();
+            }
+            try {
+                return read();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -26,6 +26,11 @@ public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
         definePropertyDescriptor(HTMLRenderer.LINE_PREFIX);
     }
 
+    @Override
+    protected boolean spillViolations() {
+        return true;
+    }
+
     @Override
     public String defaultFileExtension() {
         return "html";
@@ -45,7 +50,11 @@ public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
         htmlRenderer.setProperty(HTMLRenderer.LINK_PREFIX, getProperty(HTMLRenderer.LINK_PREFIX));
         htmlRenderer.setProperty(HTMLRenderer.LINE_PREFIX, getProperty(HTMLRenderer.LINE_PREFIX));
         htmlRenderer.setShowSuppressedViolations(showSuppressedViolations);
-        htmlRenderer.renderBody(writer, report);
+        try {
+            htmlRenderer.renderBody(writer, report, violations.iterator());
+        } finally {
+            violations.close();
+        }
 
         writer.write("</tr></table></body></html>" + PMD.EOL);
     }
@@ -59,7 +68,7 @@ public class SummaryHTMLRenderer extends AbstractAccumulatingRenderer {
         writer.write("<center><h2>Summary</h2></center>" + PMD.EOL);
         writer.write("<table align=\"center\" cellspacing=\"0\" cellpadding=\"3\">" + PMD.EOL);
         writer.write("<tr><th>Rule name</th><th>Number of violations</th></tr>" + PMD.EOL);
-        Map<String, Integer> summary = report.getSummary();
+        Map<String, Integer> summary = violations.getSummary();
         for (Map.Entry<String, Integer> entry : summary.entrySet()) {
             String ruleName = entry.getKey();
             writer.write("<tr><td>");
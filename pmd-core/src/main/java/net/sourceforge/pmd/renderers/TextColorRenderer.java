@@ -79,6 +79,11 @@ public class TextColorRenderer extends AbstractAccumulatingRenderer {
         definePropertyDescriptor(COLOR);
     }
 
+    @Override
+    protected boolean spillViolations() {
+        return true;
+    }
+
     @Override
     public String defaultFileExtension() {
         return "txt";
@@ -119,28 +124,33 @@ public class TextColorRenderer extends AbstractAccumulatingRenderer {
         int numberOfErrors = 0;
         int numberOfWarnings = 0;
 
-        for (Iterator<RuleViolation> i = report.iterator(); i.hasNext();) {
-            buf.setLength(0);
-            numberOfWarnings++;
-            RuleViolation rv = i.next();
-            if (!rv.getFilename().equals(lastFile)) {
-                lastFile = rv.getFilename();
-                buf.append(this.yellowBold + "*" + this.colorReset + " file: " + this.whiteBold
-                        + this.getRelativePath(lastFile) + this.colorReset + PMD.EOL);
+        try {
+            for (Iterator<RuleViolation> i = violations.iterator(); i.hasNext();) {
+                buf.setLength(0);
+                numberOfWarnings++;
+                RuleViolation rv = i.next();
+                if (!rv.getFilename().equals(lastFile)) {
+                    lastFile = rv.getFilename();
+                    buf.append(this.yellowBold + "*" + this.colorReset + " file: " + this.whiteBold
+                            + this.getRelativePath(lastFile) + this.colorReset + PMD.EOL);
+                }
+                buf.append(this.green + "    src:  " + this.cyan
+                        + lastFile.substring(lastFile.lastIndexOf(File.separator) + 1) + this.colorReset + ":"
+                        + this.cyan + rv.getBeginLine() + (rv.getEndLine() == -1 ? "" : ":" + rv.getEndLine())
+                        + this.colorReset + PMD.EOL);
+                buf.append(this.green + "    rule: " + this.colorReset + rv.getRule().getName() + PMD.EOL);
+                buf.append(this.green + "    msg:  " + this.colorReset + rv.getDescription() + PMD.EOL);
+                buf.append(this.green + "    code: " + this.colorReset + this.getLine(lastFile, rv.getBeginLine())
+                        + PMD.EOL + PMD.EOL);
+                writer.write(buf.toString());
             }
-            buf.append(
-                    this.green + "    src:  " + this.cyan + lastFile.substring(lastFile.lastIndexOf(File.separator) + 1)
-                            + this.colorReset + ":" + this.cyan + rv.getBeginLine()
-                            + (rv.getEndLine() == -1 ? "" : ":" + rv.getEndLine()) + this.colorReset + PMD.EOL);
-            buf.append(this.green + "    rule: " + this.colorReset + rv.getRule().getName() + PMD.EOL);
-            buf.append(this.green + "    msg:  " + this.colorReset + rv.getDescription() + PMD.EOL);
-            buf.append(this.green + "    code: " + this.colorReset + this.getLine(lastFile, rv.getBeginLine()) + PMD.EOL
-                    + PMD.EOL);
-            writer.write(buf.toString());
+        } finally {
+            // the summary is kept in memory
+            violations.close();
         }
         writer.write(PMD.EOL + PMD.EOL);
         writer.write("Summary:" + PMD.EOL + PMD.EOL);
-        Map<String, Integer> summary = report.getCountSummary();
+        Map<String, Integer> summary = violations.getCountSummary();
         for (Map.Entry<String, Integer> entry : summary.entrySet()) {
             buf.setLength(0);
             String key = entry.getKey();
@@ -6,14 +6,25 @@ package net.sourceforge.pmd.renderers;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Writer;
-import java.net.URL;
-import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
@@ -25,11 +36,6 @@ import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicNameValuePair;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.Status;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.api.errors.NoHeadException;
-import org.eclipse.jgit.blame.BlameResult;
-import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.errors.IncorrectObjectTypeException;
 import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.lib.ObjectId;
@@ -37,7 +43,11 @@ import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 
 import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.rule.properties.BooleanProperty;
+import net.sourceforge.pmd.lang.rule.properties.IntegerProperty;
 import net.sourceforge.pmd.lang.rule.properties.StringProperty;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.DataSourceFilter;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
@@ -45,10 +55,12 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 /**
- * Incremental Renderer for WalkModHub in text format.
+ * Incremental Renderer for WalkModHub in text format. As a
+ * {@link DataSourceFilter}, it restricts the analysis to the changed files, see
+ * {@link #isChangedFilesOnly()}.
  *
  */
-public class WalkModHubRenderer extends AbstractIncrementingRenderer {
+public class WalkModHubRenderer extends AbstractIncrementingRenderer implements DataSourceFilter {
 
     public static final String NAME = "WalkModHub";
 
@@ -70,15 +82,31 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
 
     //file variables
 
-    private JsonArray previousIssues;
+    private PreviousIssueIndex previousIssues;
     private String location;
     private String remoteBranchToCompare;
 
-    private BlameResult blameResult;
+    private BlameCache.FileBlame blame;
+
+    private BlameCache blameCache;
 
     private TextRenderer renderer;
 
-    private List<DiffEntry> diffs;
+    //changes of the commit range, computed once
+
+    private GitUtils.DiffIndex diffIndex;
+
+    private Set<String> committedPaths;
+
+    private Set<String> uncommittedPaths;
+
+    private ChangedFilesProvider changedFiles;
+
+    //previous issues by file, fetched once
+
+    private final Map<String, Future<JsonArray>> previousIssuesByLocation = new HashMap<>();
+
+    private ExecutorService hubExecutor;
 
     private static final String URL_FIELD = "url";
 
@@ -90,6 +118,15 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
     public static final StringProperty WORKING_DIR_PROPERTY = new StringProperty("workingDir",
             "The working directory (.git parent directory) ", ".", 1);
 
+    public static final BooleanProperty CHANGED_FILES_ONLY_PROPERTY = new BooleanProperty("changedFilesOnly",
+            "Only analyze the files changed since the fetch head", true, 2);
+
+    public static final StringProperty BLAME_CACHE_PROPERTY = new StringProperty("blameCache",
+            "The file of the blame cache, pmd-blame.cache in the .git directory by default", "", 4);
+
+    public static final IntegerProperty HUB_THREADS_PROPERTY = new IntegerProperty("hubThreads",
+            "The number of concurrent requests to WalkModHub", 1, 32, 4, 3);
+
     /**
      * Default constructor of WalkModHubRenderer.
      * 
@@ -101,6 +138,9 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
         renderer = new TextRenderer();
         definePropertyDescriptor(HOST_PROPERTY);
         definePropertyDescriptor(WORKING_DIR_PROPERTY);
+        definePropertyDescriptor(CHANGED_FILES_ONLY_PROPERTY);
+        definePropertyDescriptor(HUB_THREADS_PROPERTY);
+        definePropertyDescriptor(BLAME_CACHE_PROPERTY);
     }
 
     /**
@@ -150,7 +190,9 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
         }
 
         if (httpclient == null) {
-            setHttpClient(HttpClientBuilder.create().build());
+            // one connection for each concurrent request
+            int threads = getProperty(HUB_THREADS_PROPERTY);
+            setHttpClient(HttpClientBuilder.create().setMaxConnPerRoute(threads).setMaxConnTotal(threads).build());
         }
         gson = new Gson();
     }
@@ -272,41 +314,103 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
      * @throws IOException
      */
     protected RevCommit getLastAnalysisFromHub() throws IOException {
-        URL url = new URL(HUB_PROTOCOL + host + "/analysis/" + getRepository() + "/" + getBranch());
-        URLConnection con = url.openConnection();
+        // same client as the other requests, so that the connection is reused
+        HttpGet httpget = new HttpGet(HUB_PROTOCOL + host + "/analysis/" + getRepository() + "/" + getBranch());
 
-        InputStreamReader in = new InputStreamReader(con.getInputStream());
-        JsonObject result = gson.fromJson(in, JsonObject.class);
+        HttpResponse response = httpclient.execute(httpget);
+        String data = IOUtils.toString(response.getEntity().getContent());
+        JsonObject result = gson.fromJson(data, JsonObject.class);
         remoteBranchToCompare = result.get("analyzedBranch").getAsString();
         return getCommit(git, result.get("commit").getAsString());
 
     }
 
+    @Override
+    public void end() throws IOException {
+        super.end();
+        if (diffIndex != null) {
+            diffIndex.release();
+            diffIndex = null;
+        }
+        committedPaths = null;
+        uncommittedPaths = null;
+        changedFiles = null;
+        if (hubExecutor != null) {
+            hubExecutor.shutdownNow();
+            hubExecutor = null;
+        }
+        previousIssuesByLocation.clear();
+        if (blameCache != null) {
+            blameCache.persist();
+            blameCache = null;
+        }
+    }
+
     @Override
     public String defaultFileExtension() {
         return "txt";
     }
 
-    private boolean isTouched(String fullPath) throws IOException {
+    private boolean isTouched(String fullPath, List<RuleViolation> violations) throws IOException {
 
         boolean result = false;
         location = getLocalLocation(fullPath);
         File file = new File(workingDir, location);
         if (file.exists()) {
-            RevCommit lastFileCommit = getLastModification(location);
-            result = isPrevious(fetchHead, lastFileCommit) || isEditedButStillNotCommitted(location);
+            result = isCommittedAfterFetchHead(location) || isEditedButStillNotCommitted(location);
 
             if (result) {
-                previousIssues = getPreviousIssues(location);
-                blameResult = getBlame(location);
-                diffs = new GitUtils().getLastDiffsFromLocation(git, location, lastAnalysis, fetchHead);
+                GitUtils.LineMap lineMap = new GitUtils.LineMap(getDiffIndex().getEdits(location));
+                previousIssues = new PreviousIssueIndex(getCachedPreviousIssues(location), lineMap);
+                List<Integer> lines = new LinkedList<Integer>();
+                for (RuleViolation violation : violations) {
+                    lines.add(violation.getBeginLine() - 1);
+                }
+                blame = getBlame(location, lines);
             }
         }
         return result;
     }
 
     /**
-     * Returns if there are still pending changes to commit
+     * Returns the differences between the last analysis and the fetch head,
+     * which are computed once for all the files.
+     * 
+     * @return the differences indexed by file
+     * @throws IOException
+     *             when git problems appear
+     */
+    protected GitUtils.DiffIndex getDiffIndex() throws IOException {
+        if (diffIndex == null) {
+            diffIndex = new GitUtils().indexLastDiffs(git, lastAnalysis, fetchHead);
+        }
+        return diffIndex;
+    }
+
+    /**
+     * Returns if the file has been modified by a commit after the fetch head.
+     * The modified files are resolved once for all the files.
+     * 
+     * @param location
+     *            file to analyze
+     * @return if the file has been modified by a commit after the fetch head
+     * @throws IOException
+     *             when git problems appear
+     */
+    protected boolean isCommittedAfterFetchHead(String location) throws IOException {
+        return getCommittedPaths().contains(location);
+    }
+
+    private Set<String> getCommittedPaths() throws IOException {
+        if (committedPaths == null) {
+            committedPaths = new GitUtils().getCommittedPaths(git, fetchHead);
+        }
+        return committedPaths;
+    }
+
+    /**
+     * Returns if there are still pending changes to commit. The status of the
+     * working tree is resolved once for all the files.
      * 
      * @param location
      *            file to analyze
@@ -315,44 +419,89 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
      *             when git problems appear
      */
     protected boolean isEditedButStillNotCommitted(String location) throws IOException {
-        boolean result = false;
-        try {
-            Status status = git.status().addPath(location).call();
-            result = !status.isClean();
-        } catch (Exception e) {
-            throw new IOException(e);
+        return getUncommittedPaths().contains(location);
+    }
+
+    private Set<String> getUncommittedPaths() throws IOException {
+        if (uncommittedPaths == null) {
+            uncommittedPaths = new GitUtils().getUncommittedPaths(git);
         }
-        return result;
+        return uncommittedPaths;
     }
 
-    private RevCommit getLastModification(String location) throws IOException {
-        RevCommit result = null;
-        try {
-            Iterable<RevCommit> logs = git.log().addPath(location).setMaxCount(1).call();
-            Iterator<RevCommit> it = logs.iterator();
-            result = it.next();
-        } catch (NoHeadException e) {
+    /**
+     * Returns if only the changed files should be analyzed, since the
+     * violations of the other files are not reported anyway.
+     * 
+     * @return the value of the changedFilesOnly property
+     * @see #getChangedFiles()
+     */
+    public boolean isChangedFilesOnly() {
+        return getProperty(CHANGED_FILES_ONLY_PROPERTY);
+    }
 
-        } catch (GitAPIException e) {
+    /**
+     * Keeps only the changed files, if {@link #isChangedFilesOnly()}, and
+     * starts fetching their previous issues. Must be called after
+     * {@link #start()}.
+     * 
+     * @param files
+     *            the files to analyze
+     * @return the changed files, or all the files
+     * @throws IOException
+     *             when git problems appear
+     */
+    @Override
+    public List<DataSource> filter(List<DataSource> files) throws IOException {
+        if (!isChangedFilesOnly()) {
+            return files;
+        }
+        List<DataSource> changed = getChangedFiles().getDataSources(files);
+        // the other changed paths, e.g. of other languages, are never rendered
+        List<String> locations = new ArrayList<>(changed.size());
+        for (DataSource file : changed) {
+            locations.add(getLocalLocation(file.getNiceFileName(false, null)));
+        }
+        prefetchPreviousIssues(locations);
+        return changed;
+    }
 
+    /**
+     * Returns the files committed after the fetch head, or not committed yet.
+     * These are the only files whose violations are reported, so the other
+     * files don't need to be analyzed. Must be called after {@link #start()}.
+     * 
+     * @return the provider of the changed files
+     * @throws IOException
+     *             when git problems appear
+     */
+    public ChangedFilesProvider getChangedFiles() throws IOException {
+        if (changedFiles == null) {
+            Set<String> paths = new HashSet<>(getCommittedPaths());
+            paths.addAll(getUncommittedPaths());
+            changedFiles = new ChangedFilesProvider(workingDir, paths);
         }
-        return result;
+        return changedFiles;
     }
 
     /**
-     * Resolves the blame result for an specific file.
+     * Resolves the blame result for some lines of an specific file. The blame
+     * is kept between runs, and only the lines which changed are blamed again.
      * 
      * @param location
      *            relative file path
+     * @param lines
+     *            the lines to blame, starting at 0
      * @return the blame result of the selected file
      * @throws IOException
      */
-    protected BlameResult getBlame(String location) throws IOException {
-        try {
-            return git.blame().setFilePath(location).call();
-        } catch (GitAPIException e) {
-            throw new IOException("Error in git blame for " + location, e);
+    protected BlameCache.FileBlame getBlame(String location, Collection<Integer> lines) throws IOException {
+        if (blameCache == null) {
+            String cacheFile = getProperty(BLAME_CACHE_PROPERTY);
+            blameCache = new BlameCache(git, cacheFile.isEmpty()
+                    ? new File(git.getRepository().getDirectory(), "pmd-blame.cache") : new File(cacheFile));
         }
+        return blameCache.getBlame(location, lines);
     }
 
     /**
@@ -404,6 +553,82 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
 
     }
 
+    /**
+     * Starts fetching the previous issues of some files in the background,
+     * with as many concurrent requests as the hubThreads property, so that
+     * the latency of WalkModHub doesn't add up while rendering.
+     * 
+     * @param locations
+     *            relative paths of the files
+     */
+    protected void prefetchPreviousIssues(Collection<String> locations) {
+        if (getRemoteBranchToCompare() == null) {
+            return;
+        }
+        for (String location : locations) {
+            if (!previousIssuesByLocation.containsKey(location) && new File(workingDir, location).exists()) {
+                previousIssuesByLocation.put(location, getHubExecutor().submit(previousIssuesTask(location)));
+            }
+        }
+    }
+
+    /**
+     * Returns the previous issues of a file, which have been prefetched or
+     * are fetched now. The issues of each file are fetched once.
+     * 
+     * @param location
+     *            relative path file to ask for
+     * @return the array of issues previously analyzed
+     * @throws IOException
+     *             if the issues cannot be fetched
+     */
+    protected JsonArray getCachedPreviousIssues(String location) throws IOException {
+        Future<JsonArray> issues = previousIssuesByLocation.get(location);
+        if (issues == null) {
+            FutureTask<JsonArray> task = new FutureTask<>(previousIssuesTask(location));
+            task.run();
+            issues = task;
+            previousIssuesByLocation.put(location, issues);
+        }
+        try {
+            return issues.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching the previous issues of " + location, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error fetching the previous issues of " + location, e.getCause());
+        }
+    }
+
+    private Callable<JsonArray> previousIssuesTask(final String location) {
+        return new Callable<JsonArray>() {
+            @Override
+            public JsonArray call() throws IOException {
+                return getPreviousIssues(location);
+            }
+        };
+    }
+
+    private ExecutorService getHubExecutor() {
+        if (hubExecutor == null) {
+            hubExecutor = Executors.newFixedThreadPool(getProperty(HUB_THREADS_PROPERTY), new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "WalkModHub-" + counter.incrementAndGet());
+                    // never keeps the JVM alive
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return hubExecutor;
+    }
+
     /**
      * Returns the remote branch to compare
      * 
@@ -415,17 +640,15 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
 
     @Override
     public void renderFileViolations(Iterator<RuleViolation> violations) throws IOException {
+        List<RuleViolation> fileViolations = new LinkedList<RuleViolation>();
+        while (violations.hasNext()) {
+            fileViolations.add(violations.next());
+        }
         List<RuleViolation> newViolations = new LinkedList<RuleViolation>();
-        if (violations.hasNext()) {
-            RuleViolation rv = violations.next();
-            if (isTouched(rv.getFilename())) {
+        if (!fileViolations.isEmpty() && isTouched(fileViolations.get(0).getFilename(), fileViolations)) {
+            for (RuleViolation rv : fileViolations) {
                 resolveViolation(rv.getFilename(), rv, newViolations);
-                while (violations.hasNext()) {
-                    rv = violations.next();
-                    resolveViolation(rv.getFilename(), rv, newViolations);
-                }
             }
-
         }
         if (!newViolations.isEmpty()) {
             renderer.renderFileViolations(newViolations.iterator());
@@ -440,43 +663,15 @@ public class WalkModHubRenderer extends AbstractIncrementingRenderer {
     private void resolveViolation(String fullPath, RuleViolation violation, List<RuleViolation> newViolations)
             throws IOException {
 
-        RevCommit lineCommit = blameResult.getSourceCommit(violation.getBeginLine() - 1);
-        if (isPrevious(fetchHead, lineCommit)) {
+        long lineTime = blame.getTime(violation.getBeginLine() - 1);
+        if (fetchHead != null && lineTime != BlameCache.NOT_COMMITTED
+                && getDateFromCommit(fetchHead).getTime() < lineTime) {
             newViolations.add(violation);
 
-        } else if (!isPreviouslyReported(violation)) {
+        } else if (!previousIssues.isPreviouslyReported(violation)) {
             newViolations.add(violation);
         }
 
     }
 
-    private boolean isPreviouslyReported(RuleViolation violation) throws IOException {
-        boolean areEquivalent = false;
-        if (previousIssues != null) {
-
-            int index = 0;
-
-            while (index < previousIssues.size() && !areEquivalent) {
-
-                GitUtils.FileRegion from = toFileRegion((JsonObject) previousIssues.get(index));
-                GitUtils.FileRegion to = toFileRegion(violation);
-                areEquivalent = GitUtils.areEquivalentLines(git, diffs, from, to);
-
-                index++;
-
-            }
-        }
-        return areEquivalent;
-    }
-
-    private GitUtils.FileRegion toFileRegion(JsonObject next) {
-        return new GitUtils.FileRegion(next.get("beginLine").getAsInt() - 1, next.get("beginColumn").getAsInt() - 1,
-                next.get("endLine").getAsInt() - 1, next.get("endColumn").getAsInt() - 1);
-    }
-
-    private GitUtils.FileRegion toFileRegion(RuleViolation violation) {
-        return new GitUtils.FileRegion(violation.getBeginLine() - 1, violation.getBeginColumn() - 1,
-                violation.getEndLine() - 1, violation.getEndColumn() - 1);
-    }
-
 }
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.renderers;
 import java.io.IOException;
 
 import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.lang.dfa.report.ReportHTMLPrintVisitor;
 import net.sourceforge.pmd.lang.dfa.report.ReportTree;
 import net.sourceforge.pmd.lang.rule.properties.StringProperty;
@@ -26,6 +27,11 @@ public class YAHTMLRenderer extends AbstractAccumulatingRenderer {
         definePropertyDescriptor(OUTPUT_DIR);
     }
 
+    @Override
+    protected boolean spillViolations() {
+        return true;
+    }
+
     @Override
     public String defaultFileExtension() {
         return "html";
@@ -37,7 +43,15 @@ public class YAHTMLRenderer extends AbstractAccumulatingRenderer {
     @Override
     public void end() throws IOException {
         String outputDir = getProperty(OUTPUT_DIR);
-        ReportTree tree = report.getViolationTree();
+        // the tree holds the violations read back, which don't keep their nodes
+        ReportTree tree = new ReportTree();
+        try {
+            for (RuleViolation violation : violations) {
+                tree.addRuleViolation(violation);
+            }
+        } finally {
+            violations.close();
+        }
         tree.getRootNode().accept(new ReportHTMLPrintVisitor(outputDir == null ? ".." : outputDir));
         writer.write("<h3 align=\"center\">The HTML files are located "
                 + (outputDir == null ? "above the project directory" : "in '" + outputDir + '\'') + ".</h3>" + PMD.EOL);
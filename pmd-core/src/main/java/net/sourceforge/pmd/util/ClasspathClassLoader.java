@@ -34,10 +34,47 @@ public class ClasspathClassLoader extends URLClassLoader {
         registerAsParallelCapable();
     }
 
+    private File indexFile;
+    private volatile ClasspathIndex index;
+
     public ClasspathClassLoader(String classpath, ClassLoader parent) throws IOException {
         super(initURLs(classpath), parent);
     }
 
+    /**
+     * Sets the file in which the index of this classpath is stored, e.g.
+     * next to the analysis cache. Without it, there is no index.
+     *
+     * @param indexFile
+     *            the index file, or <code>null</code>
+     * @see #getIndex()
+     */
+    public synchronized void setIndexFile(File indexFile) {
+        this.indexFile = indexFile;
+        this.index = null;
+    }
+
+    /**
+     * Returns the index of the classes of this class loader (not of its
+     * parents), which is built or updated the first time it is needed.
+     *
+     * @return the index, or <code>null</code> if no index file has been set
+     * @see #setIndexFile(File)
+     */
+    public ClasspathIndex getIndex() {
+        ClasspathIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null && indexFile != null) {
+                    result = ClasspathIndex.build(getURLs(), indexFile);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
     private static URL[] initURLs(String classpath) throws IOException {
         if (classpath == null) {
             throw new IllegalArgumentException("classpath argument cannot be null");
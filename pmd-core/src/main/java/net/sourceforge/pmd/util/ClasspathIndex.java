@@ -0,0 +1,287 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An index of the classes of a classpath: the names of the classes of each
+ * package, given by the names of the jar and directory entries. It answers
+ * whether a class can exist on the classpath without probing a class loader,
+ * which would search every jar for each candidate name.
+ *
+ * <p>The index is stored in a file, e.g. next to the analysis cache, so that
+ * the jars aren't listed again by each run. Each classpath entry is stored
+ * with a fingerprint (its size and modification time, or those of its class
+ * files for a directory), and is only indexed again when it has changed.</p>
+ *
+ * @see ClasspathClassLoader#getIndex()
+ */
+public final class ClasspathIndex {
+
+    private static final Logger LOG = Logger.getLogger(ClasspathIndex.class.getName());
+
+    private static final int MAGIC = 0x50434958;
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /** The simple names (e.g. <code>Map$Entry</code>) by package name. */
+    private final Map<String, Set<String>> classesByPackage = new HashMap<>();
+    /** The binary names of the classes. */
+    private final Set<String> classNames = new HashSet<>();
+
+    private ClasspathIndex(List<Entry> entries) {
+        for (Entry entry : entries) {
+            for (String className : entry.classes) {
+                int dot = className.lastIndexOf('.');
+                String packageName = dot < 0 ? "" : className.substring(0, dot);
+                Set<String> names = classesByPackage.get(packageName);
+                if (names == null) {
+                    names = new HashSet<>();
+                    classesByPackage.put(packageName, names);
+                }
+                names.add(className.substring(dot + 1));
+                classNames.add(className);
+            }
+        }
+    }
+
+    /**
+     * Builds the index of the given classpath. If an index file is given,
+     * the entries which didn't change since it was written are read from it,
+     * and the file is updated if needed.
+     *
+     * @param urls
+     *            the classpath. Only the <code>file:</code> URLs are
+     *            indexed.
+     * @param indexFile
+     *            the file to store the index in, or <code>null</code>
+     * @return the index
+     */
+    public static ClasspathIndex build(URL[] urls, File indexFile) {
+        Map<String, Entry> previous = indexFile == null ? Collections.<String, Entry>emptyMap() : load(indexFile);
+        List<Entry> entries = new ArrayList<>();
+        boolean changed = false;
+        for (URL url : urls) {
+            File file = toFile(url);
+            if (file == null) {
+                continue;
+            }
+            String location = file.getAbsolutePath();
+            long fingerprint = fingerprint(file);
+            Entry entry = previous.get(location);
+            if (entry == null || entry.fingerprint != fingerprint) {
+                entry = new Entry(location, fingerprint);
+                try {
+                    indexEntry(file, entry);
+                } catch (IOException e) {
+                    LOG.log(Level.FINE, "Could not index classpath entry " + location, e);
+                }
+                changed = true;
+            }
+            entries.add(entry);
+        }
+        if (indexFile != null && (changed || entries.size() != previous.size())) {
+            store(indexFile, entries);
+        }
+        return new ClasspathIndex(entries);
+    }
+
+    /**
+     * @return whether some class of the package is on the classpath
+     */
+    public boolean containsPackage(String packageName) {
+        return classesByPackage.containsKey(packageName);
+    }
+
+    /**
+     * @param className
+     *            the binary name of the class, e.g.
+     *            <code>java.util.Map$Entry</code>
+     * @return whether the class is on the classpath
+     */
+    public boolean containsClass(String className) {
+        return classNames.contains(className);
+    }
+
+    /**
+     * @return the names of the classes of the package without the package,
+     *         e.g. <code>Map$Entry</code>, empty if the package isn't on the
+     *         classpath
+     */
+    public Set<String> getClassNames(String packageName) {
+        Set<String> names = classesByPackage.get(packageName);
+        return names == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return the number of classes
+     */
+    public int size() {
+        return classNames.size();
+    }
+
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath());
+        }
+    }
+
+    private static long fingerprint(File file) {
+        if (file.isDirectory()) {
+            return fingerprintDirectory(file, 17L);
+        }
+        return (17L * 31 + file.length()) * 31 + file.lastModified();
+    }
+
+    private static long fingerprintDirectory(File directory, long fingerprint) {
+        long result = fingerprint;
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return result;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                result = fingerprintDirectory(file, result * 31 + file.getName().hashCode());
+            } else if (file.getName().endsWith(CLASS_SUFFIX)) {
+                result = ((result * 31 + file.getName().hashCode()) * 31 + file.length()) * 31 + file.lastModified();
+            }
+        }
+        return result;
+    }
+
+    private static void indexEntry(File file, Entry entry) throws IOException {
+        if (file.isDirectory()) {
+            indexDirectory(file, "", entry);
+        } else if (file.isFile()) {
+            try (JarFile jar = new JarFile(file)) {
+                Enumeration<JarEntry> jarEntries = jar.entries();
+                while (jarEntries.hasMoreElements()) {
+                    JarEntry jarEntry = jarEntries.nextElement();
+                    String className = toClassName(jarEntry.getName());
+                    if (className != null) {
+                        entry.classes.add(className);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void indexDirectory(File directory, String path, Entry entry) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = path + file.getName();
+            if (file.isDirectory()) {
+                indexDirectory(file, name + "/", entry);
+            } else {
+                String className = toClassName(name);
+                if (className != null) {
+                    entry.classes.add(className);
+                }
+            }
+        }
+    }
+
+    private static String toClassName(String path) {
+        if (!path.endsWith(CLASS_SUFFIX) || path.startsWith("META-INF/") || path.endsWith("module-info.class")
+                || path.endsWith("package-info.class")) {
+            return null;
+        }
+        return path.substring(0, path.length() - CLASS_SUFFIX.length()).replace('/', '.');
+    }
+
+    private static Map<String, Entry> load(File indexFile) {
+        if (!indexFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Entry> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                LOG.info("Classpath index " + indexFile.getPath() + " has an unknown format, it will be rebuilt");
+                return Collections.emptyMap();
+            }
+            int entryCount = in.readInt();
+            for (int e = 0; e < entryCount; e++) {
+                Entry entry = new Entry(in.readUTF(), in.readLong());
+                int classCount = in.readInt();
+                for (int c = 0; c < classCount; c++) {
+                    entry.classes.add(in.readUTF());
+                }
+                entries.put(entry.location, entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warning("Classpath index " + indexFile.getPath() + " is malformed, it will be rebuilt");
+            return Collections.emptyMap();
+        }
+        return entries;
+    }
+
+    private static void store(File indexFile, List<Entry> entries) {
+        File parent = indexFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.location);
+                out.writeLong(entry.fingerprint);
+                out.writeInt(entry.classes.size());
+                for (String className : entry.classes) {
+                    out.writeUTF(className);
+                }
+            }
+        } catch (IOException e) {
+            LOG.severe("Could not persist classpath index to file. " + e.getMessage());
+        }
+    }
+
+    /** The classes of one classpath entry. */
+    private static final class Entry {
+        private final String location;
+        private final long fingerprint;
+        private final List<String> classes = new ArrayList<>();
+
+        Entry(String location, long fingerprint) {
+            this.location = location;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util.datasource;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Selects the files to analyze among the files of the configuration, e.g. the
+ * files changed since the last analysis. It can be set on the
+ * {@link net.sourceforge.pmd.PMDConfiguration}, or implemented by the renderer,
+ * which is then applied once it has been started.
+ *
+ * <p>The files which are filtered out are neither read nor analyzed, so they
+ * are not part of the analysis cache written by this run either: they are
+ * analyzed again by the next run which doesn't filter them out.</p>
+ */
+public interface DataSourceFilter {
+
+    /**
+     * Returns the files to analyze.
+     *
+     * @param files
+     *            the files to which the languages and exclusions of the
+     *            configuration have been applied
+     * @return the files to analyze, in the same order
+     * @throws IOException
+     *             if the files to analyze cannot be determined
+     */
+    List<DataSource> filter(List<DataSource> files) throws IOException;
+}
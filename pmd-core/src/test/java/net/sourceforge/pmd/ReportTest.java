@@ -166,6 +166,34 @@ public class ReportTest implements ReportListener {
         assertEquals(2, treeCount);
     }
 
+    @Test
+    public void testMergeSortsViolations() {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        RuleContext ctx = new RuleContext();
+        Report merged = new Report();
+        Report report = new Report();
+        ctx.setSourceCodeFilename("foo");
+        report.addRuleViolation(new ParametricRuleViolation<>(rule, ctx, getNode(20, 5, true), rule.getMessage()));
+        report.addRuleViolation(new ParametricRuleViolation<>(rule, ctx, getNode(10, 5, true), rule.getMessage()));
+        merged.merge(report);
+        report = new Report();
+        ctx.setSourceCodeFilename("bar");
+        report.addRuleViolation(new ParametricRuleViolation<>(rule, ctx, getNode(30, 5, true), rule.getMessage()));
+        merged.merge(report);
+        // the tree is built from the violations added before it is asked for
+        assertEquals(3, merged.treeSize());
+        ctx.setSourceCodeFilename("baz");
+        merged.addRuleViolation(new ParametricRuleViolation<>(rule, ctx, getNode(1, 5, true), rule.getMessage()));
+        assertEquals(4, merged.treeSize());
+
+        Iterator<RuleViolation> violations = merged.iterator();
+        assertEquals("bar", violations.next().getFilename());
+        assertEquals("baz", violations.next().getFilename());
+        assertEquals(11, violations.next().getBeginLine());
+        assertEquals(21, violations.next().getBeginLine());
+        assertFalse(violations.hasNext());
+    }
+
     private static Node getNode(int line, int column) {
         DummyNode s = new DummyNode(2);
         DummyNode parent = new DummyNode(1);
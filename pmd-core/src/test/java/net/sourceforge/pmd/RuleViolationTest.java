@@ -5,6 +5,7 @@
 package net.sourceforge.pmd;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Ignore;
@@ -48,6 +49,20 @@ public class RuleViolationTest {
         assertEquals("description is wrong", "description", r.getDescription());
     }
 
+    @Test
+    public void testReportKeepsViolation() {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("filename");
+        DummyNode s = new DummyNode(1);
+        s.testingOnlySetBeginLine(2);
+        s.testingOnlySetBeginColumn(1);
+        ParametricRuleViolation<Node> r = new ParametricRuleViolation<Node>(rule, ctx, s, "description");
+        Report report = new Report();
+        report.addRuleViolation(r);
+        assertSame("object mismatch", r, report.iterator().next());
+    }
+
     @Test
     public void testComparatorWithDifferentFilenames() {
         Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
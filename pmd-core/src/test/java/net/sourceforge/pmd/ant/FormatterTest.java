@@ -4,14 +4,24 @@
 
 package net.sourceforge.pmd.ant;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileInputStream;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.renderers.BinaryReportReader;
 import net.sourceforge.pmd.renderers.CSVRenderer;
 import net.sourceforge.pmd.renderers.HTMLRenderer;
 import net.sourceforge.pmd.renderers.TextRenderer;
@@ -19,6 +29,9 @@ import net.sourceforge.pmd.renderers.XMLRenderer;
 
 public class FormatterTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Test
     public void testType() {
         Formatter f = new Formatter();
@@ -39,6 +52,31 @@ public class FormatterTest {
         }
     }
 
+    @Test
+    public void testBinaryToFile() throws Exception {
+        File file = new File(tempFolder.getRoot(), "report.bin");
+        Formatter f = new Formatter();
+        f.setType("binary");
+        f.setToFile(file);
+        f.start(tempFolder.getRoot().getPath());
+
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("Foo.java");
+        DummyNode node = new DummyNode(1);
+        node.testingOnlySetBeginLine(1);
+        node.testingOnlySetBeginColumn(1);
+        Report report = new Report();
+        // not ASCII, which the default UTF-8 encoding of the writers would change
+        report.addRuleViolation(new ParametricRuleViolation<>(new MockRule("Foo", "desc", "msg", "rulesetname"), ctx,
+                node, "caf\u00e9"));
+        f.getRenderer().renderFileReport(report);
+        f.end(new Report());
+
+        try (BinaryReportReader reader = new BinaryReportReader(new FileInputStream(file))) {
+            assertEquals("caf\u00e9", reader.read().getDescription());
+        }
+    }
+
     @Test
     public void testNull() {
         Formatter f = new Formatter();
@@ -0,0 +1,66 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BenchmarkerTest {
+
+    @After
+    public void reset() {
+        Benchmarker.reset();
+    }
+
+    @Test
+    public void testMarksOfAllThreadsAreMerged() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        Benchmarker.mark(Benchmark.Rule, "SomeRule", 10, 1);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        Benchmarker.mark(Benchmark.Rule, "SomeRule", 10, 1);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, BenchmarkResult> values = Benchmarker.values();
+        BenchmarkResult result = values.get("SomeRule");
+        assertEquals(4001, result.getCount());
+        assertEquals(40010, result.getTime());
+        assertEquals(4001, result.getHistogram().getTotalCount());
+
+        // the results of the finished threads are kept once merged
+        assertEquals(4001, Benchmarker.values().get("SomeRule").getCount());
+    }
+
+    @Test
+    public void testReportPercentiles() {
+        Benchmarker.mark(Benchmark.Rule, "SomeRule", 2000000, 1);
+        Benchmarker.mark(Benchmark.TotalPMD, null, 3000000, 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TextReport().generate(Benchmarker.values(), new PrintStream(out));
+        String report = out.toString();
+        assertTrue(report.contains("<<< Rule Percentiles >>>"));
+        assertTrue(report.matches("(?s).*SomeRule: +1 +2[.,]000 +2[.,]000 +2[.,]000 +2[.,]000.*"));
+        assertTrue(report.contains("<<< Phase Percentiles >>>"));
+        assertTrue(report.matches("(?s).*Total PMD: +1 +3[.,]000 +3[.,]000 +3[.,]000 +3[.,]000.*"));
+    }
+}
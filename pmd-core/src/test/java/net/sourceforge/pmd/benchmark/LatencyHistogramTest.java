@@ -0,0 +1,69 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        assertEquals(15, LatencyHistogram.bucketIndex(15));
+        assertEquals(16, LatencyHistogram.bucketIndex(16));
+        assertEquals(32, LatencyHistogram.bucketIndex(32));
+        assertEquals(32, LatencyHistogram.bucketIndex(33));
+        assertEquals(33, LatencyHistogram.bucketIndex(34));
+        assertEquals(1023L, LatencyHistogram.highestValueInBucket(LatencyHistogram.bucketIndex(1000)));
+
+        // the buckets are contiguous and precise to a 16th of their magnitude
+        for (long value = 1; value < 1L << 40; value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestValueInBucket(index);
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / 16);
+            assertEquals(index + 1, LatencyHistogram.bucketIndex(highest + 1));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(100000, histogram.getMax());
+        assertWithin(50000, histogram.getValueAtPercentile(50));
+        assertWithin(90000, histogram.getValueAtPercentile(90));
+        assertWithin(99000, histogram.getValueAtPercentile(99));
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testAdd() {
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(10);
+        LatencyHistogram large = new LatencyHistogram();
+        large.record(1000000);
+        large.record(-5);
+
+        small.add(large);
+        assertEquals(3, small.getTotalCount());
+        assertEquals(0, small.getMin());
+        assertEquals(1000000, small.getMax());
+        assertEquals(10, small.getValueAtPercentile(50));
+        assertEquals(1000000, small.getValueAtPercentile(100));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual,
+                actual >= expected && actual - expected <= expected / 16);
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+public class PMDMetricsTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final PMDMetrics metrics = PMDMetrics.getInstance();
+
+    @After
+    public void reset() {
+        metrics.reset();
+    }
+
+    @Test
+    public void testCounters() {
+        metrics.filesQueued(3);
+        metrics.fileStarted();
+        assertEquals(1, metrics.getActiveThreads());
+        metrics.bytesRead(100);
+        metrics.cacheLookup(false);
+        metrics.fileEnded();
+        metrics.fileStarted();
+        metrics.cacheLookup(true);
+        metrics.parseError();
+        metrics.fileEnded();
+
+        assertEquals(3, metrics.getFilesQueued());
+        assertEquals(2, metrics.getFilesProcessed());
+        assertEquals(1, metrics.getFilesPending());
+        assertEquals(100, metrics.getBytesRead());
+        assertEquals(1, metrics.getParseErrors());
+        assertEquals(0, metrics.getProcessingErrors());
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(1, metrics.getCacheMisses());
+        assertEquals(0, metrics.getActiveThreads());
+    }
+
+    @Test
+    public void testPhases() {
+        metrics.phase(Benchmark.Parser, 3000000L);
+        metrics.phase(Benchmark.Parser, 2000000L);
+        // single rules aren't phases
+        metrics.phase(Benchmark.Rule, 1000000L);
+
+        assertEquals(Long.valueOf(5), metrics.getPhaseMillis().get(Benchmark.Parser.name));
+        assertEquals(Long.valueOf(2), metrics.getPhaseCounts().get(Benchmark.Parser.name));
+        long runs = 0;
+        for (Long count : metrics.getPhaseCounts().values()) {
+            runs += count;
+        }
+        assertEquals(2, runs);
+    }
+
+    @Test
+    public void testViolationsByRule() {
+        metrics.violationsReported(createReport());
+
+        assertEquals(Long.valueOf(2), metrics.getViolationsByRule().get("Foo"));
+        assertEquals(Long.valueOf(1), metrics.getViolationsByRule().get("Bar \"x\""));
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        metrics.filesQueued(2);
+        metrics.phase(Benchmark.Parser, 1500000000L);
+        metrics.violationsReported(createReport());
+
+        StringWriter writer = new StringWriter();
+        metrics.write(writer);
+        String text = writer.toString();
+
+        assertTrue(text.contains("# TYPE pmd_files_queued_total counter\npmd_files_queued_total 2\n"));
+        assertTrue(text.contains("# TYPE pmd_files_pending gauge\npmd_files_pending 2\n"));
+        assertTrue(text.contains("pmd_phase_seconds_total{phase=\"" + Benchmark.Parser.name + "\"} 1.5\n"));
+        assertTrue(text.contains("pmd_phase_runs_total{phase=\"" + Benchmark.Parser.name + "\"} 1\n"));
+        assertTrue(text.contains("pmd_rule_violations_total{rule=\"Foo\"} 2\n"));
+        assertTrue(text.contains("pmd_rule_violations_total{rule=\"Bar \\\"x\\\"\"} 1\n"));
+    }
+
+    @Test
+    public void testWriteTo() throws IOException {
+        File file = new File(tempFolder.getRoot(), "pmd.prom");
+        FileUtils.write(file, "old", StandardCharsets.UTF_8);
+        metrics.filesQueued(7);
+
+        metrics.writeTo(file);
+
+        String text = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        assertTrue(text.contains("pmd_files_queued_total 7\n"));
+        assertFalse(new File(tempFolder.getRoot(), "pmd.prom.tmp").exists());
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception {
+        metrics.registerMBean();
+        // registering twice is harmless
+        metrics.registerMBean();
+        metrics.filesQueued(4);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(PMDMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(4L, server.getAttribute(name, "FilesQueued"));
+    }
+
+    private static Report createReport() {
+        Report report = new Report();
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("Foo.java");
+        DummyNode node = new DummyNode(1);
+        node.testingOnlySetBeginLine(1);
+        node.testingOnlySetBeginColumn(1);
+        MockRule foo = new MockRule("Foo", "desc", "msg", "rulesetname");
+        MockRule bar = new MockRule("Bar \"x\"", "desc", "msg", "rulesetname");
+        report.addRuleViolation(new ParametricRuleViolation<>(foo, ctx, node, "msg"));
+        report.addRuleViolation(new ParametricRuleViolation<>(foo, ctx, node, "msg"));
+        report.addRuleViolation(new ParametricRuleViolation<>(bar, ctx, node, "msg"));
+        return report;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.benchmark.ProfileReport.Timing;
+
+public class ProfileReportTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @After
+    public void reset() {
+        FileProfiler.setEnabled(false);
+        FileProfiler.reset();
+        Benchmarker.reset();
+    }
+
+    private static ProfileReport createReport() {
+        FileProfile a = new FileProfile("A.java");
+        a.add(Benchmark.Parser, "Parser", 100);
+        a.add(Benchmark.Rule, "SlowRule", 500);
+        a.add(Benchmark.Rule, "FastRule", 10);
+        FileProfile b = new FileProfile("B.java");
+        b.add(Benchmark.Parser, "Parser", 2000);
+        b.add(Benchmark.TypeResolution, "Type resolution", 300);
+        b.add(Benchmark.RuleChainRule, "FastRule", 20);
+        b.add(Benchmark.Rule, "FastRule", 30);
+        return new ProfileReport(Arrays.asList(b, a));
+    }
+
+    @Test
+    public void testSlowest() {
+        ProfileReport report = createReport();
+        List<FileProfile> files = report.getSlowestFiles(5);
+        assertEquals(2, files.size());
+        assertEquals("B.java", files.get(0).getFileName());
+        assertEquals(2350, files.get(0).getTotalTime());
+        assertEquals(1, report.getSlowestFiles(1).size());
+
+        List<Timing> rules = report.getSlowestRules(2);
+        assertEquals(2, rules.size());
+        assertEquals("SlowRule", rules.get(0).ruleName);
+        assertEquals("A.java", rules.get(0).fileName);
+        // the rule chain and the visitor durations of a rule are added
+        assertEquals("FastRule", rules.get(1).ruleName);
+        assertEquals("B.java", rules.get(1).fileName);
+        assertEquals(50, rules.get(1).time);
+    }
+
+    @Test
+    public void testCsv() throws IOException {
+        StringWriter writer = new StringWriter();
+        createReport().writeCsv(writer);
+        String[] lines = writer.toString().split(PMD.EOL);
+        assertEquals("\"File\",\"Kind\",\"Name\",\"Time (ns)\"", lines[0]);
+        assertEquals("\"A.java\",\"phase\",\"parser\",100", lines[1]);
+        assertEquals("\"A.java\",\"rule\",\"FastRule\",10", lines[8]);
+        assertEquals("\"A.java\",\"rule\",\"SlowRule\",500", lines[9]);
+        assertEquals("\"B.java\",\"phase\",\"parser\",2000", lines[10]);
+        assertEquals(18, lines.length);
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        File file = new File(tempFolder.getRoot(), "profile.json");
+        createReport().write(file, 10);
+        String json = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        assertTrue(json.indexOf("\"file\": \"A.java\"") < json.indexOf("\"file\": \"B.java\""));
+        assertTrue(json.contains("\"typeResolution\": 300"));
+        assertTrue(json.contains("\"SlowRule\": 500"));
+    }
+
+    @Test
+    public void testText() throws IOException {
+        StringWriter writer = new StringWriter();
+        createReport().writeText(writer, 1);
+        String text = writer.toString();
+        assertTrue(text.contains("B.java"));
+        assertTrue(text.contains("SlowRule"));
+        assertEquals(-1, text.indexOf("FastRule"));
+    }
+
+    @Test
+    public void testProfiler() {
+        FileProfiler.startFile("Ignored.java");
+        Benchmarker.mark(Benchmark.Parser, 10, 0);
+        FileProfiler.endFile();
+        assertEquals(0, FileProfiler.values().size());
+
+        FileProfiler.setEnabled(true);
+        FileProfiler.startFile("A.java");
+        Benchmarker.mark(Benchmark.Parser, 10, 0);
+        Benchmarker.mark(Benchmark.Rule, "SomeRule", 20, 1);
+        FileProfiler.endFile();
+        // not attributed to any file
+        Benchmarker.mark(Benchmark.Rule, "SomeRule", 40, 1);
+
+        List<FileProfile> profiles = FileProfiler.values();
+        assertEquals(1, profiles.size());
+        assertEquals("A.java", profiles.get(0).getFileName());
+        assertEquals(10, profiles.get(0).getTime(Benchmark.Parser));
+        assertEquals(Long.valueOf(20), profiles.get(0).getRuleTimes().get("SomeRule"));
+        assertEquals(30, profiles.get(0).getTotalTime());
+    }
+}
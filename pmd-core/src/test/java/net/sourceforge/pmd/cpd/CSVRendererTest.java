@@ -6,12 +6,14 @@ package net.sourceforge.pmd.cpd;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
 
 import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
 
 public class CSVRendererTest {
     @Test
@@ -47,6 +49,22 @@ public class CSVRendererTest {
         assertEquals(expectedReport, report);
     }
 
+    @Test
+    public void testRenderToWriter() throws Exception {
+        CPDRenderer renderer = new CSVRenderer();
+        List<Match> list = new ArrayList<>();
+        String codeFragment = "code\nfragment";
+        Mark mark1 = createMark("public", "/var/Foo.java", 48, 10, codeFragment);
+        Mark mark2 = createMark("stuff", "/var/Bar.java", 73, 20, codeFragment);
+        list.add(new Match(75, mark1, mark2));
+
+        StringWriter writer = new StringWriter();
+        renderer.render(list.iterator(), writer);
+        String expectedReport = "lines,tokens,occurrences" + PMD.EOL + "10,75,2,48,/var/Foo.java,73,/var/Bar.java"
+                + PMD.EOL;
+        assertEquals(expectedReport, writer.toString());
+    }
+
     private Mark createMark(String image, String tokenSrcID, int beginLine, int lineCount, String code) {
         Mark result = new Mark(new TokenEntry(image, tokenSrcID, beginLine));
 
@@ -5,11 +5,15 @@
 package net.sourceforge.pmd.cpd;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.util.ArrayList;
 
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import net.sourceforge.pmd.PMD;
 import net.sourceforge.pmd.cpd.SourceCode.FileCodeLoader;
@@ -19,6 +23,9 @@ public class SourceCodeTest {
 
     private static final String SAMPLE_CODE = "Line 1\n" + "Line 2\n" + "Line 3\n" + "Line 4\n";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testSimple() throws Exception {
         Tokenizer tokenizer = new AbstractTokenizer() {
@@ -56,4 +63,52 @@ public class SourceCodeTest {
         loader.getReader();
         assertEquals("ISO-8859-1", loader.getEncoding());
     }
+
+    @Test
+    public void testSliceFromFile() throws Exception {
+        File file = folder.newFile("Foo.java");
+        FileUtils.writeStringToFile(file, "Line 1\r\nLine 2\n\rLine \u00e4\rLine 5", "UTF-8");
+        SourceCode sourceCode = new SourceCode(new SourceCode.FileCodeLoader(file, "UTF-8"));
+
+        assertEquals(5, sourceCode.getCode().size());
+        assertEquals("Line 1", sourceCode.getSlice(1, 1));
+        assertEquals("Line 1" + PMD.EOL + "Line 2", sourceCode.getSlice(0, 2));
+        assertEquals("Line \u00e4" + PMD.EOL + "Line 5", sourceCode.getSlice(4, 10));
+        assertEquals("", sourceCode.getSlice(7, 8));
+    }
+
+    @Test
+    public void testLinesAreCached() throws Exception {
+        File file = folder.newFile("Foo.java");
+        FileUtils.writeStringToFile(file, SAMPLE_CODE, "UTF-8");
+        SourceCode sourceCode = new SourceCode(new SourceCode.FileCodeLoader(file, "UTF-8"));
+
+        assertSame(sourceCode.getCode(), sourceCode.getCode());
+        // the file is not kept open nor mapped
+        assertEquals(true, file.delete());
+        assertEquals("Line 2" + PMD.EOL + "Line 3", sourceCode.getSlice(2, 3));
+    }
+
+    @Test
+    public void testSliceFromFileWithoutCachedLines() throws Exception {
+        File file = folder.newFile("Foo.java");
+        FileUtils.writeStringToFile(file, "Line 1\r\nLine 2\n\rLine \u00e4\rLine 5", "UTF-8");
+        FileCodeLoader loader = new SourceCode.FileCodeLoader(file, "UTF-8");
+        // indexes the lines without caching them, as if they had been reclaimed
+        assertEquals(5, loader.load().size());
+
+        assertEquals("Line 2", loader.getSlice(2, 2));
+        assertEquals("Line \u00e4" + PMD.EOL + "Line 5", loader.getSlice(4, 10));
+    }
+
+    @Test
+    public void testSliceFromFileWithBOM() throws Exception {
+        FileCodeLoader loader = new SourceCode.FileCodeLoader(new File(BASE_RESOURCE_PATH + "file_with_utf8_bom.java"),
+                "ISO-8859-1");
+        SourceCode sourceCode = new SourceCode(loader);
+
+        String firstLine = sourceCode.getCode().get(0);
+        assertEquals("UTF-8", loader.getEncoding());
+        assertEquals(firstLine, sourceCode.getSlice(1, 1));
+    }
 }
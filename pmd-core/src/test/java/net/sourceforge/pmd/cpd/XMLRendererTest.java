@@ -9,6 +9,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,6 +20,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
+
 /**
  * @author Philippe T'Seyen
  * @author Romain Pelisse &lt;belaran@gmail.com&gt;
@@ -130,6 +133,50 @@ public class XMLRendererTest {
         assertTrue(report.contains(espaceChar));
     }
 
+    @Test
+    public void testRenderToWriter() throws Exception {
+        CPDRenderer renderer = new XMLRenderer();
+        List<Match> list = new ArrayList<>();
+        Mark mark1 = createMark("public", "/var/Foo.java", 48, 6, "code fragment");
+        Mark mark2 = createMark("void", "/var/Foo.java", 73, 6, "code fragment");
+        list.add(new Match(75, mark1, mark2));
+        StringWriter writer = new StringWriter();
+        renderer.render(list.iterator(), writer);
+
+        assertEquals(new XMLRenderer().render(list.iterator()), writer.toString());
+    }
+
+    @Test
+    public void testCodeFragmentWithCDataEnd() throws Exception {
+        Renderer renderer = new XMLRenderer();
+        List<Match> list = new ArrayList<>();
+        String codeFragment = "int[] a = b[c[0]]>0 ? x : y;";
+        Mark mark1 = createMark("public", "/var/Foo.java", 48, 1, codeFragment);
+        Mark mark2 = createMark("void", "/var/Foo.java", 73, 1, codeFragment);
+        list.add(new Match(75, mark1, mark2));
+        String report = renderer.render(list.iterator());
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(report.getBytes(ENCODING)));
+        assertEquals(codeFragment, doc.getElementsByTagName("codefragment").item(0).getTextContent());
+    }
+
+    @Test
+    public void testCodeFragmentNotRepresentableInEncoding() throws Exception {
+        Renderer renderer = new XMLRenderer("ISO-8859-1");
+        List<Match> list = new ArrayList<>();
+        String codeFragment = "String s = \"caf\u00e9 \u4e2d\u6587 \ud83d\ude00\";";
+        Mark mark1 = createMark("public", "/var/Foo.java", 48, 1, codeFragment);
+        Mark mark2 = createMark("void", "/var/Foo.java", 73, 1, codeFragment);
+        list.add(new Match(75, mark1, mark2));
+        String report = renderer.render(list.iterator());
+        assertTrue(report.contains("]]>&#20013;&#25991;<![CDATA["));
+        assertTrue(report.contains("&#128512;"));
+
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(report.getBytes("ISO-8859-1")));
+        assertEquals(codeFragment, doc.getElementsByTagName("codefragment").item(0).getTextContent());
+    }
+
     private Mark createMark(String image, String tokenSrcID, int beginLine, int lineCount, String code) {
         Mark result = new Mark(new TokenEntry(image, tokenSrcID, beginLine));
 
@@ -0,0 +1,122 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DataFlowAnomalyAnalysisTest {
+
+    private final List<DataFlowNode> flow = new ArrayList<>();
+
+    private DataFlowNode node(int line, VariableAccess... accesses) {
+        DataFlowNode node = new StartOrEndDataFlowNode(flow, line, flow.isEmpty());
+        node.setVariableAccess(new ArrayList<>(Arrays.asList(accesses)));
+        return node;
+    }
+
+    private static VariableAccess def(String name) {
+        return new VariableAccess(VariableAccess.DEFINITION, name);
+    }
+
+    private static VariableAccess ref(String name) {
+        return new VariableAccess(VariableAccess.REFERENCING, name);
+    }
+
+    private static VariableAccess undef(String name) {
+        return new VariableAccess(VariableAccess.UNDEFINITION, name);
+    }
+
+    private List<String> findAnomalies() {
+        final List<String> anomalies = new ArrayList<>();
+        new DataFlowAnomalyAnalysis(flow).findAnomalies(new DataFlowAnomalyAnalysis.AnomalyHandler() {
+            @Override
+            public void anomalyFound(String type, String variableName, DataFlowNode firstNode,
+                    DataFlowNode lastNode) {
+                anomalies.add(type + " " + variableName + " " + firstNode.getLine() + "-" + lastNode.getLine());
+            }
+        });
+        return anomalies;
+    }
+
+    @Test
+    public void testAnomaliesOnBranches() {
+        node(1, undef("x"), undef("y"));
+        DataFlowNode branch = node(2, def("x"));
+        node(3, def("x"));
+        DataFlowNode join = node(4, ref("y"));
+        node(5, undef("x"));
+        // the definition on line 3 is optional
+        branch.addPathToChild(join);
+
+        assertEquals(Arrays.asList("DD x 2-3", "UR y 1-4", "DU x 2-5", "DU x 3-5"), findAnomalies());
+    }
+
+    @Test
+    public void testAnomalyInLoop() {
+        node(1, undef("x"));
+        DataFlowNode loop = node(2, ref("x"));
+        DataFlowNode body = node(3, def("x"));
+        body.addPathToChild(loop);
+        node(4);
+        loop.addPathToChild(flow.get(3));
+
+        // the reference can follow the undefinition, or the definition of
+        // the previous iteration
+        assertEquals(Arrays.asList("UR x 1-2"), findAnomalies());
+    }
+
+    @Test
+    public void testDefinitionsInSameNode() {
+        node(1, def("x"), def("x"), ref("x"));
+        assertEquals(Arrays.asList("DD x 1-1"), findAnomalies());
+    }
+
+    @Test
+    public void testUnreachableNodesAreIgnored() {
+        node(1);
+        node(2, def("x"));
+        DataFlowNode unreachable = new StartOrEndDataFlowNode(new ArrayList<DataFlowNode>(), 3, false);
+        unreachable.setVariableAccess(new ArrayList<>(Arrays.asList(def("x"), def("x"))));
+        flow.add(unreachable);
+        assertTrue(findAnomalies().isEmpty());
+    }
+
+    @Test
+    public void testBackwardAnalysis() {
+        // live variables: a variable is live before a node if it may be
+        // referenced before being defined again
+        DataFlowNode first = node(1, def("x"));
+        DataFlowNode second = node(2, ref("x"));
+        DataFlowNode third = node(3, def("x"));
+        BitVectorDataFlowAnalysis liveVariables = new BitVectorDataFlowAnalysis(flow, false) {
+            @Override
+            protected void computeGenKill(int node, BitSet gen, BitSet kill) {
+                DataFlowGraph graph = getGraph();
+                for (int a = graph.getFirstAccess(node); a < graph.getAccessEnd(node); a++) {
+                    if (graph.getAccessType(a) == VariableAccess.REFERENCING) {
+                        gen.set(0);
+                    } else if (graph.getAccessType(a) == VariableAccess.DEFINITION) {
+                        kill.set(0);
+                    }
+                }
+            }
+        };
+        liveVariables.solve();
+        assertFalse(liveVariables.getIn(first).get(0));
+        assertTrue(liveVariables.getIn(second).get(0));
+        assertTrue(liveVariables.getOut(first).get(0));
+        assertFalse(liveVariables.getIn(third).get(0));
+        assertTrue(liveVariables.isReachable(first));
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DataFlowGraphTest {
+
+    @Test
+    public void testGraph() {
+        List<DataFlowNode> flow = new ArrayList<>();
+        DataFlowNode start = new StartOrEndDataFlowNode(flow, 1, true);
+        DataFlowNode branch = new StartOrEndDataFlowNode(flow, 2, false);
+        branch.setVariableAccess(new ArrayList<>(Arrays.asList(new VariableAccess(VariableAccess.DEFINITION, "x"),
+                new VariableAccess(VariableAccess.REFERENCING, "y"))));
+        DataFlowNode body = new StartOrEndDataFlowNode(flow, 3, false);
+        body.setVariableAccess(new ArrayList<>(Arrays.asList(new VariableAccess(VariableAccess.REFERENCING, "x"))));
+        DataFlowNode end = new StartOrEndDataFlowNode(flow, 4, false);
+        branch.addPathToChild(end);
+
+        DataFlowGraph graph = DataFlowGraph.of(flow);
+        assertSame(graph, DataFlowGraph.of(end));
+        assertEquals(4, graph.size());
+        assertSame(body, graph.getNode(2));
+        assertEquals(3, graph.getLine(2));
+
+        assertEquals(1, graph.getChildCount(0));
+        assertEquals(2, graph.getChildCount(1));
+        assertEquals(2, graph.getChild(1, 0));
+        assertEquals(3, graph.getChild(1, 1));
+        assertEquals(0, graph.getChildCount(3));
+        assertEquals(2, graph.getParentCount(3));
+        assertEquals(2, graph.getParent(3, 0));
+        assertEquals(1, graph.getParent(3, 1));
+
+        assertEquals(2, graph.getVariableCount());
+        assertEquals(3, graph.getAccessCount());
+        assertEquals(0, graph.getFirstAccess(1));
+        assertEquals(2, graph.getAccessEnd(1));
+        assertEquals(2, graph.getFirstAccess(2));
+        assertEquals("x", graph.getVariableName(graph.getAccessVariable(2)));
+        assertEquals(graph.getAccessVariable(0), graph.getAccessVariable(2));
+        assertEquals(VariableAccess.REFERENCING, graph.getAccessType(2));
+        assertEquals(2, graph.getAccessNode(2));
+        assertTrue(graph.getAccessedVariables(1).get(graph.getAccessVariable(1)));
+        assertNull(graph.getAccessedVariables(0));
+    }
+}
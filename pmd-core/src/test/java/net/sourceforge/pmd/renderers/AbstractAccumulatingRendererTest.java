@@ -0,0 +1,95 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+public class AbstractAccumulatingRendererTest {
+
+    private static class CountingRenderer extends AbstractAccumulatingRenderer {
+        private final boolean spill;
+
+        CountingRenderer(boolean spill) {
+            super("counting", "Counts the violations");
+            this.spill = spill;
+        }
+
+        @Override
+        protected boolean spillViolations() {
+            return spill;
+        }
+
+        @Override
+        public String defaultFileExtension() {
+            return "txt";
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (violations == null) {
+                writer.write(String.valueOf(report.size()));
+            } else {
+                try {
+                    writer.write(String.valueOf(violations.size()));
+                } finally {
+                    violations.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testViolationsInReport() throws Exception {
+        CountingRenderer renderer = render(new CountingRenderer(false));
+        assertNull(renderer.violations);
+        assertEquals(2, renderer.report.size());
+    }
+
+    @Test
+    public void testSpilledViolations() throws Exception {
+        CountingRenderer renderer = render(new CountingRenderer(true));
+        assertEquals(0, renderer.report.size());
+        // closed by end(), the counts are kept
+        assertEquals(2, renderer.violations.size());
+        assertFalse(renderer.violations.iterator().hasNext());
+    }
+
+    private static CountingRenderer render(CountingRenderer renderer) throws IOException {
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        renderer.start();
+        renderer.renderFileReport(report("Foo.java"));
+        renderer.renderFileReport(report("Bar.java"));
+        renderer.end();
+        assertEquals("2", writer.toString());
+        return renderer;
+    }
+
+    private static Report report(String filename) {
+        Rule rule = new MockRule("Foo", "desc", "msg", "rulesetname");
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(filename);
+        DummyNode node = new DummyNode(1);
+        node.testingOnlySetBeginLine(1);
+        node.testingOnlySetBeginColumn(1);
+        Report report = new Report();
+        report.addRuleViolation(new ParametricRuleViolation<>(rule, ctx, node, "msg"));
+        return report;
+    }
+}
@@ -12,6 +12,7 @@ import net.sourceforge.pmd.FooRule;
 import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.Report.ProcessingError;
 import net.sourceforge.pmd.ReportTest;
+import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.RuleWithProperties;
@@ -75,6 +76,23 @@ public abstract class AbstractRendererTst {
         return node;
     }
 
+    static Report newReport(RuleViolation... violations) {
+        Report report = new Report();
+        for (RuleViolation violation : violations) {
+            report.addRuleViolation(violation);
+        }
+        return report;
+    }
+
+    static RuleViolation newRuleViolation(Rule rule, String filename, int beginLine) {
+        DummyNode node = new DummyNode(1);
+        node.testingOnlySetBeginLine(beginLine);
+        node.testingOnlySetBeginColumn(3);
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(filename);
+        return new ParametricRuleViolation<Node>(rule, ctx, node, rule.getName() + " " + beginLine);
+    }
+
     @Test
     public void testRuleWithProperties() throws Exception {
         DummyNode node = createNode(1);
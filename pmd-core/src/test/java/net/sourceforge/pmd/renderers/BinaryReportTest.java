@@ -0,0 +1,186 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static net.sourceforge.pmd.renderers.AbstractRendererTst.newReport;
+import static net.sourceforge.pmd.renderers.AbstractRendererTst.newRuleViolation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.rule.MockRule;
+
+public class BinaryReportTest {
+
+    @org.junit.Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Rule foo = new MockRule("Foo", "desc", "msg", "rulesetname");
+    private final Rule bar = new MockRule("Bar", "desc", "msg", "rulesetname");
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Report report = newReport(newRuleViolation(foo, "b.java", 20), newRuleViolation(bar, "b.java", 10));
+        report.addError(new Report.ProcessingError("Error", "c.java"));
+        byte[] bytes = render(newReport(newRuleViolation(foo, "a.java", 5)), report);
+
+        try (BinaryReportReader reader = new BinaryReportReader(new ByteArrayInputStream(bytes))) {
+            RuleViolation first = reader.read();
+            assertEquals("a.java", first.getFilename());
+            assertEquals(5, first.getBeginLine());
+            assertEquals(3, first.getBeginColumn());
+            assertEquals("Foo 5", first.getDescription());
+            assertEquals("Foo", first.getRule().getName());
+            assertEquals("rulesetname", first.getRule().getRuleSetName());
+            assertEquals(foo.getPriority(), first.getRule().getPriority());
+            RuleViolation second = reader.read();
+            assertEquals(10, second.getBeginLine());
+            assertEquals("Bar", second.getRule().getName());
+            assertEquals(20, reader.read().getBeginLine());
+            assertNull(reader.read());
+            assertEquals(1, reader.getErrors().size());
+            assertEquals("Error", reader.getErrors().get(0).getMsg());
+            assertEquals("c.java", reader.getErrors().get(0).getFile());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotABinaryReport() throws Exception {
+        new BinaryReportReader(new ByteArrayInputStream("<?xml version=\"1.0\"?>".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void testLaterVersion() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryReportWriter.MAGIC);
+        out.writeInt(BinaryReportWriter.VERSION);
+        // an unknown record
+        record(out, 42, 1, 2, 3);
+        // a rule and a string with an appended field
+        record(out, BinaryReportWriter.RULE, "Foo", "rulesetname", 3, null, null, null, 7);
+        record(out, BinaryReportWriter.STRING, "a.java", 7);
+        // rule, file, lines and columns, description, package, class, method, variable, an appended field
+        record(out, BinaryReportWriter.VIOLATION, 0, 0, 5, 3, 5, 4, "Foo 5", -1, -1, -1, -1, 7);
+
+        try (BinaryReportReader reader = new BinaryReportReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            RuleViolation violation = reader.read();
+            assertEquals("a.java", violation.getFilename());
+            assertEquals("Foo", violation.getRule().getName());
+            assertEquals(5, violation.getBeginLine());
+            assertEquals("Foo 5", violation.getDescription());
+            assertNull(violation.getClassName());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        byte[] bytes = render(newReport(newRuleViolation(foo, "a.java", 5)),
+                newReport(newRuleViolation(foo, "b.java", 6)));
+        File shard = write(Arrays.copyOf(bytes, bytes.length - 3));
+        try {
+            BinaryReportMerger.merge(Arrays.asList(shard), new TextRenderer());
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoOutputStream() throws Exception {
+        BinaryRenderer renderer = new BinaryRenderer();
+        renderer.setWriter(new StringWriter());
+        renderer.start();
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        File shard1 = write(render(newReport(newRuleViolation(foo, "a.java", 5)),
+                newReport(newRuleViolation(bar, "c.java", 1))));
+        File shard2 = write(render(newReport(newRuleViolation(bar, "b.java", 7)),
+                newReport(newRuleViolation(bar, "a.java", 2))));
+
+        TextRenderer renderer = new TextRenderer();
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        BinaryReportMerger.merge(Arrays.asList(shard1, shard2), renderer);
+
+        assertEquals("a.java:2:\tBar 2" + PMD.EOL + "a.java:5:\tFoo 5" + PMD.EOL + "b.java:7:\tBar 7" + PMD.EOL
+                + "c.java:1:\tBar 1" + PMD.EOL, writer.toString());
+    }
+
+    @Test
+    public void testMergeToXml() throws Exception {
+        File shard = write(render(newReport(newRuleViolation(foo, "a.java", 5))));
+
+        XMLRenderer renderer = new XMLRenderer();
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        BinaryReportMerger.merge(Arrays.asList(shard), renderer);
+
+        String xml = writer.toString();
+        assertTrue(xml.contains("<file name=\"a.java\">"));
+        assertTrue(xml.contains("rule=\"Foo\""));
+        assertTrue(xml.contains("ruleset=\"rulesetname\""));
+    }
+
+    private static byte[] render(Report... reports) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryRenderer renderer = new BinaryRenderer();
+        renderer.setOutputStream(out);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        renderer.flush();
+        return out.toByteArray();
+    }
+
+    private static void record(DataOutputStream out, int tag, Object... fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        for (Object field : fields) {
+            if (field instanceof Integer) {
+                record.writeInt((Integer) field);
+            } else if (field == null) {
+                record.writeInt(-1);
+            } else {
+                byte[] string = ((String) field).getBytes("UTF-8");
+                record.writeInt(string.length);
+                record.write(string);
+            }
+        }
+        out.writeByte(tag);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+}
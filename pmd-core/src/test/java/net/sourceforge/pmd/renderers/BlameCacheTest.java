@@ -0,0 +1,88 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.io.Files;
+
+public class BlameCacheTest {
+
+    private static final long FIRST = 1400000000000L;
+
+    private static final long SECOND = 1500000000000L;
+
+    private static void commit(Git git, String message, long time) throws Exception {
+        PersonIdent ident = new PersonIdent("rpau", "rpau@company.com", new Date(time), TimeZone.getTimeZone("UTC"));
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    @Test
+    public void testIncrementalBlame() throws Exception {
+        File tmpDir = Files.createTempDir();
+        File cacheDir = Files.createTempDir();
+        File cacheFile = new File(cacheDir, "blame.cache");
+        File foo = new File(tmpDir, "Foo.java");
+        Git git = Git.init().setDirectory(tmpDir).call();
+        try {
+            FileUtils.write(foo, "class Foo {\n    int x;\n}\n");
+            commit(git, "first", FIRST);
+            FileUtils.write(foo, "class Foo {\n    int x;\n    int y;\n}\n");
+            commit(git, "second", SECOND);
+
+            BlameCache cache = new BlameCache(git, cacheFile);
+            BlameCache.FileBlame blame = cache.getBlame("Foo.java", Arrays.asList(1, 2));
+            Assert.assertEquals(FIRST, blame.getTime(1));
+            Assert.assertEquals(SECOND, blame.getTime(2));
+            Assert.assertEquals(1, cache.getBlameRuns());
+
+            // same content and HEAD: no blame
+            Assert.assertEquals(SECOND, cache.getBlame("Foo.java", Arrays.asList(2)).getTime(2));
+            Assert.assertEquals(1, cache.getBlameRuns());
+
+            // a line inserted in the working tree: the other lines are moved
+            FileUtils.write(foo, "// Foo\nclass Foo {\n    int x;\n    int y;\n}\n");
+            blame = cache.getBlame("Foo.java", Arrays.asList(2, 3));
+            Assert.assertEquals(FIRST, blame.getTime(2));
+            Assert.assertEquals(SECOND, blame.getTime(3));
+            Assert.assertEquals(1, cache.getBlameRuns());
+            blame = cache.getBlame("Foo.java", Collections.singleton(0));
+            Assert.assertEquals(BlameCache.NOT_COMMITTED, blame.getTime(0));
+            Assert.assertEquals(2, cache.getBlameRuns());
+            cache.persist();
+
+            // the cache is kept between runs
+            cache = new BlameCache(git, cacheFile);
+            blame = cache.getBlame("Foo.java", Arrays.asList(0, 2, 3));
+            Assert.assertEquals(BlameCache.NOT_COMMITTED, blame.getTime(0));
+            Assert.assertEquals(FIRST, blame.getTime(2));
+            Assert.assertEquals(0, cache.getBlameRuns());
+
+            // once committed, the line is blamed again
+            cache.persist();
+            commit(git, "third", SECOND + 1000);
+            cache = new BlameCache(git, cacheFile);
+            blame = cache.getBlame("Foo.java", Arrays.asList(0, 3));
+            Assert.assertEquals(SECOND + 1000, blame.getTime(0));
+            Assert.assertEquals(SECOND, blame.getTime(3));
+            Assert.assertEquals(1, cache.getBlameRuns());
+        } finally {
+            git.close();
+            FileUtils.deleteDirectory(tmpDir);
+            FileUtils.deleteDirectory(cacheDir);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.FileDataSource;
+
+import com.google.common.io.Files;
+
+public class ChangedFilesProviderTest {
+
+    @Test
+    public void testDataSourcesOfChangedFiles() throws Exception {
+        File tmpDir = Files.createTempDir().getCanonicalFile();
+        try {
+            DataSource foo = new FileDataSource(new File(tmpDir, "Foo.java"));
+            DataSource bar = new FileDataSource(new File(tmpDir, "src/Bar.java"));
+            DataSource baz = new FileDataSource(new File(tmpDir, "Baz.java"));
+            DataSource outside = new FileDataSource(new File(tmpDir.getParentFile(), "Foo.java"));
+
+            ChangedFilesProvider provider = new ChangedFilesProvider(tmpDir.getPath(),
+                    new HashSet<>(Arrays.asList("Foo.java", "src/Bar.java")));
+
+            Assert.assertTrue(provider.isChanged("src" + File.separator + "Bar.java"));
+            Assert.assertFalse(provider.isChanged("Baz.java"));
+            List<DataSource> changed = provider.getDataSources(Arrays.asList(baz, bar, outside, foo));
+            Assert.assertEquals(Arrays.asList(bar, foo), changed);
+        } finally {
+            FileUtils.deleteDirectory(tmpDir);
+        }
+    }
+}
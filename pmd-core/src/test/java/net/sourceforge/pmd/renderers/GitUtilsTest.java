@@ -6,13 +6,21 @@ package net.sourceforge.pmd.renderers;
 
 import java.io.File;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.Assert;
 import org.junit.Test;
 
 import net.sourceforge.pmd.renderers.GitUtils.BranchResult;
+import net.sourceforge.pmd.renderers.GitUtils.DiffIndex;
+import net.sourceforge.pmd.renderers.GitUtils.FileRegion;
+import net.sourceforge.pmd.renderers.GitUtils.LineMap;
 
 import com.google.common.io.Files;
 
@@ -211,4 +219,85 @@ public class GitUtilsTest {
         }
     }
 
+    @Test
+    public void testIndexLastDiffs() throws Exception {
+        File tmpDir = Files.createTempDir();
+        Git git = Git.init().setDirectory(tmpDir).call();
+        try {
+            FileUtils.write(new File(tmpDir, "Foo.java"), "class Foo {\n}\n");
+            FileUtils.write(new File(tmpDir, "Bar.java"), "class Bar {\n}\n");
+            git.add().addFilepattern(".").call();
+            RevCommit first = git.commit().setMessage("first").setAuthor("rpau", "rpau@company.com")
+                    .setCommitter("rpau", "rpau@company.com").call();
+
+            FileUtils.write(new File(tmpDir, "Foo.java"), "class Foo {\n    int x;\n}\n");
+            FileUtils.write(new File(tmpDir, "Baz.java"), "class Baz {\n}\n");
+            git.add().addFilepattern(".").call();
+            RevCommit second = git.commit().setMessage("second").setAuthor("rpau", "rpau@company.com")
+                    .setCommitter("rpau", "rpau@company.com").call();
+
+            DiffIndex index = new GitUtils().indexLastDiffs(git, first, second);
+            Assert.assertEquals(2, index.getPaths().size());
+            Assert.assertNull(index.getDiff("Bar.java"));
+            Assert.assertNotNull(index.getDiff("Baz.java"));
+            Assert.assertTrue(index.getEdits("Baz.java").isEmpty());
+            EditList edits = index.getEdits("Foo.java");
+            Assert.assertEquals(1, edits.size());
+            Assert.assertEquals(new Edit(1, 1, 1, 2), edits.get(0));
+            Assert.assertSame(edits, index.getEdits("Foo.java"));
+            index.release();
+
+            Assert.assertTrue(new GitUtils().getCommittedPaths(git, second).isEmpty());
+            Assert.assertEquals(2, new GitUtils().getCommittedPaths(git, first).size());
+            Assert.assertTrue(new GitUtils().getUncommittedPaths(git).isEmpty());
+
+            FileUtils.write(new File(tmpDir, "Bar.java"), "class Bar { }\n");
+            Assert.assertEquals(Collections.singleton("Bar.java"), new GitUtils().getUncommittedPaths(git));
+        } finally {
+            git.close();
+            FileUtils.deleteDirectory(tmpDir);
+        }
+    }
+
+    @Test
+    public void testAreEquivalentLinesWithEdits() {
+        EditList edits = new EditList();
+        // two lines inserted before the region
+        edits.add(new Edit(2, 2, 2, 4));
+        Assert.assertTrue(GitUtils.areEquivalentLines(edits, new FileRegion(5, 0, 5, 10),
+                new FileRegion(7, 0, 7, 10)));
+        Assert.assertFalse(GitUtils.areEquivalentLines(edits, new FileRegion(5, 0, 5, 10),
+                new FileRegion(5, 0, 5, 10)));
+        Assert.assertTrue(GitUtils.areEquivalentLines(new EditList(), new FileRegion(5, 0, 5, 10),
+                new FileRegion(5, 0, 5, 10)));
+    }
+
+    @Test
+    public void testLineMap() {
+        EditList edits = new EditList();
+        // two lines inserted before line 2
+        edits.add(new Edit(2, 2, 2, 4));
+        // line 5 replaced by three lines
+        edits.add(new Edit(5, 6, 7, 10));
+        // lines 8 and 9 deleted
+        edits.add(new Edit(8, 10, 12, 12));
+        LineMap lines = new LineMap(edits);
+
+        Assert.assertEquals(0, lines.map(0));
+        Assert.assertEquals(1, lines.map(1));
+        Assert.assertEquals(4, lines.map(2));
+        Assert.assertEquals(6, lines.map(4));
+        Assert.assertEquals(-1, lines.map(5));
+        Assert.assertEquals(10, lines.map(6));
+        Assert.assertEquals(11, lines.map(7));
+        Assert.assertEquals(-1, lines.map(8));
+        Assert.assertEquals(-1, lines.map(9));
+        Assert.assertEquals(12, lines.map(10));
+
+        Assert.assertEquals(Arrays.asList(7), lines.getReplacingLines(3, 5));
+        Assert.assertEquals(Arrays.asList(7, 12), lines.getReplacingLines(5, 8));
+        Assert.assertTrue(lines.getReplacingLines(6, 7).isEmpty());
+        Assert.assertEquals(5, new LineMap(new EditList()).map(5));
+    }
+
 }
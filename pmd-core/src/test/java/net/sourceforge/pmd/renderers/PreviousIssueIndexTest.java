@@ -0,0 +1,82 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public class PreviousIssueIndexTest {
+
+    private static JsonObject issue(int beginLine, int endLine, String rule) {
+        JsonObject issue = new JsonObject();
+        issue.addProperty("beginLine", beginLine);
+        issue.addProperty("beginColumn", 1);
+        issue.addProperty("endLine", endLine);
+        issue.addProperty("endColumn", 10);
+        if (rule != null) {
+            issue.addProperty("rule", rule);
+        }
+        return issue;
+    }
+
+    private static RuleViolation violation(int beginLine, int endLine, String rule) {
+        DummyNode node = new DummyNode(1);
+        node.testingOnlySetBeginLine(beginLine);
+        node.testingOnlySetBeginColumn(1);
+        node.testingOnlySetEndLine(endLine);
+        node.testingOnlySetEndColumn(10);
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("Foo.java");
+        return new ParametricRuleViolation<>(new MockRule(rule, "desc", "msg", "rulesetname"), ctx, node, "msg");
+    }
+
+    @Test
+    public void testMovedIssues() {
+        EditList edits = new EditList();
+        // two lines inserted before the 3rd line
+        edits.add(new Edit(2, 2, 2, 4));
+        JsonArray issues = new JsonArray();
+        issues.add(issue(5, 5, "Foo"));
+        issues.add(issue(1, 1, null));
+        PreviousIssueIndex index = new PreviousIssueIndex(issues, new GitUtils.LineMap(edits));
+
+        Assert.assertTrue(index.isPreviouslyReported(violation(7, 7, "Foo")));
+        Assert.assertFalse(index.isPreviouslyReported(violation(7, 7, "Bar")));
+        Assert.assertFalse(index.isPreviouslyReported(violation(5, 5, "Foo")));
+        // an issue without rule matches any rule
+        Assert.assertTrue(index.isPreviouslyReported(violation(1, 1, "Bar")));
+    }
+
+    @Test
+    public void testReplacedIssues() {
+        EditList edits = new EditList();
+        // the 5th line replaced by three lines
+        edits.add(new Edit(4, 5, 4, 7));
+        JsonArray issues = new JsonArray();
+        issues.add(issue(3, 6, "Foo"));
+        PreviousIssueIndex index = new PreviousIssueIndex(issues, new GitUtils.LineMap(edits));
+
+        Assert.assertTrue(index.isPreviouslyReported(violation(3, 3, "Foo")));
+        Assert.assertTrue(index.isPreviouslyReported(violation(4, 8, "Foo")));
+        Assert.assertFalse(index.isPreviouslyReported(violation(6, 8, "Foo")));
+    }
+
+    @Test
+    public void testNoPreviousIssues() {
+        PreviousIssueIndex index = new PreviousIssueIndex(null, new GitUtils.LineMap(new EditList()));
+        Assert.assertFalse(index.isPreviouslyReported(violation(1, 1, "Foo")));
+    }
+}
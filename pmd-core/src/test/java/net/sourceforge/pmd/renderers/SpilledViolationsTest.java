@@ -0,0 +1,70 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static net.sourceforge.pmd.renderers.AbstractRendererTst.newReport;
+import static net.sourceforge.pmd.renderers.AbstractRendererTst.newRuleViolation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.rule.MockRule;
+
+public class SpilledViolationsTest {
+
+    private final Rule foo = new MockRule("Foo", "desc", "msg", "rulesetname");
+    private final Rule bar = new MockRule("Bar", "desc", "msg", "rulesetname");
+
+    @Test
+    public void testSortedByFile() throws Exception {
+        SpilledViolations violations = new SpilledViolations();
+        try {
+            violations.add(newReport(newRuleViolation(foo, "b.java", 20), newRuleViolation(bar, "b.java", 10)));
+            violations.add(new Report());
+            violations.add(newReport(newRuleViolation(foo, "a.java", 5)));
+            // a second report of the same file is merged
+            violations.add(newReport(newRuleViolation(bar, "b.java", 15)));
+
+            assertEquals(4, violations.size());
+            assertEquals(Integer.valueOf(2), violations.getSummary().get("Foo"));
+            assertEquals(Integer.valueOf(2), violations.getSummary().get("Bar"));
+            assertEquals(Integer.valueOf(4), violations.getCountSummary().get(""));
+
+            Iterator<RuleViolation> i = violations.iterator();
+            RuleViolation first = i.next();
+            assertEquals("a.java", first.getFilename());
+            assertEquals(5, first.getBeginLine());
+            assertEquals(3, first.getBeginColumn());
+            assertEquals("Foo 5", first.getDescription());
+            assertSame(foo, first.getRule());
+            assertEquals(10, i.next().getBeginLine());
+            assertEquals(15, i.next().getBeginLine());
+            RuleViolation last = i.next();
+            assertEquals("b.java", last.getFilename());
+            assertEquals(20, last.getBeginLine());
+            assertFalse(i.hasNext());
+
+            // the violations can be read again
+            assertEquals("a.java", violations.iterator().next().getFilename());
+        } finally {
+            violations.close();
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        SpilledViolations violations = new SpilledViolations();
+        assertFalse(violations.iterator().hasNext());
+        assertEquals(0, violations.size());
+        violations.close();
+    }
+}
@@ -4,14 +4,36 @@
 
 package net.sourceforge.pmd.renderers;
 
+import java.io.File;
 import java.io.IOException;
-
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.blame.BlameResult;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Assert;
+import org.junit.Test;
 import org.mockito.Mockito;
 
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.FileDataSource;
+
+import com.google.common.io.Files;
 import com.google.gson.JsonArray;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 
 public class WalkModHubRendererTest extends AbstractRendererTst {
 
@@ -19,7 +41,6 @@ public class WalkModHubRendererTest extends AbstractRendererTst {
     public Renderer getRenderer() {
         final RevCommit commit = Mockito.mock(RevCommit.class);
         final JsonArray previousIssues = new JsonArray();
-        final BlameResult blame = Mockito.mock(BlameResult.class);
         WalkModHubRenderer instance;
 
         instance = new WalkModHubRenderer() {
@@ -47,8 +68,8 @@ public class WalkModHubRendererTest extends AbstractRendererTst {
                 return previousIssues;
             }
 
-            protected BlameResult getBlame(String location) throws IOException {
-                return blame;
+            protected BlameCache.FileBlame getBlame(String location, Collection<Integer> lines) throws IOException {
+                return null;
             }
 
             protected boolean isEditedButStillNotCommitted(String location) throws IOException {
@@ -77,4 +98,137 @@ public class WalkModHubRendererTest extends AbstractRendererTst {
         return "";
     }
 
+    private static HttpHandler json(final String body, final Set<String> requests) {
+        return new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                synchronized (requests) {
+                    requests.add(exchange.getRequestURI().getPath() + "?" + exchange.getRequestURI().getQuery());
+                }
+                String query = String.valueOf(exchange.getRequestURI().getQuery());
+                byte[] bytes = body.replace("$query", query).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testPrefetchPreviousIssues() throws Exception {
+        File tmpDir = Files.createTempDir();
+        FileUtils.write(new File(tmpDir, "A.java"), "class A {}");
+        FileUtils.write(new File(tmpDir, "B.java"), "class B {}");
+        Set<String> requests = new HashSet<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/repo", json("{\"id\":\"123\"}", requests));
+        server.createContext("/analysis/", json("{\"analyzedBranch\":\"master\",\"commit\":\"abc\"}", requests));
+        server.createContext("/analysis/issues/", json("[{\"beginLine\":1,\"endLine\":1,\"query\":\"$query\"}]",
+                requests));
+        ExecutorService serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        WalkModHubRenderer renderer = new WalkModHubRenderer() {
+            protected String getBranch() {
+                return "master";
+            }
+
+            protected RevCommit getCommit(Git git, String name) throws IOException {
+                return null;
+            }
+        };
+        Git git = Git.init().setDirectory(tmpDir).call();
+        git.getRepository().getConfig().setString("remote", "origin", "url", "https://example.com/foo.git");
+        renderer.setGit(git);
+        renderer.setProperty(WalkModHubRenderer.HOST_PROPERTY, "localhost:" + server.getAddress().getPort());
+        renderer.setProperty(WalkModHubRenderer.WORKING_DIR_PROPERTY, tmpDir.getPath());
+        renderer.setWriter(new StringWriter());
+        try {
+            renderer.start();
+            Assert.assertEquals("master", renderer.getRemoteBranchToCompare());
+
+            renderer.prefetchPreviousIssues(Arrays.asList("A.java", "B.java", "Missing.java"));
+            JsonArray issues = renderer.getCachedPreviousIssues("A.java");
+            Assert.assertEquals(1, issues.size());
+            Assert.assertEquals("location=A.java", issues.get(0).getAsJsonObject().get("query").getAsString());
+            Assert.assertSame(issues, renderer.getCachedPreviousIssues("A.java"));
+            Assert.assertEquals("location=B.java", renderer.getCachedPreviousIssues("B.java").get(0)
+                    .getAsJsonObject().get("query").getAsString());
+            // not prefetched, fetched once on demand
+            renderer.getCachedPreviousIssues("C.java");
+            renderer.getCachedPreviousIssues("C.java");
+            renderer.end();
+
+            Set<String> expected = new HashSet<>(Arrays.asList("/repo?url=https://example.com/foo.git", "/analysis/123/master?null",
+                    "/analysis/issues/123/master?location=A.java", "/analysis/issues/123/master?location=B.java",
+                    "/analysis/issues/123/master?location=C.java"));
+            synchronized (requests) {
+                Assert.assertEquals(expected, requests);
+            }
+        } finally {
+            git.close();
+            server.stop(0);
+            serverExecutor.shutdownNow();
+            FileUtils.deleteDirectory(tmpDir);
+        }
+    }
+
+    @Test
+    public void testPrefetchFilteredFiles() throws Exception {
+        File tmpDir = Files.createTempDir().getCanonicalFile();
+        FileUtils.write(new File(tmpDir, "A.java"), "class A {}");
+        FileUtils.write(new File(tmpDir, "B.java"), "class B {}");
+        FileUtils.write(new File(tmpDir, "README.txt"), "readme");
+        Set<String> requests = new HashSet<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/repo", json("{\"id\":\"123\"}", requests));
+        server.createContext("/analysis/", json("{\"analyzedBranch\":\"master\",\"commit\":\"abc\"}", requests));
+        server.createContext("/analysis/issues/", json("[]", requests));
+        server.start();
+
+        WalkModHubRenderer renderer = new WalkModHubRenderer() {
+            protected String getBranch() {
+                return "master";
+            }
+
+            protected RevCommit getCommit(Git git, String name) throws IOException {
+                return null;
+            }
+        };
+        Git git = Git.init().setDirectory(tmpDir).call();
+        git.getRepository().getConfig().setString("remote", "origin", "url", "https://example.com/foo.git");
+        renderer.setGit(git);
+        renderer.setProperty(WalkModHubRenderer.HOST_PROPERTY, "localhost:" + server.getAddress().getPort());
+        renderer.setProperty(WalkModHubRenderer.WORKING_DIR_PROPERTY, tmpDir.getPath());
+        renderer.setWriter(new StringWriter());
+        try {
+            renderer.start();
+            // README.txt is changed too, but not a file of the analyzed languages
+            DataSource a = new FileDataSource(new File(tmpDir, "A.java"));
+            List<DataSource> files = renderer.filter(Arrays.<DataSource>asList(a));
+            Assert.assertEquals(Arrays.asList(a), files);
+            renderer.getCachedPreviousIssues("A.java");
+            renderer.end();
+
+            synchronized (requests) {
+                Assert.assertTrue(requests.contains("/analysis/issues/123/master?location=A.java"));
+                Assert.assertFalse(requests.contains("/analysis/issues/123/master?location=B.java"));
+                Assert.assertFalse(requests.contains("/analysis/issues/123/master?location=README.txt"));
+            }
+        } finally {
+            git.close();
+            server.stop(0);
+            FileUtils.deleteDirectory(tmpDir);
+        }
+    }
+
+    @Test
+    public void testNoPrefetchWithoutPreviousAnalysis() throws Exception {
+        WalkModHubRenderer renderer = new WalkModHubRenderer();
+        renderer.prefetchPreviousIssues(Collections.singleton("A.java"));
+        Assert.assertNull(renderer.getCachedPreviousIssues("A.java"));
+    }
+
 }
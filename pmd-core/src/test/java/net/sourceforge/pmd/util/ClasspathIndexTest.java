@@ -0,0 +1,128 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.cache.FileAnalysisCache;
+
+public class ClasspathIndexTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File createJar(String name, Class<?>... classes) throws IOException {
+        File jar = new File(tempFolder.getRoot(), name);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (Class<?> c : classes) {
+                String path = c.getName().replace('.', '/') + ".class";
+                out.putNextEntry(new ZipEntry(path));
+                try (InputStream in = c.getClassLoader().getResourceAsStream(path)) {
+                    IOUtils.copy(in, out);
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    @Test
+    public void testIndex() throws IOException {
+        File jar = createJar("classes.jar", ClasspathClassLoader.class, FileAnalysisCache.class,
+                StringUtil.class);
+        ClasspathIndex index = ClasspathIndex.build(new URL[] { jar.toURI().toURL() }, null);
+
+        assertEquals(3, index.size());
+        assertTrue(index.containsPackage("net.sourceforge.pmd.util"));
+        assertFalse(index.containsPackage("net.sourceforge.pmd"));
+        assertTrue(index.containsClass("net.sourceforge.pmd.util.ClasspathClassLoader"));
+        assertFalse(index.containsClass("net.sourceforge.pmd.util.IOUtil"));
+        assertEquals(new HashSet<>(Arrays.asList("ClasspathClassLoader", "StringUtil")),
+                index.getClassNames("net.sourceforge.pmd.util"));
+        assertTrue(index.containsClass("net.sourceforge.pmd.cache.FileAnalysisCache"));
+    }
+
+    @Test
+    public void testDirectory() throws IOException {
+        File directory = tempFolder.newFolder("classes");
+        File classFile = new File(directory, "net/sourceforge/pmd/cache/NoopAnalysisCache.class");
+        classFile.getParentFile().mkdirs();
+        try (InputStream in = getClass().getResourceAsStream("/net/sourceforge/pmd/cache/NoopAnalysisCache.class");
+                FileOutputStream out = new FileOutputStream(classFile)) {
+            IOUtils.copy(in, out);
+        }
+        ClasspathIndex index = ClasspathIndex.build(new URL[] { directory.toURI().toURL() }, null);
+        assertEquals(1, index.size());
+        assertTrue(index.containsClass("net.sourceforge.pmd.cache.NoopAnalysisCache"));
+    }
+
+    @Test
+    public void testIndexFile() throws IOException {
+        File jar = createJar("classes.jar", ClasspathClassLoader.class);
+        File indexFile = new File(tempFolder.getRoot(), "index");
+        URL[] urls = { jar.toURI().toURL() };
+        ClasspathIndex.build(urls, indexFile);
+        assertTrue(indexFile.isFile());
+
+        // the unchanged jar is read from the index file, which isn't written
+        // again
+        assertTrue(indexFile.setLastModified(1000L));
+        ClasspathIndex index = ClasspathIndex.build(urls, indexFile);
+        assertEquals(1000L, indexFile.lastModified());
+        assertTrue(index.containsClass("net.sourceforge.pmd.util.ClasspathClassLoader"));
+
+        // a changed jar is indexed again
+        createJar("classes.jar", ClasspathClassLoader.class, StringUtil.class);
+        assertTrue(jar.setLastModified(jar.lastModified() + 2000L));
+        index = ClasspathIndex.build(urls, indexFile);
+        assertTrue(index.containsClass("net.sourceforge.pmd.util.StringUtil"));
+        assertTrue(indexFile.lastModified() != 1000L);
+    }
+
+    @Test
+    public void testMalformedIndexFile() throws IOException {
+        File jar = createJar("classes.jar", ClasspathClassLoader.class);
+        File indexFile = tempFolder.newFile("index");
+        try (FileOutputStream out = new FileOutputStream(indexFile)) {
+            out.write(new byte[] { 1, 2, 3 });
+        }
+        ClasspathIndex index = ClasspathIndex.build(new URL[] { jar.toURI().toURL() }, indexFile);
+        assertTrue(index.containsClass("net.sourceforge.pmd.util.ClasspathClassLoader"));
+    }
+
+    @Test
+    public void testIndexNextToAnalysisCache() throws IOException {
+        File jar = createJar("classes.jar", ClasspathClassLoader.class);
+        File cacheFile = new File(tempFolder.getRoot(), "pmd.cache");
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.prependClasspath(jar.getPath());
+        assertNull(((ClasspathClassLoader) configuration.getClassLoader()).getIndex());
+
+        configuration.setAnalysisCacheLocation(cacheFile.getPath());
+        ClasspathIndex index = ((ClasspathClassLoader) configuration.getClassLoader()).getIndex();
+        assertTrue(index.containsClass("net.sourceforge.pmd.util.ClasspathClassLoader"));
+        assertTrue(new File(tempFolder.getRoot(), "pmd.cache.classpath-index").isFile());
+        IOUtil.tryCloseClassLoader(configuration.getClassLoader());
+    }
+}
@@ -0,0 +1,6 @@
+@echo off
+set TOPDIR=%~dp0..
+set OPTS=
+set MAIN_CLASS=net.sourceforge.pmd.renderers.BinaryReportMerger
+
+java -classpath %TOPDIR%\lib\* %OPTS% %MAIN_CLASS% %*
@@ -10,7 +10,7 @@ usage() {
 }
 
 valid_app_options () {
-    echo "pmd, cpd, cpdgui, designer, bgastviewer"
+    echo "pmd, cpd, cpdgui, designer, bgastviewer, mergereports"
 }
 
 is_cygwin() {
@@ -99,6 +99,9 @@ case "${APPNAME}" in
   "cpdgui")
     readonly CLASSNAME="net.sourceforge.pmd.cpd.GUI"
     ;;
+  "mergereports")
+    readonly CLASSNAME="net.sourceforge.pmd.renderers.BinaryReportMerger"
+    ;;
   *)
     echo "${APPNAME} is NOT a valid application name, valid options are:$(valid_app_options)"
     ;;
@@ -4,15 +4,14 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
+import java.io.Reader;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.Properties;
 
-import net.sourceforge.pmd.lang.LanguageRegistry;
-import net.sourceforge.pmd.lang.LanguageVersionHandler;
-import net.sourceforge.pmd.lang.TokenManager;
-import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import org.apache.commons.io.input.CharSequenceReader;
+
+import net.sourceforge.pmd.lang.java.JavaTokenManager;
 import net.sourceforge.pmd.lang.java.ast.JavaParserConstants;
 import net.sourceforge.pmd.lang.java.ast.Token;
 
@@ -21,6 +20,24 @@ public class JavaTokenizer implements Tokenizer {
     public static final String CPD_START = "\"CPD-START\"";
     public static final String CPD_END = "\"CPD-END\"";
 
+    /**
+     * The images used for literals and identifiers when they are ignored,
+     * indexed by token kind.
+     */
+    private static final String[] KIND_IMAGES = new String[JavaParserConstants.tokenImage.length];
+
+    static {
+        for (int i = 0; i < KIND_IMAGES.length; i++) {
+            KIND_IMAGES[i] = String.valueOf(i);
+        }
+    }
+
+    /**
+     * The token managers are reused from one file to the next, but can't be
+     * shared between threads.
+     */
+    private static final ThreadLocal<JavaTokenManager> TOKEN_MANAGER = new ThreadLocal<>();
+
     private boolean ignoreAnnotations;
     private boolean ignoreLiterals;
     private boolean ignoreIdentifiers;
@@ -32,14 +49,19 @@ public class JavaTokenizer implements Tokenizer {
     }
 
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
-        StringBuilder stringBuilder = sourceCode.getCodeBuffer();
+        // read the buffer directly, without copying it into a string
+        Reader reader = new CharSequenceReader(sourceCode.getCodeBuffer());
+        String fileName = sourceCode.getFileName();
 
         // Note that Java version is irrelevant for tokenizing
-        LanguageVersionHandler languageVersionHandler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME)
-                .getVersion("1.4").getLanguageVersionHandler();
-        String fileName = sourceCode.getFileName();
-        TokenManager tokenMgr = languageVersionHandler.getParser(languageVersionHandler.getDefaultParserOptions())
-                .getTokenManager(fileName, new StringReader(stringBuilder.toString()));
+        JavaTokenManager tokenMgr = TOKEN_MANAGER.get();
+        if (tokenMgr == null) {
+            tokenMgr = new JavaTokenManager(reader);
+            TOKEN_MANAGER.set(tokenMgr);
+        } else {
+            tokenMgr.reset(reader);
+        }
+        tokenMgr.setFileName(fileName);
         Token currentToken = (Token) tokenMgr.getNextToken();
 
         TokenDiscarder discarder = new TokenDiscarder(ignoreAnnotations);
@@ -69,10 +91,10 @@ public class JavaTokenizer implements Tokenizer {
                 || currentToken.kind == JavaParserConstants.CHARACTER_LITERAL
                 || currentToken.kind == JavaParserConstants.DECIMAL_LITERAL
                 || currentToken.kind == JavaParserConstants.FLOATING_POINT_LITERAL)) {
-            image = String.valueOf(currentToken.kind);
+            image = KIND_IMAGES[currentToken.kind];
         }
         if (ignoreIdentifiers && currentToken.kind == JavaParserConstants.IDENTIFIER) {
-            image = String.valueOf(currentToken.kind);
+            image = KIND_IMAGES[currentToken.kind];
         }
 
         constructorDetector.processToken(currentToken);
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.java;
 import java.io.Reader;
 
 import net.sourceforge.pmd.lang.TokenManager;
+import net.sourceforge.pmd.lang.ast.CharStream;
 import net.sourceforge.pmd.lang.ast.JavaCharStream;
 import net.sourceforge.pmd.lang.java.ast.JavaParserTokenManager;
 
@@ -14,10 +15,12 @@ import net.sourceforge.pmd.lang.java.ast.JavaParserTokenManager;
  * Java Token Manager implementation.
  */
 public class JavaTokenManager implements TokenManager {
-    private final JavaParserTokenManager tokenManager;
+    private final JavaCharStream charStream;
+    private final ReusableTokenManager tokenManager;
 
     public JavaTokenManager(Reader source) {
-        tokenManager = new JavaParserTokenManager(new JavaCharStream(source));
+        charStream = new JavaCharStream(source);
+        tokenManager = new ReusableTokenManager(charStream);
     }
 
     public Object getNextToken() {
@@ -27,4 +30,29 @@ public class JavaTokenManager implements TokenManager {
     public void setFileName(String fileName) {
         tokenManager.setFileName(fileName);
     }
+
+    /**
+     * Starts reading tokens from another source. The buffers of the character
+     * stream and of the token manager are reused, so that one instance can
+     * tokenize many files.
+     *
+     * @param source
+     *            the new source
+     */
+    public void reset(Reader source) {
+        charStream.ReInit(source);
+        tokenManager.reset(charStream);
+    }
+
+    private static class ReusableTokenManager extends JavaParserTokenManager {
+        ReusableTokenManager(CharStream stream) {
+            super(stream);
+        }
+
+        void reset(CharStream stream) {
+            ReInit(stream);
+            comments.clear();
+            suppressMap.clear();
+        }
+    }
 }
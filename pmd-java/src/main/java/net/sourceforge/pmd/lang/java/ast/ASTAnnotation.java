@@ -5,7 +5,8 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import net.sourceforge.pmd.Rule;
@@ -13,12 +14,6 @@ import net.sourceforge.pmd.lang.ast.Node;
 
 public class ASTAnnotation extends AbstractJavaNode {
 
-    private static List<String> unusedRules = Arrays.asList(new String[] { "UnusedPrivateField", "UnusedLocalVariable",
-        "UnusedPrivateMethod", "UnusedFormalParameter", });
-
-    private static List<String> serialRules = Arrays
-            .asList(new String[] { "BeanMembersShouldSerialize", "MissingSerialVersionUID" });
-
     public ASTAnnotation(int id) {
         super(id);
     }
@@ -28,37 +23,36 @@ public class ASTAnnotation extends AbstractJavaNode {
     }
 
     public boolean suppresses(Rule rule) {
-        final String ruleAnno = "\"PMD." + rule.getName() + "\"";
-
-        if (jjtGetChild(0) instanceof ASTSingleMemberAnnotation) {
-            ASTSingleMemberAnnotation n = (ASTSingleMemberAnnotation) jjtGetChild(0);
-            return checkAnnototation(n, ruleAnno, rule);
-        } else if (jjtGetChild(0) instanceof ASTNormalAnnotation) {
-            ASTNormalAnnotation n = (ASTNormalAnnotation) jjtGetChild(0);
-            return checkAnnototation(n, ruleAnno, rule);
+        SuppressionIndex.Suppressions suppressions = new SuppressionIndex.Suppressions();
+        for (String value : getSuppressWarningsValues()) {
+            suppressions.add(value);
         }
-        return false;
+        return suppressions.suppresses(rule.getName());
     }
 
-    private boolean checkAnnototation(Node n, String ruleAnno, Rule rule) {
-        if (n.jjtGetChild(0) instanceof ASTName) {
-            ASTName annName = (ASTName) n.jjtGetChild(0);
+    /**
+     * Returns the values of this annotation if it is a SuppressWarnings
+     * annotation.
+     *
+     * @return the images of the values, with their quotes, or an empty list
+     */
+    public List<String> getSuppressWarningsValues() {
+        if (jjtGetChild(0) instanceof ASTSingleMemberAnnotation || jjtGetChild(0) instanceof ASTNormalAnnotation) {
+            Node n = jjtGetChild(0);
+            if (n.jjtGetChild(0) instanceof ASTName) {
+                ASTName annName = (ASTName) n.jjtGetChild(0);
 
-            if ("SuppressWarnings".equals(annName.getImage())
-                    || "java.lang.SuppressWarnings".equals(annName.getImage())) {
-                List<ASTLiteral> nodes = n.findDescendantsOfType(ASTLiteral.class);
-                for (ASTLiteral element : nodes) {
-                    if (element.hasImageEqualTo("\"PMD\"") || element.hasImageEqualTo(ruleAnno)
-                            // Check for standard annotations values
-                            || element.hasImageEqualTo("\"all\"")
-                            || element.hasImageEqualTo("\"serial\"") && serialRules.contains(rule.getName())
-                            || element.hasImageEqualTo("\"unused\"") && unusedRules.contains(rule.getName())) {
-                        return true;
+                if ("SuppressWarnings".equals(annName.getImage())
+                        || "java.lang.SuppressWarnings".equals(annName.getImage())) {
+                    List<String> values = new ArrayList<>();
+                    for (ASTLiteral element : n.findDescendantsOfType(ASTLiteral.class)) {
+                        values.add(element.getImage());
                     }
+                    return values;
                 }
             }
         }
-        return false;
+        return Collections.emptyList();
     }
 
     /**
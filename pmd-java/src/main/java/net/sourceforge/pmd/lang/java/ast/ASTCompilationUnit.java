@@ -16,6 +16,7 @@ public class ASTCompilationUnit extends AbstractJavaTypeNode implements RootNode
 
     private ClassTypeResolver classTypeResolver;
     private List<Comment> comments;
+    private SuppressionIndex suppressionIndex;
 
     public ASTCompilationUnit(int id) {
         super(id);
@@ -53,6 +54,19 @@ public class ASTCompilationUnit extends AbstractJavaTypeNode implements RootNode
         return null;
     }
 
+    /**
+     * Returns the index of the SuppressWarnings annotations of this
+     * compilation unit. It is built the first time it is needed.
+     *
+     * @return the suppression index
+     */
+    public SuppressionIndex getSuppressionIndex() {
+        if (suppressionIndex == null) {
+            suppressionIndex = new SuppressionIndex(this);
+        }
+        return suppressionIndex;
+    }
+
     public ClassTypeResolver getClassTypeResolver() {
         return classTypeResolver;
     }
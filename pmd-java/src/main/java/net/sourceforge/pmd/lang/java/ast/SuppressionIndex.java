@@ -0,0 +1,136 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.ast;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * The SuppressWarnings annotations of a compilation unit, indexed by the
+ * declarations they annotate. The annotations are read and their values parsed
+ * once, and whether a node is suppressed is a lookup of the node and its
+ * parents in the index, instead of reading their annotations again for each
+ * violation.
+ *
+ * <p>A node is suppressed for a rule if the node or one of its parents is
+ * annotated so, or, for the compilation unit itself, if one of its type
+ * declarations is annotated so; as
+ * {@link CanSuppressWarnings#hasSuppressWarningsAnnotationFor(net.sourceforge.pmd.Rule)}.</p>
+ *
+ * @see ASTCompilationUnit#getSuppressionIndex()
+ */
+public class SuppressionIndex {
+
+    // annotated declaration -> values of its annotations
+    private final Map<Node, Suppressions> suppressionsByNode = new IdentityHashMap<>();
+
+    // the values of the annotations of the type declarations
+    private final Suppressions topLevelSuppressions = new Suppressions();
+
+    // the parsed values of SuppressWarnings annotations, also used by ASTAnnotation
+    static class Suppressions {
+        private static final List<String> UNUSED_RULES = Collections.unmodifiableList(Arrays.asList(
+                "UnusedPrivateField", "UnusedLocalVariable", "UnusedPrivateMethod", "UnusedFormalParameter"));
+
+        private static final List<String> SERIAL_RULES = Collections.unmodifiableList(Arrays.asList(
+                "BeanMembersShouldSerialize", "MissingSerialVersionUID"));
+
+        private boolean all;
+        private boolean serial;
+        private boolean unused;
+        private final Set<String> ruleNames = new HashSet<>();
+
+        void add(String value) {
+            if ("\"PMD\"".equals(value) || "\"all\"".equals(value)) {
+                all = true;
+            } else if ("\"serial\"".equals(value)) {
+                serial = true;
+            } else if ("\"unused\"".equals(value)) {
+                unused = true;
+            } else if (value.startsWith("\"PMD.") && value.endsWith("\"")) {
+                ruleNames.add(value.substring("\"PMD.".length(), value.length() - 1));
+            }
+        }
+
+        boolean suppresses(String ruleName) {
+            return all || ruleNames.contains(ruleName) || serial && SERIAL_RULES.contains(ruleName)
+                    || unused && UNUSED_RULES.contains(ruleName);
+        }
+    }
+
+    /**
+     * Indexes the SuppressWarnings annotations of a compilation unit.
+     *
+     * @param compilationUnit
+     *            the compilation unit
+     */
+    public SuppressionIndex(ASTCompilationUnit compilationUnit) {
+        for (int i = 0; i < compilationUnit.jjtGetNumChildren(); i++) {
+            index(compilationUnit.jjtGetChild(i), true);
+        }
+    }
+
+    private void index(Node node, boolean topLevel) {
+        if (node instanceof CanSuppressWarnings) {
+            Suppressions suppressions = null;
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (node.jjtGetChild(i) instanceof ASTAnnotation) {
+                    for (String value : ((ASTAnnotation) node.jjtGetChild(i)).getSuppressWarningsValues()) {
+                        if (suppressions == null) {
+                            suppressions = new Suppressions();
+                            suppressionsByNode.put(node, suppressions);
+                        }
+                        suppressions.add(value);
+                        if (topLevel) {
+                            topLevelSuppressions.add(value);
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            index(node.jjtGetChild(i), false);
+        }
+    }
+
+    /**
+     * Returns if no SuppressWarnings annotation applies to any rule.
+     *
+     * @return true if there is no annotation
+     */
+    public boolean isEmpty() {
+        return suppressionsByNode.isEmpty();
+    }
+
+    /**
+     * Returns if the violations of a rule on a node are suppressed.
+     *
+     * @param node
+     *            a node of the indexed compilation unit
+     * @param ruleName
+     *            the name of the rule
+     * @return true if a SuppressWarnings annotation applies to the node
+     */
+    public boolean isSuppressed(Node node, String ruleName) {
+        if (node instanceof ASTCompilationUnit) {
+            return topLevelSuppressions.suppresses(ruleName);
+        }
+        // only the annotations of the enclosing declarations are looked up
+        for (Node current = node; current != null; current = current.jjtGetParent()) {
+            Suppressions suppressions = suppressionsByNode.get(current);
+            if (suppressions != null && suppressions.suppresses(ruleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
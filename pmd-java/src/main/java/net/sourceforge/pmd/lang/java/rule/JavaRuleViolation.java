@@ -19,6 +19,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 import net.sourceforge.pmd.lang.java.ast.AccessNode;
 import net.sourceforge.pmd.lang.java.ast.CanSuppressWarnings;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.SuppressionIndex;
 import net.sourceforge.pmd.lang.java.symboltable.ClassNameDeclaration;
 import net.sourceforge.pmd.lang.java.symboltable.ClassScope;
 import net.sourceforge.pmd.lang.java.symboltable.MethodScope;
@@ -73,24 +74,26 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
 
     /**
      * Check for suppression on this node, on parents, and on contained types
-     * for ASTCompilationUnit
+     * for ASTCompilationUnit. The annotations are looked up in the
+     * {@link ASTCompilationUnit#getSuppressionIndex() suppression index} of
+     * the compilation unit of the node.
      * 
      * @param node
      */
     public static boolean isSupressed(Node node, Rule rule) {
-        boolean result = suppresses(node, rule);
-
-        if (!result && node instanceof ASTCompilationUnit) {
-            for (int i = 0; !result && i < node.jjtGetNumChildren(); i++) {
-                result = suppresses(node.jjtGetChild(i), rule);
-            }
+        ASTCompilationUnit compilationUnit = node instanceof ASTCompilationUnit ? (ASTCompilationUnit) node
+                : node.getFirstParentOfType(ASTCompilationUnit.class);
+        if (compilationUnit != null) {
+            SuppressionIndex index = compilationUnit.getSuppressionIndex();
+            return !index.isEmpty() && index.isSuppressed(node, rule.getName());
         }
-        if (!result) {
-            Node parent = node.jjtGetParent();
-            while (!result && parent != null) {
-                result = suppresses(parent, rule);
-                parent = parent.jjtGetParent();
-            }
+
+        // a node which isn't in a compilation unit
+        boolean result = suppresses(node, rule);
+        Node parent = node.jjtGetParent();
+        while (!result && parent != null) {
+            result = suppresses(parent, rule);
+            parent = parent.jjtGetParent();
         }
         return result;
     }
@@ -5,57 +5,40 @@
 package net.sourceforge.pmd.lang.java.rule.controversial;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.DataFlowAnomalyAnalysis;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
-import net.sourceforge.pmd.lang.dfa.VariableAccess;
-import net.sourceforge.pmd.lang.dfa.pathfinder.CurrentPath;
-import net.sourceforge.pmd.lang.dfa.pathfinder.DAAPathFinder;
-import net.sourceforge.pmd.lang.dfa.pathfinder.Executable;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.lang.rule.properties.IntegerProperty;
 
 /**
- * Starts path search for each method and runs code if found.
+ * Finds the data flow anomalies of each method, see
+ * {@link DataFlowAnomalyAnalysis}.
  *
  * @author raik
  * @author Sven Jacob
  */
-public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Executable {
+public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements DataFlowAnomalyAnalysis.AnomalyHandler {
     private RuleContext rc;
-    private List<DaaRuleViolation> daaRuleViolations;
+    private Set<String> daaRuleViolations;
     private int maxRuleViolations;
     private int currentRuleViolationCount;
 
+    /**
+     * Not used anymore: the anomalies are found on all paths at once.
+     */
     private static final IntegerProperty MAX_PATH_DESCRIPTOR = new IntegerProperty("maxPaths",
-            "Maximum number of checked paths per method. A lower value will increase the performance of the rule but may decrease anomalies found.",
-            100, 8000, 1000, 1.0f);
+            "Deprecated and ignored: all paths of a method are analyzed.", 100, 8000, 1000, 1.0f);
 
     private static final IntegerProperty MAX_VIOLATIONS_DESCRIPTOR = new IntegerProperty("maxViolations",
             "Maximum number of anomalies per class", 1, 2000, 100, 2.0f);
 
-    private static class Usage {
-        public int accessType;
-        public DataFlowNode node;
-
-        Usage(int accessType, DataFlowNode node) {
-            this.accessType = accessType;
-            this.node = node;
-        }
-
-        public String toString() {
-            return "accessType = " + accessType + ", line = " + node.getLine();
-        }
-    }
-
     public DataflowAnomalyAnalysisRule() {
         definePropertyDescriptor(MAX_PATH_DESCRIPTOR);
         definePropertyDescriptor(MAX_VIOLATIONS_DESCRIPTOR);
@@ -69,62 +52,27 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
 
     public Object visit(ASTMethodDeclaration methodDeclaration, Object data) {
         rc = (RuleContext) data;
-        daaRuleViolations = new ArrayList<>();
-
-        final DataFlowNode node = methodDeclaration.getDataFlowNode().getFlow().get(0);
+        daaRuleViolations = new HashSet<>();
 
-        final DAAPathFinder pathFinder = new DAAPathFinder(node, this, getProperty(MAX_PATH_DESCRIPTOR));
-        pathFinder.run();
+        if (!maxNumberOfViolationsReached()) {
+            DataFlowNode node = methodDeclaration.getDataFlowNode();
+            new DataFlowAnomalyAnalysis(node.getFlow()).findAnomalies(this);
+        }
 
         super.visit(methodDeclaration, data);
         return data;
     }
 
-    public void execute(CurrentPath path) {
-
-        if (maxNumberOfViolationsReached()) {
-            return;
-        }
-
-        Map<String, Usage> usagesByVarName = new HashMap<>();
-
-        Iterator<DataFlowNode> pathIterator = path.iterator();
-        while (pathIterator.hasNext()) {
-            // iterate all nodes in this path
-            DataFlowNode inode = pathIterator.next();
-            if (inode.getVariableAccess() != null) {
-                // iterate all variables of this node
-                for (VariableAccess va : inode.getVariableAccess()) {
-
-                    // get the last usage of the current variable
-                    Usage lastUsage = usagesByVarName.get(va.getVariableName());
-                    if (lastUsage != null) {
-                        // there was a usage to this variable before
-                        checkVariableAccess(inode, va, lastUsage);
-                    }
-
-                    Usage newUsage = new Usage(va.getAccessType(), inode);
-                    // put the new usage for the variable
-                    usagesByVarName.put(va.getVariableName(), newUsage);
-                }
-            }
-        }
-    }
-
-    private void checkVariableAccess(DataFlowNode inode, VariableAccess va, final Usage u) {
+    @Override
+    public void anomalyFound(String type, String variableName, DataFlowNode firstNode, DataFlowNode lastNode) {
         // get the start and end line
-        int startLine = u.node.getLine();
-        int endLine = inode.getLine();
-
-        Node lastNode = inode.getNode();
-        Node firstNode = u.node.getNode();
-
-        if (va.accessTypeMatches(u.accessType) && va.isDefinition()) { // DD
-            addDaaViolation(rc, lastNode, "DD", va.getVariableName(), startLine, endLine);
-        } else if (u.accessType == VariableAccess.UNDEFINITION && va.isReference()) { // UR
-            addDaaViolation(rc, lastNode, "UR", va.getVariableName(), startLine, endLine);
-        } else if (u.accessType == VariableAccess.DEFINITION && va.isUndefinition()) { // DU
-            addDaaViolation(rc, firstNode, "DU", va.getVariableName(), startLine, endLine);
+        int startLine = firstNode.getLine();
+        int endLine = lastNode.getLine();
+
+        if (DataFlowAnomalyAnalysis.DU.equals(type)) {
+            addDaaViolation(rc, firstNode.getNode(), type, variableName, startLine, endLine);
+        } else {
+            addDaaViolation(rc, lastNode.getNode(), type, variableName, startLine, endLine);
         }
     }
 
@@ -132,7 +80,7 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
      * Adds a daa violation to the report.
      */
     private void addDaaViolation(Object data, Node node, String type, String var, int startLine, int endLine) {
-        if (!maxNumberOfViolationsReached() && !violationAlreadyExists(type, var, startLine, endLine) && node != null) {
+        if (node != null && !maxNumberOfViolationsReached() && !violationAlreadyExists(type, var, startLine, endLine)) {
             RuleContext ctx = (RuleContext) data;
             String msg = type;
             if (getMessage() != null) {
@@ -140,7 +88,6 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
             }
             DaaRuleViolation violation = new DaaRuleViolation(this, ctx, node, type, msg, var, startLine, endLine);
             ctx.getReport().addRuleViolation(violation);
-            daaRuleViolations.add(violation);
             currentRuleViolationCount++;
         }
     }
@@ -156,9 +103,9 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
     }
 
     /**
-     * Checks if a violation already exists. This is needed because on the
-     * different paths same anomalies can occur.
-     * 
+     * Checks if a violation already exists. This is needed because the
+     * same anomaly can be found for different nodes on the same lines.
+     *
      * @param type
      * @param var
      * @param startLine
@@ -166,12 +113,6 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
      * @return true if the violation already was added to the report
      */
     private boolean violationAlreadyExists(String type, String var, int startLine, int endLine) {
-        for (DaaRuleViolation violation : daaRuleViolations) {
-            if (violation.getBeginLine() == startLine && violation.getEndLine() == endLine
-                    && violation.getType().equals(type) && violation.getVariableName().equals(var)) {
-                return true;
-            }
-        }
-        return false;
+        return !daaRuleViolations.add(type + ':' + var + ':' + startLine + ':' + endLine);
     }
 }
@@ -4,14 +4,13 @@
 
 package net.sourceforge.pmd.lang.java.rule.imports;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.HashSet;
 import java.util.Set;
 
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.java.typeresolution.ClassStub;
 import net.sourceforge.pmd.lang.rule.ImportWrapper;
 
 public class DuplicateImportsRule extends AbstractJavaRule {
@@ -65,14 +64,17 @@ public class DuplicateImportsRule extends AbstractJavaRule {
                         return true;
                     }
                 } else {
-                    Class<?> importClass = node.getClassTypeResolver().loadClass(thisImportOnDemand.getName());
-                    if (importClass != null) {
-                        for (Method m : importClass.getMethods()) {
-                            if (Modifier.isStatic(m.getModifiers()) && m.getName().equals(singleTypeName)) {
+                    // the class is only inspected, it doesn't need to be loaded
+                    ClassStub importClass = node.getClassTypeResolver().getClassStub(thisImportOnDemand.getName());
+                    while (importClass != null) {
+                        for (ClassStub.Member m : importClass.getMethods(singleTypeName)) {
+                            if (m.isStatic() && m.isPublic()) {
                                 // static method in another imported class
                                 return true;
                             }
                         }
+                        importClass = importClass.getSuperName() == null ? null
+                                : node.getClassTypeResolver().getClassStub(importClass.getSuperName());
                     }
                 }
             }
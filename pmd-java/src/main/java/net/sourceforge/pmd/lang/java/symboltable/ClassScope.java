@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.java.symboltable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -36,6 +37,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTTypeParameter;
 import net.sourceforge.pmd.lang.java.ast.ASTTypeParameters;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 import net.sourceforge.pmd.lang.java.ast.JavaParserTreeConstants;
+import net.sourceforge.pmd.lang.symboltable.AbstractScope;
 import net.sourceforge.pmd.lang.symboltable.Applier;
 import net.sourceforge.pmd.lang.symboltable.ImageFinderFunction;
 import net.sourceforge.pmd.lang.symboltable.NameDeclaration;
@@ -73,6 +75,9 @@ public class ClassScope extends AbstractJavaScope {
 
     private boolean isEnum;
 
+    /** The parameter types of the methods, computed once per method. */
+    private final Map<MethodNameDeclaration, List<TypedNameDeclaration>> methodParameterTypes = new IdentityHashMap<>();
+
     public ClassScope(final String className) {
         this.className = Objects.requireNonNull(className);
         anonymousInnerClassCounter.set(Integer.valueOf(1));
@@ -184,43 +189,43 @@ public class ClassScope extends AbstractJavaScope {
         Set<NameDeclaration> result = new HashSet<>();
         if (occurrence.isMethodOrConstructorInvocation()) {
             final boolean hasAuxclasspath = getEnclosingScope(SourceFileScope.class).hasAuxclasspath();
-            for (MethodNameDeclaration mnd : methodDeclarations.keySet()) {
-                if (mnd.getImage().equals(occurrence.getImage())) {
-                    List<TypedNameDeclaration> parameterTypes = determineParameterTypes(mnd);
-                    List<TypedNameDeclaration> argumentTypes = determineArgumentTypes(occurrence, parameterTypes);
-
-                    if (!mnd.isVarargs() && occurrence.getArgumentCount() == mnd.getParameterCount()
-                            && (!hasAuxclasspath || parameterTypes.equals(argumentTypes))) {
+            for (MethodNameDeclaration mnd : getDeclarationsByImage(MethodNameDeclaration.class,
+                    occurrence.getImage())) {
+                if (!mnd.isVarargs()) {
+                    if (occurrence.getArgumentCount() == mnd.getParameterCount()
+                            && (!hasAuxclasspath || isApplicable(mnd, occurrence))) {
                         result.add(mnd);
-                    } else if (mnd.isVarargs()) {
-                        int varArgIndex = parameterTypes.size() - 1;
-                        TypedNameDeclaration varArgType = parameterTypes.get(varArgIndex);
-
-                        // first parameter is varArg, calling method might have
-                        // 0 or more arguments
-                        // or the calling method has enough arguments to fill in
-                        // the parameters before the vararg
-                        if ((varArgIndex == 0 || argumentTypes.size() >= varArgIndex)
-                                && (!hasAuxclasspath || parameterTypes
-                                        .subList(0, varArgIndex).equals(argumentTypes.subList(0, varArgIndex)))) {
-
-                            if (!hasAuxclasspath) {
-                                result.add(mnd);
-                                continue;
-                            }
-
-                            boolean sameType = true;
-                            for (int i = varArgIndex; i < argumentTypes.size(); i++) {
-                                if (!varArgType.equals(argumentTypes.get(i))) {
-                                    sameType = false;
-                                    break;
-                                }
-                            }
-                            if (sameType) {
-                                result.add(mnd);
-                            }
+                    }
+                    continue;
+                }
+                List<TypedNameDeclaration> parameterTypes = getParameterTypes(mnd);
+                List<TypedNameDeclaration> argumentTypes = determineArgumentTypes(occurrence, parameterTypes);
+                int varArgIndex = parameterTypes.size() - 1;
+                TypedNameDeclaration varArgType = parameterTypes.get(varArgIndex);
+
+                // first parameter is varArg, calling method might have
+                // 0 or more arguments
+                // or the calling method has enough arguments to fill in
+                // the parameters before the vararg
+                if ((varArgIndex == 0 || argumentTypes.size() >= varArgIndex)
+                        && (!hasAuxclasspath || parameterTypes
+                                .subList(0, varArgIndex).equals(argumentTypes.subList(0, varArgIndex)))) {
+
+                    if (!hasAuxclasspath) {
+                        result.add(mnd);
+                        continue;
+                    }
+
+                    boolean sameType = true;
+                    for (int i = varArgIndex; i < argumentTypes.size(); i++) {
+                        if (!varArgType.equals(argumentTypes.get(i))) {
+                            sameType = false;
+                            break;
                         }
                     }
+                    if (sameType) {
+                        result.add(mnd);
+                    }
                 }
             }
             if (isEnum && "valueOf".equals(occurrence.getImage())) {
@@ -229,11 +234,7 @@ public class ClassScope extends AbstractJavaScope {
             return result;
         }
         if (occurrence.isMethodReference()) {
-            for (MethodNameDeclaration mnd : methodDeclarations.keySet()) {
-                if (mnd.getImage().equals(occurrence.getImage())) {
-                    result.add(mnd);
-                }
-            }
+            result.addAll(getDeclarationsByImage(MethodNameDeclaration.class, occurrence.getImage()));
             return result;
         }
 
@@ -244,25 +245,39 @@ public class ClassScope extends AbstractJavaScope {
                 images.add(clipClassName(occurrence.getImage()));
             }
         }
-        ImageFinderFunction finder = new ImageFinderFunction(images);
-        Applier.apply(finder, variableDeclarations.keySet().iterator());
-        if (finder.getDecl() != null) {
-            result.add(finder.getDecl());
+        NameDeclaration decl = findVariableDeclaration(this, images);
+        if (decl != null) {
+            result.add(decl);
         }
 
         // search inner classes
         Map<ClassNameDeclaration, List<NameOccurrence>> classDeclarations = getClassDeclarations();
         if (result.isEmpty() && !classDeclarations.isEmpty()) {
             for (ClassNameDeclaration innerClass : getClassDeclarations().keySet()) {
-                Applier.apply(finder, innerClass.getScope().getDeclarations(VariableNameDeclaration.class).keySet().iterator());
-                if (finder.getDecl() != null) {
-                    result.add(finder.getDecl());
+                decl = findVariableDeclaration(innerClass.getScope(), images);
+                if (decl != null) {
+                    result.add(decl);
                 }
             }
         }
         return result;
     }
 
+    /**
+     * Finds the first variable declared in the given scope with one of the
+     * given images.
+     */
+    private static NameDeclaration findVariableDeclaration(Scope scope, List<String> images) {
+        if (images.size() == 1 && scope instanceof AbstractScope) {
+            List<VariableNameDeclaration> declarations = ((AbstractScope) scope)
+                    .getDeclarationsByImage(VariableNameDeclaration.class, images.get(0));
+            return declarations.isEmpty() ? null : declarations.get(0);
+        }
+        ImageFinderFunction finder = new ImageFinderFunction(images);
+        Applier.apply(finder, scope.getDeclarations(VariableNameDeclaration.class).keySet().iterator());
+        return finder.getDecl();
+    }
+
     /**
      * Creates a fake method name declaration for built-in methods from Java
      * like the Enum Method "valueOf".
@@ -332,6 +347,20 @@ public class ClassScope extends AbstractJavaScope {
         return new MethodNameDeclaration(methodDeclarator);
     }
 
+    private boolean isApplicable(MethodNameDeclaration mnd, JavaNameOccurrence occurrence) {
+        List<TypedNameDeclaration> parameterTypes = getParameterTypes(mnd);
+        return parameterTypes.equals(determineArgumentTypes(occurrence, parameterTypes));
+    }
+
+    private List<TypedNameDeclaration> getParameterTypes(MethodNameDeclaration mnd) {
+        List<TypedNameDeclaration> result = methodParameterTypes.get(mnd);
+        if (result == null) {
+            result = determineParameterTypes(mnd);
+            methodParameterTypes.put(mnd, result);
+        }
+        return result;
+    }
+
     /**
      * Provide a list of types of the parameters of the given method
      * declaration. The types are simple type images.
@@ -54,7 +54,7 @@ public class LocalScope extends AbstractJavaScope {
             return Collections.emptySet();
         }
         DeclarationFinderFunction finder = new DeclarationFinderFunction(occurrence);
-        Applier.apply(finder, getVariableDeclarations().keySet().iterator());
+        Applier.apply(finder, getDeclarationsByImage(VariableNameDeclaration.class, occurrence.getImage()).iterator());
         if (finder.getDecl() != null) {
             return Collections.singleton(finder.getDecl());
         }
@@ -12,8 +12,6 @@ import java.util.Set;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTName;
-import net.sourceforge.pmd.lang.symboltable.Applier;
-import net.sourceforge.pmd.lang.symboltable.ImageFinderFunction;
 import net.sourceforge.pmd.lang.symboltable.NameDeclaration;
 import net.sourceforge.pmd.lang.symboltable.NameOccurrence;
 
@@ -60,10 +58,10 @@ public class MethodScope extends AbstractJavaScope {
         if (occurrence.isThisOrSuper() || occurrence.isMethodOrConstructorInvocation()) {
             return Collections.emptySet();
         }
-        ImageFinderFunction finder = new ImageFinderFunction(occurrence.getImage());
-        Applier.apply(finder, getVariableDeclarations().keySet().iterator());
-        if (finder.getDecl() != null) {
-            return Collections.singleton(finder.getDecl());
+        List<VariableNameDeclaration> declarations = getDeclarationsByImage(VariableNameDeclaration.class,
+                occurrence.getImage());
+        if (!declarations.isEmpty()) {
+            return Collections.<NameDeclaration>singleton(declarations.get(0));
         }
         return Collections.emptySet();
     }
@@ -0,0 +1,172 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.typeresolution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded cache of values computed from a class, by class name, which
+ * can be shared between threads, e.g. {@link ClassStub}s. The entries are
+ * split into segments by name, each segment is a small LRU map with its own
+ * lock, so concurrent lookups rarely wait for each other. The classes which
+ * don't exist are cached too.
+ *
+ * <p>The bound is approximate: each segment evicts its least recently used
+ * entry once it holds more than its share of the maximum size.</p>
+ *
+ * @param <V>
+ *            the type of the cached values
+ */
+public final class ClassCache<V> {
+
+    /**
+     * Computes a value on a cache miss.
+     *
+     * @param <V>
+     *            the type of the values
+     */
+    public interface Loader<V> {
+        /**
+         * @param name
+         *            the binary name of the class
+         * @return the value, or <code>null</code> if the class doesn't exist
+         */
+        V load(String name);
+    }
+
+    private static final int SEGMENTS = 16;
+
+    /** Stands for a class which doesn't exist. */
+    private static final Object MISSING = new Object();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maximumSize
+     *            the maximum number of entries
+     */
+    public ClassCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive, got " + maximumSize);
+        }
+        int segmentSize = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    private Segment segmentFor(String name) {
+        int h = name.hashCode();
+        return segments[(h ^ h >>> 16) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Gets the value for a class, loading it if it isn't in the cache. The
+     * loader is called without holding any lock, so two threads may load the
+     * same class at the same time, and the last one wins.
+     *
+     * @param name
+     *            the binary name of the class
+     * @param loader
+     *            the loader to use on a cache miss
+     * @return the value, or <code>null</code> if the class doesn't exist
+     */
+    public V get(String name, Loader<? extends V> loader) {
+        Segment segment = segmentFor(name);
+        Object value;
+        synchronized (segment) {
+            value = segment.get(name);
+        }
+        if (value == null) {
+            misses.incrementAndGet();
+            value = loader.load(name);
+            if (value == null) {
+                value = MISSING;
+            }
+            synchronized (segment) {
+                segment.put(name, value);
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+        return unwrap(value);
+    }
+
+    /**
+     * @return the value for the class if it is in the cache,
+     *         <code>null</code> otherwise or if the class doesn't exist
+     */
+    public V getIfPresent(String name) {
+        Segment segment = segmentFor(name);
+        Object value;
+        synchronized (segment) {
+            value = segment.get(name);
+        }
+        return unwrap(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V unwrap(Object value) {
+        return value == MISSING ? null : (V) value;
+    }
+
+    /**
+     * @return the number of cached entries, including the missing classes
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of calls to {@link #get(String, Loader)} answered
+     *         from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of calls to {@link #get(String, Loader)} which
+     *         called the loader
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > capacity;
+        }
+    }
+}
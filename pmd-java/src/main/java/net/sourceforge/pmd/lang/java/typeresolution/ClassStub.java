@@ -0,0 +1,99 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.typeresolution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.objectweb.asm.Opcodes;
+
+/**
+ * A symbolic view of a class, read from its class file with ASM. Unlike a
+ * {@link Class}, a stub doesn't define the class in the JVM: no static
+ * initializer is run, no dependency needs to be present, and it can be
+ * garbage collected like any other object.
+ *
+ * <p>A stub only holds what is needed to look up the methods of a class and
+ * of its superclasses, e.g. the static methods imported on demand. The names
+ * are binary names, e.g. <code>java.util.Map$Entry</code>.</p>
+ *
+ * @see PMDASMClassLoader#getClassStub(String)
+ */
+public final class ClassStub {
+
+    private final String name;
+    private final String superName;
+    private final List<Member> methods;
+
+    public ClassStub(String name, String superName, List<Member> methods) {
+        this.name = name;
+        this.superName = superName;
+        this.methods = Collections.unmodifiableList(new ArrayList<>(methods));
+    }
+
+    /**
+     * @return the binary name of the class
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the binary name of the superclass, or <code>null</code> for
+     *         <code>java.lang.Object</code>
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * @return the methods declared by the class with the given name
+     */
+    public List<Member> getMethods(String methodName) {
+        List<Member> result = new ArrayList<>();
+        for (Member method : methods) {
+            if (method.getName().equals(methodName)) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassStub[" + name + "]";
+    }
+
+    /**
+     * A method of a {@link ClassStub}.
+     */
+    public static final class Member {
+        private final String name;
+        private final int access;
+
+        public Member(String name, int access) {
+            this.name = name;
+            this.access = access;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isStatic() {
+            return (access & Opcodes.ACC_STATIC) != 0;
+        }
+
+        public boolean isPublic() {
+            return (access & Opcodes.ACC_PUBLIC) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -705,14 +705,18 @@ public class ClassTypeResolver extends JavaParserVisitorAdapter {
      * Check whether the supplied class name exists.
      */
     public boolean classNameExists(String fullyQualifiedClassName) {
-        try {
-            pmdClassLoader.loadClass(fullyQualifiedClassName);
-            return true; // Class found
-        } catch (ClassNotFoundException e) {
-            return false;
-        } catch (NoClassDefFoundError e) {
-            return false;
-        }
+        // reading the class file is enough, there is no need to define the
+        // class
+        return pmdClassLoader.getClassStub(fullyQualifiedClassName) != null;
+    }
+
+    /**
+     * Reads the declarations of a class without loading it.
+     *
+     * @see PMDASMClassLoader#getClassStub(String)
+     */
+    public ClassStub getClassStub(String fullyQualifiedClassName) {
+        return pmdClassLoader.getClassStub(fullyQualifiedClassName);
     }
 
     public Class<?> loadClass(String fullyQualifiedClassName) {
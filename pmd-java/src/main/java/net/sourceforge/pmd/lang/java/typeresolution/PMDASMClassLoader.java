@@ -7,14 +7,19 @@ package net.sourceforge.pmd.lang.java.typeresolution;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.io.IOUtils;
 import org.objectweb.asm.ClassReader;
 
+import net.sourceforge.pmd.lang.java.typeresolution.visitors.ClassStubVisitor;
 import net.sourceforge.pmd.lang.java.typeresolution.visitors.PMDASMVisitor;
+import net.sourceforge.pmd.util.ClasspathClassLoader;
+import net.sourceforge.pmd.util.ClasspathIndex;
 
 /*
  * I've refactored this class to not cache the results any more. This is a
@@ -32,9 +37,42 @@ import net.sourceforge.pmd.lang.java.typeresolution.visitors.PMDASMVisitor;
  * 
  * Note: since git show 46ad3a4700b7a233a177fa77d08110127a85604c the cache is using
  * a concurrent hash map to avoid synchronizing on the class loader instance.
+ *
+ * Classes which only need to be inspected can be read as ClassStubs with
+ * getClassStub: they are not defined in the JVM, so they don't use metaspace
+ * and can't fail with a LinkageError.
+ *
+ * The positive results of getClassStub and getImportedClasses, and the class
+ * files they read, are kept in size bounded ClassCaches, so the memory doesn't
+ * grow with the size of the auxclasspath. Unlike the defined classes, these
+ * can be evicted again. The caches don't need to synchronize on the class
+ * loader either, so the threads of a multithreaded analysis don't wait for
+ * each other.
+ *
+ * If the auxclasspath has an index (see ClasspathClassLoader.getIndex), a
+ * class of a package of the auxclasspath which isn't in the index is known not
+ * to be on the auxclasspath itself, so only the parent of the auxclasspath
+ * class loader is probed for it, instead of every jar of the auxclasspath. The
+ * parent may still have it, as packages can be split, e.g. javax.annotation
+ * between the JDK and jsr305.
  */
 public final class PMDASMClassLoader extends ClassLoader {
 
+    /**
+     * The maximum number of class stubs kept in memory.
+     */
+    private static final int MAX_CLASS_STUBS = 10000;
+
+    /**
+     * The maximum number of results of getImportedClasses kept in memory.
+     */
+    private static final int MAX_IMPORTED_CLASSES = 1000;
+
+    /**
+     * The maximum number of class files kept in memory.
+     */
+    private static final int MAX_CLASS_FILES = 1000;
+
     private static PMDASMClassLoader cachedPMDASMClassLoader;
     private static ClassLoader cachedClassLoader;
 
@@ -43,12 +81,69 @@ public final class PMDASMClassLoader extends ClassLoader {
      */
     private final ConcurrentMap<String, Boolean> dontBother = new ConcurrentHashMap<>();
 
+    private final ClassCache<ClassStub> classStubs = new ClassCache<>(MAX_CLASS_STUBS);
+
+    private final ClassCache<Map<String, String>> importedClasses = new ClassCache<>(MAX_IMPORTED_CLASSES);
+
+    private final ClassCache<byte[]> classFiles = new ClassCache<>(MAX_CLASS_FILES);
+
+    private final ClassCache.Loader<ClassStub> classStubLoader = new ClassCache.Loader<ClassStub>() {
+        @Override
+        public ClassStub load(String name) {
+            return readClassStub(name);
+        }
+    };
+
+    private final ClassCache.Loader<Map<String, String>> importedClassesLoader =
+            new ClassCache.Loader<Map<String, String>>() {
+                @Override
+                public Map<String, String> load(String name) {
+                    return readImportedClasses(name);
+                }
+            };
+
+    private final ClassCache.Loader<byte[]> classFileLoader = new ClassCache.Loader<byte[]>() {
+        @Override
+        public byte[] load(String name) {
+            return readClassFile(name);
+        }
+    };
+
     static {
         registerAsParallelCapable();
     }
 
+    /**
+     * The index of the auxclasspath, or null.
+     */
+    private final ClasspathIndex classpathIndex;
+
+    /**
+     * The parent of the auxclasspath class loader, if the auxclasspath has an
+     * index.
+     */
+    private final ClassLoader classpathParent;
+
     private PMDASMClassLoader(ClassLoader parent) {
         super(parent);
+        classpathIndex = parent instanceof ClasspathClassLoader ? ((ClasspathClassLoader) parent).getIndex() : null;
+        if (classpathIndex == null) {
+            classpathParent = null;
+        } else if (parent.getParent() != null) {
+            classpathParent = parent.getParent();
+        } else {
+            classpathParent = new BootstrapClassLoader();
+        }
+    }
+
+    /**
+     * Delegates to the bootstrap class loader only, like a class loader whose
+     * parent is <code>null</code>.
+     */
+    private static final class BootstrapClassLoader extends ClassLoader {
+        BootstrapClassLoader() {
+            super(null);
+        }
     }
 
     /**
@@ -72,6 +167,9 @@ public final class PMDASMClassLoader extends ClassLoader {
         }
 
         try {
+            if (isNotInIndex(name)) {
+                return classpathParent.loadClass(name);
+            }
             return super.loadClass(name);
         } catch (ClassNotFoundException e) {
             dontBother.put(name, Boolean.TRUE);
@@ -99,32 +197,130 @@ public final class PMDASMClassLoader extends ClassLoader {
         return !dontBother.containsKey(name);
     }
 
-    public synchronized Map<String, String> getImportedClasses(String name) throws ClassNotFoundException {
-        if (dontBother.containsValue(name)) {
-            throw new ClassNotFoundException(name);
+    /**
+     * Checks whether the index of the auxclasspath knows that the class isn't
+     * on the auxclasspath itself, i.e. its package is in the index, but not
+     * the class. It can still be found by {@link #classpathParent}.
+     */
+    private boolean isNotInIndex(String name) {
+        if (classpathIndex == null) {
+            return false;
         }
-        try (InputStream classResource = getResourceAsStream(name.replace('.', '/') + ".class")) {
-            ClassReader reader = new ClassReader(classResource);
-            PMDASMVisitor asmVisitor = new PMDASMVisitor(name);
-            reader.accept(asmVisitor, 0);
-
-            List<String> inner = asmVisitor.getInnerClasses();
-            if (inner != null && !inner.isEmpty()) {
-                // to avoid ConcurrentModificationException
-                inner = new ArrayList<>(inner);
-                for (String str : inner) {
-                    try (InputStream innerClassStream = getResourceAsStream(str.replace('.', '/') + ".class")) {
-                        if (innerClassStream != null) {
-                            reader = new ClassReader(innerClassStream);
-                            reader.accept(asmVisitor, 0);
-                        }
-                    }
-                }
+        int dot = name.lastIndexOf('.');
+        String packageName = dot < 0 ? "" : name.substring(0, dot);
+        return classpathIndex.containsPackage(packageName) && !classpathIndex.containsClass(name);
+    }
+
+    /**
+     * Reads the declarations of a class from its class file, without defining
+     * the class. The stubs are cached.
+     *
+     * @param name
+     *            the binary name of the class, e.g.
+     *            <code>java.util.Map$Entry</code>
+     * @return the stub, or <code>null</code> if the class file can't be found
+     *         or read
+     */
+    public ClassStub getClassStub(String name) {
+        if (dontBother.containsKey(name)) {
+            return null;
+        }
+        return classStubs.get(name, classStubLoader);
+    }
+
+    private ClassStub readClassStub(String name) {
+        byte[] classFile = classFiles.get(name, classFileLoader);
+        if (classFile == null) {
+            return null;
+        }
+        try {
+            ClassReader reader = new ClassReader(classFile);
+            ClassStubVisitor visitor = new ClassStubVisitor();
+            reader.accept(visitor, ClassStubVisitor.PARSING_OPTIONS);
+            return visitor.getClassStub();
+        } catch (RuntimeException e) {
+            // e.g. a class file version not supported by ASM
+            return null;
+        }
+    }
+
+    private byte[] readClassFile(String name) {
+        ClassLoader loader = isNotInIndex(name) ? classpathParent : this;
+        try (InputStream classResource = loader.getResourceAsStream(name.replace('.', '/') + ".class")) {
+            if (classResource == null) {
+                return null;
             }
-            return asmVisitor.getPackages();
+            return IOUtils.toByteArray(classResource);
         } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the classes used by a class and its inner classes, by simple name.
+     * The results are cached.
+     *
+     * @param name
+     *            the binary name of the class
+     * @return the binary names of the used classes, by simple name. Must not
+     *         be modified.
+     * @throws ClassNotFoundException
+     *             if the class file can't be found
+     */
+    public Map<String, String> getImportedClasses(String name) throws ClassNotFoundException {
+        if (dontBother.containsKey(name)) {
+            throw new ClassNotFoundException(name);
+        }
+        Map<String, String> result = importedClasses.get(name, importedClassesLoader);
+        if (result == null) {
             dontBother.put(name, Boolean.TRUE);
-            throw new ClassNotFoundException(name, e);
+            throw new ClassNotFoundException(name);
+        }
+        return result;
+    }
+
+    private Map<String, String> readImportedClasses(String name) {
+        byte[] classFile = classFiles.get(name, classFileLoader);
+        if (classFile == null) {
+            return null;
+        }
+        PMDASMVisitor asmVisitor = new PMDASMVisitor(name);
+        new ClassReader(classFile).accept(asmVisitor, 0);
+
+        List<String> inner = asmVisitor.getInnerClasses();
+        if (inner != null && !inner.isEmpty()) {
+            // to avoid ConcurrentModificationException
+            inner = new ArrayList<>(inner);
+            for (String str : inner) {
+                byte[] innerClassFile = classFiles.get(str, classFileLoader);
+                if (innerClassFile != null) {
+                    new ClassReader(innerClassFile).accept(asmVisitor, 0);
+                }
+            }
         }
+        return Collections.unmodifiableMap(asmVisitor.getPackages());
+    }
+
+    /**
+     * @return the cache of {@link #getClassStub(String)}, e.g. for its
+     *         statistics
+     */
+    public ClassCache<ClassStub> getClassStubCache() {
+        return classStubs;
+    }
+
+    /**
+     * @return the cache of {@link #getImportedClasses(String)}, e.g. for its
+     *         statistics
+     */
+    public ClassCache<Map<String, String>> getImportedClassesCache() {
+        return importedClasses;
+    }
+
+    /**
+     * @return the cache of the class files read by this class loader
+     */
+    public ClassCache<byte[]> getClassFileCache() {
+        return classFiles;
     }
 }
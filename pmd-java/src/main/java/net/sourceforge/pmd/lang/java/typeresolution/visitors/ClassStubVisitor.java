@@ -0,0 +1,60 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.typeresolution.visitors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.sourceforge.pmd.lang.java.typeresolution.ClassStub;
+
+/**
+ * Builds a {@link ClassStub} from a class file. Only the declarations of the
+ * class and of its methods are visited, the class should be read with {@link #PARSING_OPTIONS}.
+ */
+public class ClassStubVisitor extends ClassVisitor {
+
+    /** The options to use with {@link ClassReader#accept(ClassVisitor, int)}. */
+    public static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG
+            | ClassReader.SKIP_FRAMES;
+
+    private String internalName;
+    private String superName;
+    private final List<ClassStub.Member> methods = new ArrayList<>();
+
+    public ClassStubVisitor() {
+        super(Opcodes.ASM5);
+    }
+
+    /**
+     * @return the stub of the visited class
+     */
+    public ClassStub getClassStub() {
+        return new ClassStub(toBinaryName(internalName), toBinaryName(superName), methods);
+    }
+
+    private static String toBinaryName(String internalName) {
+        return internalName == null ? null : internalName.replace('/', '.');
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName,
+            String[] interfaces) {
+        this.internalName = name;
+        this.superName = superName;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        if ((access & Opcodes.ACC_SYNTHETIC) == 0 && !"<clinit>".equals(name)) {
+            methods.add(new ClassStub.Member(name, access));
+        }
+        return null;
+    }
+}
@@ -36,6 +36,22 @@ public class JavaTokensTokenizerTest {
         assertEquals(6, tokens.size());
     }
 
+    @Test
+    public void testTokenizerIsReusedAcrossFiles() throws IOException {
+        Tokenizer tokenizer = new JavaTokenizer();
+        Tokens tokens = new Tokens();
+        // the first source ends within a comment, the reused token manager
+        // must not carry any state over to the next source
+        tokenizer.tokenize(new SourceCode(new SourceCode.StringCodeLoader("public class Foo { } // NOPMD", "Foo.java")),
+                tokens);
+        assertEquals(6, tokens.size());
+        tokenizer.tokenize(new SourceCode(new SourceCode.StringCodeLoader("class Bar { int i; }", "Bar.java")),
+                tokens);
+        assertEquals(13, tokens.size());
+        assertEquals(1, tokens.getTokens().get(6).getBeginLine());
+        assertEquals("Bar.java", tokens.getTokens().get(6).getTokenSrcID());
+    }
+
     @Test
     public void test2() throws IOException {
         Tokenizer t = new JavaTokenizer();
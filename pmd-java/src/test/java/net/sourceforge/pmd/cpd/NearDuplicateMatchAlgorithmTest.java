@@ -0,0 +1,101 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+
+public class NearDuplicateMatchAlgorithmTest {
+
+    private static final String FOO = "public class Foo {" + PMD.EOL
+            + " public int foo(int a, int b) {" + PMD.EOL
+            + "  int sum = a + b;" + PMD.EOL
+            + "  if (sum > 10) {" + PMD.EOL
+            + "   System.out.println(\"big\");" + PMD.EOL
+            + "  } else {" + PMD.EOL
+            + "   System.out.println(\"small\");" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  for (int i = 0; i < sum; i++) {" + PMD.EOL
+            + "   sum = sum * 2 - i;" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  while (sum > 100) {" + PMD.EOL
+            + "   sum = sum / 3;" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  return sum;" + PMD.EOL
+            + " }" + PMD.EOL
+            + "}";
+
+    // the same method, with an additional statement
+    private static final String BAR = "public class Bar {" + PMD.EOL
+            + " private String s;" + PMD.EOL
+            + " public int foo(int a, int b) {" + PMD.EOL
+            + "  int sum = a + b;" + PMD.EOL
+            + "  if (sum > 10) {" + PMD.EOL
+            + "   System.out.println(\"big\");" + PMD.EOL
+            + "  } else {" + PMD.EOL
+            + "   System.out.println(\"small\");" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  s = String.valueOf(sum);" + PMD.EOL
+            + "  for (int i = 0; i < sum; i++) {" + PMD.EOL
+            + "   sum = sum * 2 - i;" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  while (sum > 100) {" + PMD.EOL
+            + "   sum = sum / 3;" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  return sum;" + PMD.EOL
+            + " }" + PMD.EOL
+            + "}";
+
+    private static NearDuplicateMatchAlgorithm findMatches(float similarity) {
+        TokenEntry.clearImages();
+        JavaTokenizer tokenizer = new JavaTokenizer();
+        Tokens tokens = new Tokens();
+        Map<String, SourceCode> codeMap = new HashMap<>();
+        for (SourceCode sourceCode : new SourceCode[] {
+            new SourceCode(new SourceCode.StringCodeLoader(FOO, "Foo.java")),
+            new SourceCode(new SourceCode.StringCodeLoader(BAR, "Bar.java")), }) {
+            tokenizer.tokenize(sourceCode, tokens);
+            codeMap.put(sourceCode.getFileName(), sourceCode);
+        }
+        NearDuplicateMatchAlgorithm algorithm = new NearDuplicateMatchAlgorithm(codeMap, tokens, 30, similarity);
+        algorithm.findMatches();
+        return algorithm;
+    }
+
+    @Test
+    public void testGappedCloneIsFound() {
+        Iterator<Match> matches = findMatches(0.5f).matches();
+        assertTrue(matches.hasNext());
+        Match match = matches.next();
+        assertFalse(matches.hasNext());
+        assertTrue(match.getSimilarity() >= 0.5f);
+        assertTrue(match.getSimilarity() < 1.0f);
+
+        Iterator<Mark> marks = match.iterator();
+        Mark mark1 = marks.next();
+        Mark mark2 = marks.next();
+        assertFalse(marks.hasNext());
+
+        assertEquals("Foo.java", mark1.getFilename());
+        assertEquals("Bar.java", mark2.getFilename());
+        // the match spans the inserted statement
+        assertTrue(mark2.getBeginLine() < 10);
+        assertTrue(mark2.getBeginLine() + mark2.getLineCount() - 1 > 10);
+    }
+
+    @Test
+    public void testSimilarityThreshold() {
+        assertFalse(findMatches(1.0f).matches().hasNext());
+    }
+}
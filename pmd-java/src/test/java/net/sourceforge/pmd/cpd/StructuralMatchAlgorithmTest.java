@@ -0,0 +1,87 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+
+public class StructuralMatchAlgorithmTest {
+
+    private static final String FOO = "public class Foo {" + PMD.EOL
+            + " public int foo(int a) {" + PMD.EOL
+            + "  int b = a * 2;" + PMD.EOL
+            + "  if (b > 10) {" + PMD.EOL
+            + "   System.out.println(\"big\");" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  return b;" + PMD.EOL
+            + " }" + PMD.EOL
+            + "}";
+
+    private static final String BAR = "public class Bar {" + PMD.EOL
+            + " private String s;" + PMD.EOL
+            + " public int bar(int x) {" + PMD.EOL
+            + "  int y = x * 3;" + PMD.EOL
+            + "  if (y > 10) {" + PMD.EOL
+            + "   System.out.println(\"large\");" + PMD.EOL
+            + "  }" + PMD.EOL
+            + "  return y;" + PMD.EOL
+            + " }" + PMD.EOL
+            + "}";
+
+    private static LanguageVersionHandler getJavaHandler() {
+        return LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion().getLanguageVersionHandler();
+    }
+
+    private static StructuralMatchAlgorithm findMatches(boolean ignoreIdentifiers, boolean ignoreLiterals) {
+        TokenEntry.clearImages();
+        StructuralMatchAlgorithm algorithm = new StructuralMatchAlgorithm(getJavaHandler(), 20, ignoreIdentifiers,
+                ignoreLiterals);
+        algorithm.add(new SourceCode(new SourceCode.StringCodeLoader(FOO, "Foo.java")));
+        algorithm.add(new SourceCode(new SourceCode.StringCodeLoader(BAR, "Bar.java")));
+        algorithm.findMatches();
+        return algorithm;
+    }
+
+    @Test
+    public void testRenamedMethodIsFound() {
+        Iterator<Match> matches = findMatches(true, true).matches();
+        assertTrue(matches.hasNext());
+        Match match = matches.next();
+        assertFalse(matches.hasNext());
+
+        Iterator<Mark> marks = match.iterator();
+        Mark mark1 = marks.next();
+        Mark mark2 = marks.next();
+        assertFalse(marks.hasNext());
+
+        assertEquals("Bar.java", mark1.getFilename());
+        assertEquals(3, mark1.getBeginLine());
+        assertEquals(7, mark1.getLineCount());
+        assertEquals("Foo.java", mark2.getFilename());
+        assertEquals(2, mark2.getBeginLine());
+        assertEquals(7, mark2.getLineCount());
+        assertTrue(mark2.getSourceCodeSlice().startsWith(" public int foo(int a) {"));
+    }
+
+    @Test
+    public void testIdentifiersAreComparedByDefault() {
+        Iterator<Match> matches = findMatches(false, false).matches();
+        while (matches.hasNext()) {
+            Match match = matches.next();
+            // only small fragments, like the println statements, can match
+            assertTrue(match.getLineCount() < 7);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.ast;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.lang.java.ParserTst;
+
+public class SuppressionIndexTest extends ParserTst {
+
+    @Test
+    public void testSuppressedRanges() {
+        ASTCompilationUnit cu = parseJava15(TEST1);
+        SuppressionIndex index = cu.getSuppressionIndex();
+        ASTMethodDeclaration bar = cu.findDescendantsOfType(ASTMethodDeclaration.class).get(0);
+        ASTMethodDeclaration baz = cu.findDescendantsOfType(ASTMethodDeclaration.class).get(1);
+        ASTLocalVariableDeclaration local = bar.getFirstDescendantOfType(ASTLocalVariableDeclaration.class);
+        ASTFormalParameter parameter = baz.getFirstDescendantOfType(ASTFormalParameter.class);
+
+        assertFalse(index.isEmpty());
+        assertTrue(index.isSuppressed(local, "Foo"));
+        assertTrue(index.isSuppressed(bar, "Foo"));
+        assertFalse(index.isSuppressed(local, "Bar"));
+        assertTrue(index.isSuppressed(parameter, "UnusedFormalParameter"));
+        assertFalse(index.isSuppressed(parameter, "Foo"));
+        assertFalse(index.isSuppressed(baz, "UnusedFormalParameter"));
+        assertFalse(index.isSuppressed(baz, "Foo"));
+        assertFalse(index.isSuppressed(cu, "Foo"));
+    }
+
+    @Test
+    public void testTopLevelSuppression() {
+        ASTCompilationUnit cu = parseJava15(TEST2);
+        SuppressionIndex index = cu.getSuppressionIndex();
+
+        assertTrue(index.isSuppressed(cu, "Foo"));
+        assertTrue(index.isSuppressed(cu.getFirstDescendantOfType(ASTFieldDeclaration.class), "Bar"));
+        assertTrue(index.isSuppressed(cu.getFirstDescendantOfType(ASTFieldDeclaration.class), "Foo"));
+        assertFalse(index.isSuppressed(cu.getFirstDescendantOfType(ASTImportDeclaration.class), "Bar"));
+    }
+
+    @Test
+    public void testSeveralValues() {
+        ASTCompilationUnit cu = parseJava15(
+                "@SuppressWarnings({\"serial\", \"PMD.Foo\"}) public class Foo implements java.io.Serializable { }");
+        SuppressionIndex index = cu.getSuppressionIndex();
+        ASTClassOrInterfaceDeclaration foo = cu.getFirstDescendantOfType(ASTClassOrInterfaceDeclaration.class);
+
+        assertTrue(index.isSuppressed(foo, "MissingSerialVersionUID"));
+        assertTrue(index.isSuppressed(foo, "Foo"));
+        assertFalse(index.isSuppressed(foo, "UnusedPrivateField"));
+        assertFalse(index.isSuppressed(foo, "Fo"));
+    }
+
+    @Test
+    public void testNoAnnotation() {
+        assertTrue(parseJava15("public class Foo { @Override public String toString() { return \"\"; } }")
+                .getSuppressionIndex().isEmpty());
+    }
+
+    private static final String TEST1 = "public class Foo {" + PMD.EOL + " @SuppressWarnings(\"PMD.Foo\")" + PMD.EOL
+            + " void bar() {" + PMD.EOL + "  int x;" + PMD.EOL + " }" + PMD.EOL
+            + " void baz(@SuppressWarnings(\"unused\") int y) {" + PMD.EOL + " }" + PMD.EOL + "}";
+
+    private static final String TEST2 = "import java.util.List;" + PMD.EOL + "@SuppressWarnings(\"all\")" + PMD.EOL
+            + "public class Foo {" + PMD.EOL + " int x;" + PMD.EOL + "}";
+}
@@ -117,6 +117,19 @@ public class ClassScopeTest extends STBBaseTst {
         assertEquals("bar", ((MethodNameDeclaration) i.next()).getImage());
     }
 
+    @Test
+    public void testOverloadedMethodUsagesByArgumentCount() {
+        parseCode(OVERLOADED_METHOD_USAGES);
+        ASTClassOrInterfaceDeclaration n = acu.findDescendantsOfType(ASTClassOrInterfaceDeclaration.class).get(0);
+        ClassScope s = (ClassScope) n.getScope();
+        List<MethodNameDeclaration> bars = s.getDeclarationsByImage(MethodNameDeclaration.class, "bar");
+        assertEquals(2, bars.size());
+        Map<MethodNameDeclaration, List<NameOccurrence>> m = s.getDeclarations(MethodNameDeclaration.class);
+        assertEquals(2, m.get(bars.get(0)).size());
+        assertEquals(1, m.get(bars.get(1)).size());
+        assertTrue(s.getDeclarationsByImage(VariableNameDeclaration.class, "bar").isEmpty());
+    }
+
     @Test
     public final void testOneParam() {
         parseCode(ONE_PARAM);
@@ -332,6 +345,11 @@ public class ClassScopeTest extends STBBaseTst {
     private static final String METHODS_WITH_DIFF_ARG = "public class Foo {" + PMD.EOL
             + " private void bar(String x) {}" + PMD.EOL + " private void bar() {}" + PMD.EOL + "}";
 
+    private static final String OVERLOADED_METHOD_USAGES = "public class Foo {" + PMD.EOL
+            + " private void bar(int x) {}" + PMD.EOL + " private void bar() {}" + PMD.EOL
+            + " public void buz() {" + PMD.EOL + "  bar(1);" + PMD.EOL + "  bar();" + PMD.EOL + "  bar(2);" + PMD.EOL
+            + " }" + PMD.EOL + "}";
+
     private static final String ENUM_SCOPE = "public enum Foo {" + PMD.EOL + " HEAP(\"foo\");" + PMD.EOL
             + " private final String fuz;" + PMD.EOL + " public String getFuz() {" + PMD.EOL + "  return fuz;" + PMD.EOL
             + " }" + PMD.EOL + "}";
@@ -0,0 +1,76 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.typeresolution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.java.typeresolution.ClassCache;
+import net.sourceforge.pmd.lang.java.typeresolution.ClassStub;
+
+public class ClassCacheTest {
+
+    private static class CountingLoader implements ClassCache.Loader<ClassStub> {
+        int loads = 0;
+
+        @Override
+        public ClassStub load(String name) {
+            loads++;
+            if (name.startsWith("missing.")) {
+                return null;
+            }
+            return new ClassStub(name, "java.lang.Object", Collections.<ClassStub.Member>emptyList());
+        }
+    }
+
+    @Test
+    public void testStubsAreCached() {
+        ClassCache<ClassStub> cache = new ClassCache<>(100);
+        CountingLoader loader = new CountingLoader();
+        ClassStub stub = cache.get("foo.Bar", loader);
+        assertEquals("foo.Bar", stub.getName());
+        assertSame(stub, cache.get("foo.Bar", loader));
+        assertSame(stub, cache.getIfPresent("foo.Bar"));
+        assertEquals(1, loader.loads);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testMissingClassesAreCached() {
+        ClassCache<ClassStub> cache = new ClassCache<>(100);
+        CountingLoader loader = new CountingLoader();
+        assertNull(cache.get("missing.Bar", loader));
+        assertNull(cache.get("missing.Bar", loader));
+        assertEquals(1, loader.loads);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        ClassCache<ClassStub> cache = new ClassCache<>(64);
+        CountingLoader loader = new CountingLoader();
+        for (int i = 0; i < 10000; i++) {
+            cache.get("foo.Bar" + i, loader);
+        }
+        assertTrue(cache.size() <= 64);
+        // the most recently used entry is kept
+        assertEquals("foo.Bar9999", cache.getIfPresent("foo.Bar9999").getName());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new ClassCache<ClassStub>(0);
+    }
+}
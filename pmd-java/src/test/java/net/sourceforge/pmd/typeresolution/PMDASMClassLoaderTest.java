@@ -5,19 +5,40 @@
 package net.sourceforge.pmd.typeresolution;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import net.sourceforge.pmd.lang.java.typeresolution.ClassStub;
 import net.sourceforge.pmd.lang.java.typeresolution.PMDASMClassLoader;
+import net.sourceforge.pmd.util.ClasspathClassLoader;
 
 public class PMDASMClassLoaderTest {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     private PMDASMClassLoader cl;
 
     @Before
@@ -85,7 +106,158 @@ public class PMDASMClassLoaderTest {
         assertEquals(1, mockedClassloader.findClassCalls);
     }
 
+    @Test
+    public void testClassStub() {
+        ClassStub stub = cl.getClassStub("java.util.Map$Entry");
+        assertNotNull(stub);
+        assertEquals("java.util.Map$Entry", stub.getName());
+        assertEquals("java.lang.Object", stub.getSuperName());
+        assertEquals(1, stub.getMethods("getKey").size());
+        assertTrue(stub.getMethods("getKey").get(0).isPublic());
+        assertFalse(stub.getMethods("getKey").get(0).isStatic());
+
+        stub = cl.getClassStub("java.util.Collections");
+        assertEquals("java.lang.Object", stub.getSuperName());
+        assertTrue(stub.getMethods("emptyList").get(0).isStatic());
+        assertEquals("java.util.AbstractList", cl.getClassStub("java.util.ArrayList").getSuperName());
+
+        assertNull(cl.getClassStub("that.clazz.doesnot.Exist"));
+    }
+
+    @Test
+    public void testClassStubDoesNotLoadClass() {
+        MockedClassLoader mockedClassloader = new MockedClassLoader();
+        PMDASMClassLoader cl = PMDASMClassLoader.getInstance(mockedClassloader);
+        ClassStub stub = cl.getClassStub("net.sourceforge.pmd.typeresolution.ClassWithImportOnDemand");
+        assertNotNull(stub);
+        assertEquals(1, stub.getMethods("foo").size());
+        assertEquals(0, mockedClassloader.loadClassCalls);
+        // the stub is cached
+        assertTrue(stub == cl.getClassStub("net.sourceforge.pmd.typeresolution.ClassWithImportOnDemand"));
+    }
+
+    @Test
+    public void testImportedClassesAreCached() throws Exception {
+        MockedClassLoader mockedClassloader = new MockedClassLoader();
+        PMDASMClassLoader cl = PMDASMClassLoader.getInstance(mockedClassloader);
+        String className = "net.sourceforge.pmd.typeresolution.ClassWithImportInnerOnDemand";
+        Map<String, String> imports = cl.getImportedClasses(className);
+        assertEquals("java.util.Map$Entry", imports.get("Entry"));
+        assertSame(imports, cl.getImportedClasses(className));
+        assertEquals(1, cl.getImportedClassesCache().getMissCount());
+        assertEquals(1, cl.getImportedClassesCache().getHitCount());
+
+        // the class file is read only once
+        cl.getClassStub(className);
+        assertEquals(1, cl.getClassFileCache().getHitCount());
+    }
+
+    @Test
+    public void testImportedClassesOfMissingClass() {
+        MockedClassLoader mockedClassloader = new MockedClassLoader();
+        PMDASMClassLoader cl = PMDASMClassLoader.getInstance(mockedClassloader);
+        try {
+            cl.getImportedClasses("that.clazz.doesnot.Exist");
+            fail();
+        } catch (ClassNotFoundException e) {
+            // expected
+        }
+        assertFalse(cl.couldResolve("that.clazz.doesnot.Exist"));
+    }
+
+    @Test
+    public void testAuxclasspathIndex() throws Exception {
+        File directory = tempFolder.newFolder("auxclasspath");
+        String path = "net/sourceforge/pmd/typeresolution/ClassWithImportOnDemand.class";
+        copyClassFile(path, new File(directory, path));
+        // a package split with the JDK, like jsr305 does
+        copyClassFile(path, new File(directory, "javax/annotation/Nonnull.class"));
+        try (ClasspathClassLoader auxclasspath = new ClasspathClassLoader(directory.getPath(), null)) {
+            auxclasspath.setIndexFile(new File(tempFolder.getRoot(), "index"));
+            PMDASMClassLoader cl = PMDASMClassLoader.getInstance(auxclasspath);
+
+            assertTrue(cl.couldResolve("net.sourceforge.pmd.typeresolution.ClassWithImportOnDemand"));
+            assertNotNull(cl.loadClass("net.sourceforge.pmd.typeresolution.ClassWithImportOnDemand"));
+            // the package is known, but not the class
+            try {
+                cl.loadClass("net.sourceforge.pmd.typeresolution.DoesNotExist");
+                fail();
+            } catch (ClassNotFoundException e) {
+                // expected
+            }
+            assertFalse(cl.couldResolve("net.sourceforge.pmd.typeresolution.DoesNotExist"));
+            // the parent class loader still has the other classes of the package
+            assertTrue(cl.couldResolve("javax.annotation.Generated"));
+            assertNotNull(cl.loadClass("javax.annotation.Generated"));
+            assertNotNull(cl.getClassStub("javax.annotation.PostConstruct"));
+            // other packages still need to be probed
+            assertTrue(cl.couldResolve("java.util.List"));
+            assertNotNull(cl.loadClass("java.util.List"));
+        }
+    }
+
+    private void copyClassFile(String path, File classFile) throws Exception {
+        classFile.getParentFile().mkdirs();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(path);
+                FileOutputStream out = new FileOutputStream(classFile)) {
+            IOUtils.copy(in, out);
+        }
+    }
+
+    /**
+     * With this test you can verify how getImportedClasses scales with the
+     * number of threads.
+     *
+     * @throws Exception
+     *             any error
+     */
+    @Ignore
+    @Test
+    public void testImportedClassesScaling() throws Exception {
+        final String[] classNames = { "java.util.ArrayList", "java.util.HashMap", "java.util.concurrent.ConcurrentHashMap",
+            "java.lang.String", "java.util.Collections", "java.util.TreeMap", "java.io.File", "java.lang.Thread", };
+        final int iterations = 200000;
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            final PMDASMClassLoader cl = PMDASMClassLoader.getInstance(new MockedClassLoader());
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<Integer>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int found = 0;
+                        for (int i = 0; i < iterations; i++) {
+                            found += cl.getImportedClasses(classNames[i % classNames.length]).size();
+                        }
+                        return found;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                result.get();
+            }
+            long millis = (System.nanoTime() - start) / 1000000L;
+            executor.shutdown();
+            System.out.println(threads + " threads: " + (long) threads * iterations * 1000L / Math.max(1, millis)
+                    + " lookups/s, hits " + cl.getImportedClassesCache().getHitCount() + ", misses "
+                    + cl.getImportedClassesCache().getMissCount());
+        }
+    }
+
     private static class MockedClassLoader extends ClassLoader {
+        int loadClassCalls = 0;
+
+        MockedClassLoader() {
+            super(PMDASMClassLoaderTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            loadClassCalls++;
+            return super.loadClass(name, resolve);
+        }
+
         int findClassCalls = 0;
 
         @Override
@@ -8,6 +8,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.sourceforge.pmd.lang.DataFlowHandler;
+import net.sourceforge.pmd.lang.dfa.DataFlowAnomalyAnalysis;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
 import net.sourceforge.pmd.lang.plsql.ast.ASTCompoundTriggerBlock;
 import net.sourceforge.pmd.lang.plsql.ast.ASTInput;
 import net.sourceforge.pmd.lang.plsql.ast.ASTMethodDeclaration;
@@ -15,6 +17,7 @@ import net.sourceforge.pmd.lang.plsql.ast.ASTProgramUnit;
 import net.sourceforge.pmd.lang.plsql.ast.ASTTriggerTimingPointSection;
 import net.sourceforge.pmd.lang.plsql.ast.ASTTriggerUnit;
 import net.sourceforge.pmd.lang.plsql.ast.ASTTypeMethod;
+import net.sourceforge.pmd.lang.plsql.ast.PLSQLNode;
 import net.sourceforge.pmd.lang.plsql.ast.PLSQLParserVisitorAdapter;
 
 /**
@@ -36,6 +39,22 @@ public class DataFlowFacade extends PLSQLParserVisitorAdapter {
         node.jjtAccept(this, null);
     }
 
+    /**
+     * Finds the data flow anomalies (DD, DU, UR) of a method, program unit or
+     * trigger whose data flow has been built by this facade.
+     *
+     * @param node
+     *            the node, which must have a data flow node
+     * @param handler
+     *            called for each anomaly
+     */
+    public static void findAnomalies(PLSQLNode node, DataFlowAnomalyAnalysis.AnomalyHandler handler) {
+        DataFlowNode dataFlowNode = node.getDataFlowNode();
+        if (dataFlowNode != null) {
+            new DataFlowAnomalyAnalysis(dataFlowNode.getFlow()).findAnomalies(handler);
+        }
+    }
+
     @Override
     public Object visit(ASTMethodDeclaration node, Object data) {
         LOGGER.entering(CLASS_PATH, "visit(ASTMethodDeclaration)");
@@ -42,7 +42,8 @@ public class LocalScope extends AbstractScope {
 
     @Override
     public void addDeclaration(NameDeclaration declaration) {
-        if (declaration instanceof VariableNameDeclaration && getDeclarations().keySet().contains(declaration)) {
+        if (declaration instanceof VariableNameDeclaration
+                && getDeclarations(VariableNameDeclaration.class).containsKey(declaration)) {
             throw new RuntimeException(declaration + " is already in the symbol table");
         }
         super.addDeclaration(declaration);
@@ -0,0 +1,43 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.plsql.dfa;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.lang.dfa.DataFlowAnomalyAnalysis;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.plsql.AbstractPLSQLParserTst;
+import net.sourceforge.pmd.lang.plsql.ast.ASTTriggerUnit;
+
+public class DataFlowFacadeTest extends AbstractPLSQLParserTst {
+
+    /**
+     * y is read before it is assigned (UR), x is assigned and never read (DU).
+     */
+    @Test
+    public void testFindAnomalies() {
+        ASTTriggerUnit trigger = buildDFA(TEST1).getFirstDescendantOfType(ASTTriggerUnit.class);
+        final List<String> anomalies = new ArrayList<>();
+        DataFlowFacade.findAnomalies(trigger, new DataFlowAnomalyAnalysis.AnomalyHandler() {
+            @Override
+            public void anomalyFound(String type, String variableName, DataFlowNode firstNode,
+                    DataFlowNode lastNode) {
+                anomalies.add(type + " " + variableName + " " + firstNode.getLine() + "-" + lastNode.getLine());
+            }
+        });
+        assertEquals(Arrays.asList("UR y 1-6", "DU x 3-7"), anomalies);
+    }
+
+    private static final String TEST1 = "CREATE OR REPLACE TRIGGER bar BEFORE INSERT ON foo FOR EACH ROW"
+            + PMD.EOL + "DECLARE" + PMD.EOL + "  x NUMBER := 1;" + PMD.EOL + "  y NUMBER;" + PMD.EOL + "BEGIN"
+            + PMD.EOL + "  DBMS_OUTPUT.PUT_LINE(y);" + PMD.EOL + "END;";
+}